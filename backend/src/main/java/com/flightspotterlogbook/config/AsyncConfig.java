@@ -0,0 +1,150 @@
+package com.flightspotterlogbook.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Named, bounded executors for background work, replacing Spring's defaults (an unbounded
+ * queue behind {@code @Async} and a single scheduler thread).
+ *
+ * <ul>
+ *   <li>{@code enrichmentExecutor}: the enrichment job workers, {@code enrichment.jobs.workers}
+ *   threads. A full queue rejects the task, and the worker hands the jobs back to the
+ *   database queue, which is where the backlog belongs.</li>
+ *   <li>{@code asyncExecutor} (also {@code applicationTaskExecutor}): {@code @Async} methods and
+ *   MVC async requests. A full queue runs the task on the caller's thread, which slows the
+ *   producer down instead of dropping work.</li>
+ *   <li>{@code taskScheduler}: {@code @Scheduled} jobs, so a slow job (the cache janitor) does
+ *   not hold up the others (the enrichment poll).</li>
+ * </ul>
+ *
+ * <p>Threads are named after their executor. Pool size, active threads, queue depth and
+ * remaining capacity are published by Spring Boot as {@code executor.*} metrics (tag
+ * {@code name}), and rejected tasks are counted in {@code executor.rejected}.</p>
+ *
+ * <p>With {@code executors.virtual-threads=true} on a JDK with virtual threads (21 or later),
+ * the blocking I/O executors (enrichment and async) start virtual threads instead of platform
+ * threads; their bounds stay the same. On older JDKs the setting is ignored with a warning.</p>
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    // Resolved lazily: async configurers are created before the registry is fully configured
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${executors.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${enrichment.jobs.workers:4}")
+    private int enrichmentWorkers;
+
+    @Value("${executors.enrichment.queue-capacity:16}")
+    private int enrichmentQueueCapacity;
+
+    @Value("${executors.async.core-size:2}")
+    private int asyncCoreSize;
+
+    @Value("${executors.async.max-size:8}")
+    private int asyncMaxSize;
+
+    @Value("${executors.async.queue-capacity:500}")
+    private int asyncQueueCapacity;
+
+    @Value("${executors.scheduler.pool-size:4}")
+    private int schedulerPoolSize;
+
+    @Bean(name = "enrichmentExecutor")
+    public ThreadPoolTaskExecutor enrichmentExecutor() {
+        ThreadPoolTaskExecutor executor = executor("enrichment", enrichmentWorkers, enrichmentWorkers,
+                enrichmentQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        // Running jobs finish or, after this, return to the queue when their lease expires
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    @Bean(name = {"asyncExecutor", "applicationTaskExecutor"})
+    public ThreadPoolTaskExecutor asyncExecutor() {
+        return executor("async", asyncCoreSize, asyncMaxSize, asyncQueueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulerPoolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setErrorHandler(error -> log.error("Scheduled task failed", error));
+        return scheduler;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return asyncExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (error, method, params) -> log.error("Async method {} failed", method.getName(), error);
+    }
+
+    private ThreadPoolTaskExecutor executor(String name, int coreSize, int maxSize, int queueCapacity,
+                                            RejectedExecutionHandler policy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        executor.setRejectedExecutionHandler(counted(name + "Executor", policy));
+        if (virtualThreads) {
+            ThreadFactory factory = virtualThreadFactory(name + "-vt-");
+            if (factory != null) executor.setThreadFactory(factory);
+        }
+        return executor;
+    }
+
+    private RejectedExecutionHandler counted(String name, RejectedExecutionHandler policy) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks rejected because the executor's queue was full")
+                .tag("name", name)
+                .register(meterRegistry.getObject());
+        return (task, pool) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, pool);
+        };
+    }
+
+    /**
+     * Factory for named virtual threads, or null when the JDK has none. Looked up reflectively,
+     * as the project still compiles for Java 17.
+     */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Virtual threads are not available on Java {}; using platform threads", Runtime.version().feature());
+            return null;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.flightspotterlogbook.config;
 
+import com.flightspotterlogbook.service.OpenSkyCreditAccountant;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 
 /**
- * Configures a WebClient for communicating with the OpenSky API. The client includes
- * basic authentication if client credentials are provided via environment variables.
+ * Configures the WebClients used for communicating with the OpenSky API. The enrichment client
+ * includes basic authentication if client credentials are provided via environment variables,
+ * while the lookup client is anonymous and shared by all live aircraft lookups. Both charge
+ * their calls to the shared {@link OpenSkyCreditAccountant} budget.
  */
 @Configuration
 public class OpenSkyConfig {
@@ -22,11 +25,26 @@ public class OpenSkyConfig {
     private String clientSecret;
 
     @Bean
-    public WebClient openSkyWebClient() {
-        WebClient.Builder builder = WebClient.builder().baseUrl(baseUrl);
+    public WebClient openSkyWebClient(OpenSkyCreditAccountant creditAccountant) {
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(baseUrl)
+                .filter(creditAccountant.filter("enrichment"));
         if (clientId != null && !clientId.isBlank() && clientSecret != null && !clientSecret.isBlank()) {
             builder = builder.defaultHeaders(h -> h.setBasicAuth(clientId, clientSecret));
         }
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Anonymous client for the live lookup endpoints. A single instance is shared so that
+     * concurrent metadata lookups reuse the same connection pool instead of building a new
+     * client (and connection) per aircraft.
+     */
+    @Bean
+    public WebClient openSkyLookupWebClient(OpenSkyCreditAccountant creditAccountant) {
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .filter(creditAccountant.filter("lookup"))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.flightspotterlogbook.config;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,18 +16,29 @@ import java.time.Duration;
 public class RateLimitConfig {
 
     /**
-     * OpenSky API rate limiter: 300 requests per day (conservative limit).
-     * OpenSky Network provides ~400 requests/day for authenticated users,
-     * so we set a lower limit (300) to avoid exhausting the quota.
+     * Default daily OpenSky credit budget: a margin under the 400 credits OpenSky grants
+     * anonymous users, as the authenticated client draws on the same bucket.
+     */
+    public static final long DEFAULT_DAILY_BUDGET = 300;
+
+    /**
+     * The daily budget property, the single source for the bucket and OpenSkyCreditAccountant.
+     */
+    public static final String DAILY_BUDGET = "${opensky.credits.daily-budget:" + DEFAULT_DAILY_BUDGET + "}";
+
+    /**
+     * OpenSky API credit budget: {@code opensky.credits.daily-budget} credits per day
+     * (300 by default). A call costs 1-4 credits depending on the area it covers, and an
+     * {@code icao24} query without a box costs 4; see OpenSkyCreditAccountant.
      * 
      * This bucket is shared application-wide to protect against excessive
-     * OpenSky API calls regardless of which user triggers them.
+     * OpenSky API calls regardless of which user or service triggers them.
      */
     @Bean(name = "openSkyRateLimiter")
-    public Bucket openSkyRateLimiter() {
+    public Bucket openSkyRateLimiter(@Value(DAILY_BUDGET) long dailyBudget) {
         Bandwidth limit = Bandwidth.builder()
-                .capacity(300)
-                .refillIntervally(300, Duration.ofDays(1))
+                .capacity(dailyBudget)
+                .refillIntervally(dailyBudget, Duration.ofDays(1))
                 .build();
         return Bucket.builder()
                 .addLimit(limit)
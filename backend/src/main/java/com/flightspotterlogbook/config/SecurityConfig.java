@@ -49,7 +49,7 @@ public class SecurityConfig {
 
     /**
      * Configures the security filter chain to require authentication for all endpoints except
-     * Swagger/OpenAPI resources.
+     * Swagger/OpenAPI resources. Actuator metrics are restricted to admins.
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -66,6 +66,8 @@ public class SecurityConfig {
             )
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                // Meters reveal the credit budget, queue depths and lookup URIs: admins only
+                .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/api/lookup/**").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/sightings").permitAll()
@@ -90,6 +92,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of(allowedOrigins.split(",")));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        // Let the frontend see when live aircraft data is a stale copy
+        configuration.setExposedHeaders(List.of("X-Data-Stale", "Age"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
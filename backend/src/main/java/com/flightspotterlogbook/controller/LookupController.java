@@ -1,13 +1,25 @@
 package com.flightspotterlogbook.controller;
 
 import com.flightspotterlogbook.dto.AircraftDTO;
+import com.flightspotterlogbook.dto.AircraftTrackDTO;
 import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.dto.LiveTrafficUpdateDTO;
 import com.flightspotterlogbook.service.AircraftService;
+import com.flightspotterlogbook.service.AircraftTrackStore;
 import com.flightspotterlogbook.service.AirportService;
+import com.flightspotterlogbook.service.LiveTrafficStreamService;
+import com.flightspotterlogbook.service.LookupResult;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -21,28 +33,68 @@ public class LookupController {
 
     private final AirportService airportService;
     private final AircraftService aircraftService;
+    private final LiveTrafficStreamService liveTrafficStreamService;
+    private final AircraftTrackStore aircraftTrackStore;
+
+    private static final Duration STREAM_HEARTBEAT = Duration.ofSeconds(20);
+    private static final String STALE_HEADER = "X-Data-Stale";
+    private static final Duration ALL_AIRPORTS_MAX_AGE = Duration.ofDays(1);
 
     /**
      * Search European airports by query string.
-     * Matches against ICAO, IATA, name, city, or country.
+     * Matches against ICAO, IATA, name, city, or country, ignoring accents.
      * 
      * @param q search query (minimum 2 characters)
+     * @param fuzzy also return airports with a similar name or city, to tolerate typos
      * @return list of matching airports (max 20)
      */
     @GetMapping("/airports")
-    public ResponseEntity<List<AirportDTO>> searchAirports(@RequestParam(defaultValue = "") String q) {
-        List<AirportDTO> airports = airportService.searchAirports(q);
+    public ResponseEntity<List<AirportDTO>> searchAirports(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        List<AirportDTO> airports = airportService.searchAirports(q, fuzzy);
         return ResponseEntity.ok(airports);
     }
 
     /**
-     * Get all European airports.
+     * Get all airports.
+     * The body is serialised once at startup and sent as is, gzip-compressed when the client
+     * accepts it. It carries a strong ETag and may be cached for a day, so a repeat request costs
+     * a 304 or a copy of the prepared bytes.
      * 
      * @return list of all airports
      */
-    @GetMapping("/airports/all")
-    public ResponseEntity<List<AirportDTO>> getAllAirports() {
-        return ResponseEntity.ok(airportService.getAllAirports());
+    @GetMapping(value = "/airports/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllAirports(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+        AirportService.AirportsPayload payload = airportService.getAllAirportsPayload();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(ALL_AIRPORTS_MAX_AGE).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                // Each encoding is its own representation, so it needs its own strong ETag
+                .eTag(gzip ? payload.version() + "-gzip" : payload.version());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? payload.gzipped() : payload.json());
+    }
+
+    /**
+     * Find the airports nearest to a position, e.g. where the spotter is standing.
+     *
+     * @param lat latitude
+     * @param lon longitude
+     * @param k number of airports to return (default 5, max 50)
+     * @return nearest airports first, each with its great-circle distance in km
+     */
+    @GetMapping("/airports/nearest")
+    public ResponseEntity<List<AirportDTO>> getNearestAirports(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") int k) {
+        return ResponseEntity.ok(airportService.getNearestAirports(lat, lon, k));
     }
 
     /**
@@ -64,31 +116,78 @@ public class LookupController {
      * Search for live aircraft currently flying near a specific airport or over Europe.
      * Uses OpenSky Network API to fetch real-time data.
      * 
-     * If airport coordinates are provided, searches within ~50km radius (uses 1 API credit).
+     * If airport coordinates are provided, searches within {@code radiusKm} of the airport and
+     * returns the nearest aircraft first, each with its distance (one call for the tiles it
+     * covers: 1 API credit, or 2 for the widest radii).
      * Otherwise searches all of Europe (uses 4 API credits).
      * 
+     * The request thread is released while OpenSky is queried; the response is written when
+     * the lookup completes. While OpenSky is slow or down, the last good result for the same
+     * search is returned at once with {@code X-Data-Stale: true} and an {@code Age} header
+     * (seconds), and refreshed in the background.
+     * 
      * @param q optional search query to filter by callsign, ICAO24, or country
      * @param lat optional airport latitude for localized search
      * @param lon optional airport longitude for localized search
+     * @param radiusKm search radius around the airport in kilometres (default 50, max 250)
      * @return list of aircraft currently in the specified airspace
      */
     @GetMapping("/aircraft")
-    public ResponseEntity<List<AircraftDTO>> searchAircraft(
+    public Mono<ResponseEntity<List<AircraftDTO>>> searchAircraft(
             @RequestParam(defaultValue = "") String q,
             @RequestParam(required = false) Double lat,
-            @RequestParam(required = false) Double lon) {
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "50") double radiusKm) {
         
-        List<AircraftDTO> aircraft;
+        Mono<LookupResult<List<AircraftDTO>>> aircraft;
         
         // If airport coordinates provided, search near that airport (saves API credits)
         if (lat != null && lon != null) {
-            aircraft = aircraftService.searchAircraftNearAirport(lat, lon, q);
+            aircraft = aircraftService.searchAircraftNearAirport(lat, lon, radiusKm, q);
         } else {
             // Otherwise search all of Europe
             aircraft = aircraftService.searchAircraftOverEurope(q);
         }
         
-        return ResponseEntity.ok(aircraft);
+        return aircraft.map(result -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (result.stale()) {
+                response.header(STALE_HEADER, "true")
+                        .header(HttpHeaders.AGE, String.valueOf(result.ageSeconds()));
+            }
+            return response.body(result.value());
+        });
+    }
+
+    /**
+     * Stream live aircraft around an airport as Server-Sent Events.
+     * The first event ({@code snapshot}) lists every aircraft in the area; later events
+     * ({@code delta}) only carry added, moved and removed aircraft. All clients watching the
+     * same area share one upstream refresh, and clients that fall behind skip straight to the
+     * latest state. A comment is sent periodically to keep idle connections open.
+     *
+     * @param lat airport latitude
+     * @param lon airport longitude
+     * @param radiusKm radius around the airport in kilometres (max 250)
+     * @return event stream of {@link LiveTrafficUpdateDTO}s
+     */
+    @GetMapping(value = "/aircraft/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<LiveTrafficUpdateDTO>> streamAircraft(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "50") double radiusKm) {
+
+        Flux<ServerSentEvent<LiveTrafficUpdateDTO>> updates = liveTrafficStreamService.stream(lat, lon, radiusKm)
+                .map(update -> ServerSentEvent.<LiveTrafficUpdateDTO>builder()
+                        .id(String.valueOf(update.getVersion()))
+                        .event(update.getType())
+                        .data(update)
+                        .build());
+        Flux<ServerSentEvent<LiveTrafficUpdateDTO>> heartbeat = Flux.interval(STREAM_HEARTBEAT)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<LiveTrafficUpdateDTO>builder().comment("keepalive").build());
+
+        return Flux.merge(updates, heartbeat);
     }
 
     /**
@@ -98,11 +197,50 @@ public class LookupController {
      * @return aircraft details or 404 if not found
      */
     @GetMapping("/aircraft/{icao24}")
-    public ResponseEntity<AircraftDTO> getAircraftByIcao24(@PathVariable String icao24) {
-        AircraftDTO aircraft = aircraftService.getAircraftByIcao24(icao24);
-        if (aircraft == null) {
+    public Mono<ResponseEntity<AircraftDTO>> getAircraftByIcao24(@PathVariable String icao24) {
+        return aircraftService.getAircraftByIcao24(icao24)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the recent track of an aircraft (up to its last 64 positions, oldest first).
+     * Served from memory; positions are collected from the live data the other lookups
+     * already fetch, so this makes no upstream call.
+     * 
+     * @param icao24 ICAO24 hex identifier
+     * @return aircraft track or 404 if the aircraft has not been seen recently
+     */
+    @GetMapping("/aircraft/{icao24}/track")
+    public ResponseEntity<AircraftTrackDTO> getAircraftTrack(@PathVariable String icao24) {
+        AircraftTrackDTO track = aircraftTrackStore.track(icao24);
+        if (track == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(aircraft);
+        return ResponseEntity.ok(track);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (and does not refuse it with {@code q=0}).
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) return true;
+        }
+        return false;
     }
 }
@@ -1,5 +1,6 @@
 package com.flightspotterlogbook.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,7 @@ public class AircraftDTO {
     private String manufacturer;
     private String operator;
     private String originCountry;
+    /** Great-circle distance from the search centre in km; only set by radius searches. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
 }
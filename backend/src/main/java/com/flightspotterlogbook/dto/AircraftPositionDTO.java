@@ -0,0 +1,28 @@
+package com.flightspotterlogbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object representing the live position of an aircraft in a traffic stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AircraftPositionDTO {
+    private String icao24;
+    private String callsign;
+    private String registration;
+    private String model;
+    private String operator;
+    private String originCountry;
+    private Double latitude;
+    private Double longitude;
+    private Double altitude;
+    private Double velocity;
+    private Double heading;
+    private boolean onGround;
+}
@@ -0,0 +1,20 @@
+package com.flightspotterlogbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data transfer object representing the recent track of an aircraft, oldest point first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AircraftTrackDTO {
+    private String icao24;
+    private List<TrackPointDTO> points;
+}
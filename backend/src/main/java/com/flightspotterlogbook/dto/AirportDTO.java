@@ -1,5 +1,6 @@
 package com.flightspotterlogbook.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,10 @@ public class AirportDTO {
     private String country;
     private Double latitude;
     private Double longitude;
+    /** Great-circle distance from the search position in km; only set by nearest-airport searches. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+    /** Similarity to the query from 0 to 1; only set on typo-tolerant matches of a fuzzy search. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
 }
@@ -0,0 +1,32 @@
+package com.flightspotterlogbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One update of a live traffic stream around an airport.
+ *
+ * <p>The first update of a stream is a {@code snapshot}, with every aircraft in the area listed
+ * as added. Later updates are {@code delta}s relative to the previous update the client
+ * received: new aircraft, aircraft whose position or state changed, and the ICAO24 codes of
+ * aircraft that left the area.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveTrafficUpdateDTO {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+
+    private String type;
+    private long version;
+    private List<AircraftPositionDTO> added;
+    private List<AircraftPositionDTO> moved;
+    private List<String> removed;
+}
@@ -0,0 +1,21 @@
+package com.flightspotterlogbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object representing one position of an aircraft track.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackPointDTO {
+    /** Time of the position report in seconds since the epoch. */
+    private long time;
+    private Double latitude;
+    private Double longitude;
+    private Double altitude;
+}
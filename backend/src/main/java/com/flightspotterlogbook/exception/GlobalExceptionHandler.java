@@ -1,5 +1,6 @@
 package com.flightspotterlogbook.exception;
 
+import com.flightspotterlogbook.service.LiveTrafficStreamService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -95,6 +96,17 @@ public class GlobalExceptionHandler {
                 .body(createErrorResponse(HttpStatus.PAYLOAD_TOO_LARGE, "File size exceeds maximum allowed", null));
     }
 
+    /**
+     * Handles requests for a new live traffic area while the feed limit is reached.
+     */
+    @ExceptionHandler(LiveTrafficStreamService.TooManyAreasException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyAreasException(LiveTrafficStreamService.TooManyAreasException ex) {
+        log.warn("Live traffic area refused: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), null));
+    }
+
     /**
      * Handles all other exceptions (catch-all).
      * IMPORTANT: Never expose stack traces or internal details to clients.
@@ -0,0 +1,67 @@
+package com.flightspotterlogbook.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing one queued enrichment of a sighting. Jobs are inserted in the same
+ * transaction as the sighting, so none is lost on a crash or redeploy.
+ */
+@Entity
+@Table(name = "enrichment_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichmentJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sighting_id", nullable = false)
+    private Long sightingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnrichmentJobStatus status;
+
+    /**
+     * Attempts started so far, including one in progress.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * When a pending job is next due, or when a running job's lease expires.
+     */
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime runAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        if (this.status == null) {
+            this.status = EnrichmentJobStatus.PENDING;
+        }
+        if (this.runAt == null) {
+            this.runAt = this.createdAt;
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
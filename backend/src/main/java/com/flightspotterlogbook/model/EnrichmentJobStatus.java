@@ -0,0 +1,13 @@
+package com.flightspotterlogbook.model;
+
+/**
+ * State of a queued enrichment job. Finished jobs are deleted.
+ */
+public enum EnrichmentJobStatus {
+    /** Waiting for {@code run_at}, for its first attempt or a retry. */
+    PENDING,
+    /** Claimed by a worker until {@code run_at}, the end of its lease. */
+    RUNNING,
+    /** Out of attempts; kept for inspection and never retried. */
+    DEAD
+}
@@ -2,12 +2,25 @@ package com.flightspotterlogbook.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Persists cached responses from the OpenSky API. Each entry is keyed by a hash of the query
  * parameters and has an expiry timestamp. Using a database cache allows the enrichment service
  * to avoid repeated calls to OpenSky and respect rate limits.
+ *
+ * <p>Responses are stored gzip-compressed: a {@code /states/all} body is mostly repeated
+ * structure and shrinks to a fraction of its size, which keeps the table small and each lookup
+ * to a few pages. They are decompressed only when read, straight into the parser.</p>
  */
 @Entity
 @Table(name = "opensky_cache")
@@ -28,14 +41,57 @@ public class OpenSkyCache {
     private String queryHash;
 
     /**
-     * The raw JSON response from OpenSky. Stored as a string.
+     * The raw JSON response from OpenSky, gzip-compressed.
      */
-    @Column(name = "response", nullable = false, columnDefinition = "TEXT")
-    private String response;
+    @Column(name = "response_gzip", nullable = false)
+    private byte[] responseGzip;
 
     /**
      * When this cache entry expires and should be evicted. UTC timestamp.
      */
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
-}
\ No newline at end of file
+
+    /**
+     * Stores the JSON response, compressed.
+     */
+    public void setResponse(String response) {
+        this.responseGzip = compress(response);
+    }
+
+    /**
+     * Gzip-compresses a JSON response for storage.
+     */
+    public static byte[] compress(String response) {
+        byte[] json = response.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 8));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses a stored response back into JSON.
+     */
+    public static String decompress(byte[] responseGzip) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(responseGzip))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class OpenSkyCacheBuilder {
+
+        /**
+         * Sets the JSON response, compressed.
+         */
+        public OpenSkyCacheBuilder response(String response) {
+            this.responseGzip = compress(response);
+            return this;
+        }
+    }
+}
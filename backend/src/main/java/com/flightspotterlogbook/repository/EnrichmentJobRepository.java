@@ -0,0 +1,49 @@
+package com.flightspotterlogbook.repository;
+
+import com.flightspotterlogbook.model.EnrichmentJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the enrichment job queue.
+ */
+@Repository
+public interface EnrichmentJobRepository extends JpaRepository<EnrichmentJob, Long> {
+
+    /**
+     * Locks up to {@code limit} pending jobs that are due, oldest first. Rows locked by another
+     * transaction are skipped rather than waited for, so concurrent workers (on any instance)
+     * each get different jobs. Must run inside a transaction, which holds the locks.
+     */
+    @Query(value = "SELECT * FROM enrichment_jobs WHERE status = 'PENDING' AND run_at <= :now "
+            + "ORDER BY run_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EnrichmentJob> lockDueJobs(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Finds running jobs whose lease has expired after their last allowed attempt.
+     */
+    @Query("SELECT j FROM EnrichmentJob j "
+            + "WHERE j.status = com.flightspotterlogbook.model.EnrichmentJobStatus.RUNNING AND j.runAt < :now "
+            + "AND j.attempts >= :maxAttempts")
+    List<EnrichmentJob> findExpiredLeasesOutOfAttempts(@Param("now") LocalDateTime now,
+                                                       @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Returns running jobs whose lease has expired (their worker died) to the queue, if they
+     * have attempts left.
+     *
+     * @return the number of jobs released
+     */
+    @Modifying
+    @Query("UPDATE EnrichmentJob j SET "
+            + "j.status = com.flightspotterlogbook.model.EnrichmentJobStatus.PENDING, j.updatedAt = :now "
+            + "WHERE j.status = com.flightspotterlogbook.model.EnrichmentJobStatus.RUNNING AND j.runAt < :now "
+            + "AND j.attempts < :maxAttempts")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+}
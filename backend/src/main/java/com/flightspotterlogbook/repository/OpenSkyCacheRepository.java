@@ -2,8 +2,13 @@ package com.flightspotterlogbook.repository;
 
 import com.flightspotterlogbook.model.OpenSkyCache;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
@@ -12,4 +17,37 @@ import java.util.Optional;
 @Repository
 public interface OpenSkyCacheRepository extends JpaRepository<OpenSkyCache, Long> {
     Optional<OpenSkyCache> findByQueryHash(String queryHash);
-}
\ No newline at end of file
+
+    /**
+     * Inserts or replaces the entry for {@code queryHash} in one statement, so concurrent writers
+     * of the same query cannot collide on the unique hash; the last write wins.
+     *
+     * @return the number of rows written
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO opensky_cache (query_hash, response_gzip, expires_at) "
+            + "VALUES (:queryHash, :responseGzip, :expiresAt) ON CONFLICT (query_hash) DO UPDATE "
+            + "SET response_gzip = EXCLUDED.response_gzip, expires_at = EXCLUDED.expires_at", nativeQuery = true)
+    int upsert(@Param("queryHash") String queryHash, @Param("responseGzip") byte[] responseGzip,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Deletes up to {@code limit} entries that expired before {@code cutoff}, addressed by
+     * physical row id, in a short transaction of its own. Rows locked by a concurrent write are
+     * skipped rather than waited for.
+     *
+     * @return the number of entries deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM opensky_cache WHERE ctid IN (SELECT ctid FROM opensky_cache "
+            + "WHERE expires_at < :cutoff LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * On-disk size of the table with its indexes and TOAST data, in bytes.
+     */
+    @Query(value = "SELECT pg_total_relation_size('opensky_cache')", nativeQuery = true)
+    long totalRelationSize();
+}
@@ -5,7 +5,13 @@ import com.flightspotterlogbook.model.Visibility;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 /**
  * Repository interface for accessing sightings. Provides convenience methods for filtering
@@ -16,4 +22,42 @@ public interface SightingRepository extends JpaRepository<Sighting, Long> {
     Page<Sighting> findByOwnerUserId(String ownerUserId, Pageable pageable);
 
     Page<Sighting> findByVisibility(Visibility visibility, Pageable pageable);
+
+    /**
+     * Stores the result of an enrichment and marks the sighting ENRICHED, if it is still
+     * ENRICHING. Only columns the user left blank are filled, and no other column is written, so
+     * edits made while the enrichment ran are kept.
+     *
+     * @return the number of rows updated: 0 if the sighting was deleted, or is no longer
+     *         being enriched
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Sighting s SET "
+            + "s.registration = CASE WHEN COALESCE(s.registration, '') = '' THEN :registration ELSE s.registration END, "
+            + "s.aircraftModel = CASE WHEN COALESCE(s.aircraftModel, '') = '' THEN :aircraftModel ELSE s.aircraftModel END, "
+            + "s.airline = CASE WHEN COALESCE(s.airline, '') = '' THEN :airline ELSE s.airline END, "
+            + "s.callsign = CASE WHEN COALESCE(s.callsign, '') = '' THEN :callsign ELSE s.callsign END, "
+            + "s.enrichmentStatus = com.flightspotterlogbook.model.EnrichmentStatus.ENRICHED, "
+            + "s.updatedAt = :now "
+            + "WHERE s.id = :id AND s.enrichmentStatus = com.flightspotterlogbook.model.EnrichmentStatus.ENRICHING")
+    int completeEnrichment(@Param("id") Long id,
+                           @Param("registration") String registration,
+                           @Param("aircraftModel") String aircraftModel,
+                           @Param("airline") String airline,
+                           @Param("callsign") String callsign,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * Marks the sighting FAILED if it is still ENRICHING, writing nothing else.
+     *
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Sighting s SET "
+            + "s.enrichmentStatus = com.flightspotterlogbook.model.EnrichmentStatus.FAILED, "
+            + "s.updatedAt = :now "
+            + "WHERE s.id = :id AND s.enrichmentStatus = com.flightspotterlogbook.model.EnrichmentStatus.ENRICHING")
+    int failEnrichment(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
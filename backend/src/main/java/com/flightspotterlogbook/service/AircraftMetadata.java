@@ -0,0 +1,16 @@
+package com.flightspotterlogbook.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Static aircraft metadata (registration, type and operator) keyed by ICAO24 address.
+ */
+@Value
+@Builder
+public class AircraftMetadata {
+    String registration;
+    String model;
+    String manufacturer;
+    String operator;
+}
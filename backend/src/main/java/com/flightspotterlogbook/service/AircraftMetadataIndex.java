@@ -0,0 +1,302 @@
+package com.flightspotterlogbook.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-memory index of static aircraft metadata loaded from the OpenSky aircraft database dump
+ * ({@code aircraftDatabase.csv}, ~500k rows). The file is streamed record by record and never
+ * held in memory as a whole.
+ *
+ * <p>Rows are stored column-wise: the 24-bit ICAO address is the primitive {@code int} key of an
+ * open-addressing hash table, registrations are packed into a single ASCII byte pool, and
+ * manufacturer, model and operator are dictionary-encoded as {@code int} codes. A lookup is
+ * O(1) and allocates only the returned {@link AircraftMetadata}.</p>
+ */
+@Component
+@Slf4j
+public class AircraftMetadataIndex {
+
+    private static final int EMPTY_KEY = -1;
+
+    /**
+     * Path to the OpenSky aircraft database CSV (optionally gzip-compressed). When blank the
+     * index stays empty and enrichment falls back to the remote metadata API.
+     */
+    @Value("${opensky.aircraft-database.path:}")
+    private String databasePath;
+
+    private volatile Table table = Table.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        if (databasePath == null || databasePath.isBlank()) {
+            log.info("No aircraft database configured (opensky.aircraft-database.path); using remote metadata only");
+            return;
+        }
+        Path path = Path.of(databasePath);
+        if (!Files.isReadable(path)) {
+            log.warn("Aircraft database {} is not readable; using remote metadata only", path);
+            return;
+        }
+        try {
+            load(path);
+        } catch (IOException e) {
+            log.error("Failed to load aircraft database from {}", path, e);
+        }
+    }
+
+    /**
+     * Loads the index from a CSV file, replacing the current contents.
+     */
+    public void load(Path path) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(path);
+             Reader reader = new InputStreamReader(
+                     path.toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in,
+                     StandardCharsets.UTF_8)) {
+            load(reader);
+        }
+        log.info("Loaded {} aircraft from {} in {} ms (~{} KB heap)",
+                size(), path, (System.nanoTime() - start) / 1_000_000, estimatedBytes() / 1024);
+    }
+
+    /**
+     * Loads the index from CSV content, replacing the current contents. The first record must
+     * be the header; columns are located by name so both old and new dump layouts work.
+     */
+    public void load(Reader source) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(source);
+        List<String> record = new ArrayList<>();
+        if (!csv.next(record)) {
+            table = Table.EMPTY;
+            return;
+        }
+        int icaoCol = CsvRecordReader.indexOf(record, "icao24");
+        int registrationCol = CsvRecordReader.indexOf(record, "registration");
+        int manufacturerCol = CsvRecordReader.indexOf(record, "manufacturername");
+        int modelCol = CsvRecordReader.indexOf(record, "model");
+        int operatorCol = CsvRecordReader.indexOf(record, "operator");
+        if (icaoCol < 0) {
+            throw new IOException("Aircraft database has no icao24 column");
+        }
+
+        TableBuilder builder = new TableBuilder();
+        while (csv.next(record)) {
+            int icao = parseIcao24(CsvRecordReader.field(record, icaoCol));
+            if (icao < 0) continue;
+            builder.add(icao,
+                    CsvRecordReader.field(record, registrationCol),
+                    CsvRecordReader.field(record, manufacturerCol),
+                    CsvRecordReader.field(record, modelCol),
+                    CsvRecordReader.field(record, operatorCol));
+        }
+        table = builder.build();
+    }
+
+    /**
+     * Returns the metadata for the given ICAO24 hex address, or {@code null} if unknown.
+     */
+    public AircraftMetadata lookup(String icao24) {
+        int icao = parseIcao24(icao24);
+        return icao < 0 ? null : table.get(icao);
+    }
+
+    /**
+     * Returns the metadata for the given 24-bit ICAO address, or {@code null} if unknown.
+     */
+    public AircraftMetadata lookup(int icao24) {
+        return icao24 < 0 ? null : table.get(icao24);
+    }
+
+    /**
+     * Number of aircraft in the index.
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Approximate heap retained by the index, in bytes.
+     */
+    public long estimatedBytes() {
+        return table.estimatedBytes();
+    }
+
+    /**
+     * Parses a 24-bit ICAO address from hex without allocating; returns -1 if invalid.
+     */
+    static int parseIcao24(String hex) {
+        if (hex == null) return -1;
+        int len = hex.length();
+        if (len == 0 || len > 6) return -1;
+        int value = 0;
+        for (int i = 0; i < len; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) return -1;
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Immutable, column-oriented table published atomically once loading completes.
+     */
+    private static final class Table {
+
+        static final Table EMPTY = new Table(new int[]{EMPTY_KEY}, new int[1], 0,
+                new int[]{0}, new byte[0], new int[0], new int[0], new int[0], new String[]{null});
+
+        final int[] slotKeys;
+        final int[] slotRows;
+        final int size;
+        final int[] registrationOffsets;
+        final byte[] registrationPool;
+        final int[] manufacturerCodes;
+        final int[] modelCodes;
+        final int[] operatorCodes;
+        final String[] dictionary;
+
+        Table(int[] slotKeys, int[] slotRows, int size, int[] registrationOffsets, byte[] registrationPool,
+              int[] manufacturerCodes, int[] modelCodes, int[] operatorCodes, String[] dictionary) {
+            this.slotKeys = slotKeys;
+            this.slotRows = slotRows;
+            this.size = size;
+            this.registrationOffsets = registrationOffsets;
+            this.registrationPool = registrationPool;
+            this.manufacturerCodes = manufacturerCodes;
+            this.modelCodes = modelCodes;
+            this.operatorCodes = operatorCodes;
+            this.dictionary = dictionary;
+        }
+
+        AircraftMetadata get(int icao) {
+            int mask = slotKeys.length - 1;
+            for (int slot = mix(icao) & mask; ; slot = (slot + 1) & mask) {
+                int key = slotKeys[slot];
+                if (key == EMPTY_KEY) return null;
+                if (key == icao) return row(slotRows[slot]);
+            }
+        }
+
+        private AircraftMetadata row(int row) {
+            int from = registrationOffsets[row];
+            int to = registrationOffsets[row + 1];
+            return AircraftMetadata.builder()
+                    .registration(to > from
+                            ? new String(registrationPool, from, to - from, StandardCharsets.ISO_8859_1) : null)
+                    .manufacturer(dictionary[manufacturerCodes[row]])
+                    .model(dictionary[modelCodes[row]])
+                    .operator(dictionary[operatorCodes[row]])
+                    .build();
+        }
+
+        long estimatedBytes() {
+            long bytes = 4L * (slotKeys.length + slotRows.length + registrationOffsets.length
+                    + manufacturerCodes.length + modelCodes.length + operatorCodes.length)
+                    + registrationPool.length + 8L * dictionary.length;
+            for (String s : dictionary) {
+                if (s != null) bytes += 40 + s.length();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Accumulates rows in growable primitive arrays and interns repeated strings into a shared
+     * dictionary (code 0 is reserved for "absent").
+     */
+    private static final class TableBuilder {
+
+        private int size;
+        private int[] icaos = new int[1 << 16];
+        private int[] registrationOffsets = new int[(1 << 16) + 1];
+        private byte[] registrationPool = new byte[1 << 19];
+        private int poolSize;
+        private int[] manufacturerCodes = new int[1 << 16];
+        private int[] modelCodes = new int[1 << 16];
+        private int[] operatorCodes = new int[1 << 16];
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>(List.of(""));
+
+        void add(int icao, String registration, String manufacturer, String model, String operator) {
+            if (size == icaos.length) {
+                int capacity = size * 2;
+                icaos = Arrays.copyOf(icaos, capacity);
+                registrationOffsets = Arrays.copyOf(registrationOffsets, capacity + 1);
+                manufacturerCodes = Arrays.copyOf(manufacturerCodes, capacity);
+                modelCodes = Arrays.copyOf(modelCodes, capacity);
+                operatorCodes = Arrays.copyOf(operatorCodes, capacity);
+            }
+            icaos[size] = icao;
+            registrationOffsets[size] = poolSize;
+            if (registration != null) {
+                byte[] bytes = registration.getBytes(StandardCharsets.ISO_8859_1);
+                if (poolSize + bytes.length > registrationPool.length) {
+                    registrationPool = Arrays.copyOf(registrationPool,
+                            Math.max(registrationPool.length * 2, poolSize + bytes.length));
+                }
+                System.arraycopy(bytes, 0, registrationPool, poolSize, bytes.length);
+                poolSize += bytes.length;
+            }
+            manufacturerCodes[size] = encode(manufacturer);
+            modelCodes[size] = encode(model);
+            operatorCodes[size] = encode(operator);
+            size++;
+        }
+
+        private int encode(String value) {
+            if (value == null) return 0;
+            return codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+
+        Table build() {
+            registrationOffsets[size] = poolSize;
+            int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            int[] slotKeys = new int[capacity];
+            int[] slotRows = new int[capacity];
+            Arrays.fill(slotKeys, EMPTY_KEY);
+            int mask = capacity - 1;
+            for (int row = 0; row < size; row++) {
+                int icao = icaos[row];
+                int slot = mix(icao) & mask;
+                while (slotKeys[slot] != EMPTY_KEY && slotKeys[slot] != icao) {
+                    slot = (slot + 1) & mask;
+                }
+                // Later rows win for duplicate addresses
+                slotKeys[slot] = icao;
+                slotRows[slot] = row;
+            }
+            String[] dict = dictionary.toArray(new String[0]);
+            dict[0] = null;
+            return new Table(slotKeys, slotRows, size,
+                    Arrays.copyOf(registrationOffsets, size + 1), Arrays.copyOf(registrationPool, poolSize),
+                    Arrays.copyOf(manufacturerCodes, size), Arrays.copyOf(modelCodes, size),
+                    Arrays.copyOf(operatorCodes, size), dict);
+        }
+    }
+}
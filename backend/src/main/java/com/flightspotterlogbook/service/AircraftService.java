@@ -3,179 +3,274 @@ package com.flightspotterlogbook.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.flightspotterlogbook.dto.AircraftDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Service for fetching live aircraft data from OpenSky Network API.
  * Uses the new OpenSky Trino API with OAuth2 client credentials.
+ *
+ * <p>All lookups are non-blocking and return {@link Mono}s: no thread waits on OpenSky while a
+ * request is in flight.</p>
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AircraftService {
 
+    @Qualifier("openSkyLookupWebClient")
+    private final WebClient lookupWebClient;
+
+    private final AircraftMetadataIndex metadataIndex;
+
+    private final StateVectorParser stateVectorParser;
+
+    private final LiveStateTileCache tileCache;
+
+    private final LiveTrafficPoller liveTrafficPoller;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final AircraftTrackStore trackStore;
+
+    private final LookupResultCache lookupCache;
+
+    private final OpenSkyCircuitBreaker circuitBreaker;
+
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${opensky.client-id:}")
     private String clientId;
 
     @Value("${opensky.client-secret:}")
     private String clientSecret;
 
+    /**
+     * Maximum number of metadata lookups in flight at once for a single search.
+     */
+    @Value("${opensky.metadata.concurrency:8}")
+    private int metadataConcurrency = 8;
+
+    /**
+     * Overall deadline for enriching one search result. Aircraft whose metadata has not
+     * arrived by then are returned without it.
+     */
+    @Value("${opensky.metadata.deadline:3s}")
+    private Duration metadataDeadline = Duration.ofSeconds(3);
+
+    /**
+     * Whether aircraft missing from the local database are looked up via the remote API.
+     */
+    @Value("${opensky.metadata.remote-fallback:true}")
+    private boolean remoteMetadataFallback = true;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    
+
     // European bounding box: SW corner to NE corner
     // Covers from Portugal/Iceland to Finland/Turkey
-    private static final double LAT_MIN = 34.0;  // Southern tip of Cyprus/Crete
-    private static final double LAT_MAX = 71.0;  // Northern Norway
-    private static final double LON_MIN = -25.0; // Azores/Iceland
-    private static final double LON_MAX = 45.0;  // Eastern Turkey/Finland
+    static final double LAT_MIN = 34.0;  // Southern tip of Cyprus/Crete
+    static final double LAT_MAX = 71.0;  // Northern Norway
+    static final double LON_MIN = -25.0; // Azores/Iceland
+    static final double LON_MAX = 45.0;  // Eastern Turkey/Finland
+
+    private static final int MAX_RESULTS = 50;
+
+    static final double DEFAULT_RADIUS_KM = 50.0;
+    static final double MAX_RADIUS_KM = 250.0;
 
     /**
-     * Search for aircraft near a specific airport (within ~50km radius).
-     * Uses a smaller bounding box to reduce API credit usage (1 credit per request).
-     * 
+     * Search for aircraft within a radius of a specific airport, nearest first.
+     * The upstream box is corrected for latitude (a degree of longitude shrinks towards the
+     * poles) and answered from the shared tile cache, so nearby searches reuse each other's
+     * fetches. Candidates are then filtered to the circle and only the nearest
+     * {@link #MAX_RESULTS} are kept and sorted. Upstream results are served
+     * stale-while-revalidate through the {@link LookupResultCache}.
+     *
      * @param airportLat Airport latitude
      * @param airportLon Airport longitude
+     * @param radiusKm Search radius in kilometres (at most {@link #MAX_RADIUS_KM})
      * @param query Optional query to filter results by callsign/icao24
-     * @return List of aircraft near the airport
+     * @return List of aircraft near the airport, ordered by distance
+     * @throws IllegalArgumentException if the radius is out of range
      */
-    public List<AircraftDTO> searchAircraftNearAirport(double airportLat, double airportLon, String query) {
-        try {
-            // Create ~50km radius bounding box (approximately 0.5 degrees)
-            double delta = 0.5;
-            double lamin = airportLat - delta;
-            double lamax = airportLat + delta;
-            double lomin = airportLon - delta;
-            double lomax = airportLon + delta;
-            
-            String url = String.format(
-                "https://opensky-network.org/api/states/all?lamin=%.2f&lomin=%.2f&lamax=%.2f&lomax=%.2f",
-                lamin, lomin, lamax, lomax
-            );
+    public Mono<LookupResult<List<AircraftDTO>>> searchAircraftNearAirport(double airportLat, double airportLon, double radiusKm,
+                                                             String query) {
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (int) MAX_RADIUS_KM + " km");
+        }
+        String lowerQuery = normalizeQuery(query);
+        return timed("near-airport", Mono.defer(() -> {
+            // Bounding box of the search circle, widened in longitude for the latitude
+            double dLat = GeoMath.latitudeDelta(radiusKm);
+            double dLon = GeoMath.longitudeDelta(airportLat, radiusKm);
+            double lamin = Math.max(-90, airportLat - dLat);
+            double lamax = Math.min(90, airportLat + dLat);
+            double lomin = airportLon - dLon;
+            double lomax = airportLon + dLon;
 
-            log.debug("Fetching aircraft near airport at {},{} (box: {},{} to {},{})", 
-                airportLat, airportLon, lamin, lomin, lamax, lomax);
-
-            // Use anonymous access - small bounding box uses only 1 API credit
-            WebClient webClient = WebClient.builder().build();
-
-            String response = webClient.get()
-                    .uri(url)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(15))
-                    .onErrorResume(e -> {
-                        log.error("Error fetching aircraft near airport: {}", e.getMessage());
-                        return Mono.just("{\"states\":[]}");
-                    })
-                    .block();
-
-            return parseAircraftResponse(response, query);
-        } catch (Exception e) {
-            log.error("Failed to fetch aircraft near airport", e);
-            return List.of();
+            // Answer from the background snapshot when the poller is running
+            LiveTrafficSnapshot snapshot = liveTrafficPoller.currentSnapshot();
+            if (snapshot != null && snapshot.covers(lamin, lomin, lamax, lomax)) {
+                StateColumns candidates = snapshot.withinBox(lamin, lomin, lamax, lomax,
+                        listable(lowerQuery), Integer.MAX_VALUE);
+                return nearestAircraft(candidates, StateColumns.RowFilter.ALL, airportLat, airportLon, radiusKm)
+                        .map(LookupResult::fresh);
+            }
+
+            String key = String.format(Locale.ROOT, "near:%.2f,%.2f,%.0f:%s",
+                    airportLat, airportLon, radiusKm, lowerQuery);
+            return lookupCache.get(key, () -> {
+                log.debug("Fetching aircraft within {} km of airport at {},{} (box: {},{} to {},{})",
+                    radiusKm, airportLat, airportLon, lamin, lomin, lamax, lomax);
+
+                // Served from the shared tile cache; each missing tile costs 1 API credit
+                return tileCache.statesWithin(lamin, lomin, lamax, lomax)
+                        .timeout(Duration.ofSeconds(20))
+                        .flatMap(states -> nearestAircraft(states, listable(lowerQuery),
+                                airportLat, airportLon, radiusKm))
+                        .doOnError(e -> log.error("Failed to fetch aircraft near airport: {}", e.getMessage()));
+            });
+        }));
+    }
+
+    /**
+     * Build DTOs for the {@link #MAX_RESULTS} rows nearest to the given point that pass the
+     * filter and lie within the radius, nearest first. Candidates are screened with the
+     * equirectangular approximation and kept in a bounded heap; the reported distance of the
+     * returned rows is the great-circle one.
+     */
+    private Mono<List<AircraftDTO>> nearestAircraft(StateColumns states, StateColumns.RowFilter filter,
+                                                    double lat, double lon, double radiusKm) {
+        double cosLat = Math.cos(Math.toRadians(lat));
+        NearestRows nearest = new NearestRows(MAX_RESULTS);
+        for (int row = 0; row < states.size(); row++) {
+            if (!states.hasPosition(row) || !filter.test(states, row)) continue;
+            double distance = GeoMath.approxDistanceKm(lat, lon, states.latitude(row), states.longitude(row), cosLat);
+            if (distance <= radiusKm) nearest.offer(row, distance);
+        }
+        nearest.sort();
+
+        List<AircraftDTO> result = new ArrayList<>(nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            int row = nearest.row(i);
+            double distance = GeoMath.haversineKm(lat, lon, states.latitude(row), states.longitude(row));
+            AircraftDTO aircraft = toDto(states, row);
+            aircraft.setDistanceKm(Math.round(distance * 10) / 10.0);
+            result.add(aircraft);
         }
+        return enrichAircraftMetadata(result);
     }
 
     /**
      * Search for currently flying aircraft over Europe.
      * Uses the OpenSky states/all endpoint filtered to European airspace.
-     * Note: Uses 4 API credits per request due to large area.
+     * Note: Uses 4 API credits per request due to large area. Upstream results are served
+     * stale-while-revalidate through the {@link LookupResultCache}. While OpenSky credits are
+     * low, no new Europe-wide scan is made and only cached results are returned.
      */
-    public List<AircraftDTO> searchAircraftOverEurope(String query) {
-        try {
-            String url = String.format(
-                "https://opensky-network.org/api/states/all?lamin=%.1f&lomin=%.1f&lamax=%.1f&lomax=%.1f",
+    public Mono<LookupResult<List<AircraftDTO>>> searchAircraftOverEurope(String query) {
+        String lowerQuery = normalizeQuery(query);
+        return timed("europe", Mono.defer(() -> {
+            LiveTrafficSnapshot snapshot = liveTrafficPoller.currentSnapshot();
+            if (snapshot != null) {
+                return toAircraft(snapshot.select(listable(lowerQuery), MAX_RESULTS), StateColumns.RowFilter.ALL)
+                        .map(LookupResult::fresh);
+            }
+
+            String url = String.format(Locale.ROOT,
+                "/states/all?lamin=%.1f&lomin=%.1f&lamax=%.1f&lomax=%.1f",
                 LAT_MIN, LON_MIN, LAT_MAX, LON_MAX
             );
 
             // Use anonymous access (no authentication)
             // OpenSky's API has rate limits for anonymous users but doesn't require auth
-            WebClient webClient = WebClient.builder().build();
-
-            String response = webClient.get()
-                    .uri(url)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(15))
-                    .onErrorResume(e -> {
-                        log.error("Error fetching aircraft from OpenSky: {}", e.getMessage());
-                        return Mono.just("{\"states\":[]}");
-                    })
-                    .block();
-
-            return parseAircraftResponse(response, query);
-        } catch (Exception e) {
-            log.error("Failed to fetch aircraft data", e);
-            return List.of();
-        }
+            return lookupCache.get("europe:" + lowerQuery, () -> {
+                if (creditAccountant.isLow()) {
+                    log.warn("Refusing Europe-wide scan, OpenSky credits are low ({} left)", creditAccountant.remaining());
+                    return Mono.error(new OpenSkyCreditAccountant.CreditBudgetExceededException(
+                            OpenSkyCreditAccountant.cost(LAT_MIN, LON_MIN, LAT_MAX, LON_MAX)));
+                }
+                return fetchStates(url, Duration.ofSeconds(15), lowerQuery)
+                        .flatMap(states -> toAircraft(states, StateColumns.RowFilter.ALL))
+                        .doOnError(e -> log.error("Failed to fetch aircraft data: {}", e.getMessage()));
+            });
+        }));
     }
 
     /**
-     * Parse the OpenSky API response and filter by query.
+     * Stream a states/all response, keeping only rows that would be listed for the query.
+     * Reading stops as soon as {@link #MAX_RESULTS} rows have been collected. Concurrent
+     * identical lookups share one upstream call, which goes through the circuit breaker.
      */
-    private List<AircraftDTO> parseAircraftResponse(String response, String query) {
+    private Mono<StateColumns> fetchStates(String url, Duration timeout, String lowerQuery) {
+        String key = RequestCoalescer.key("lookup", url) + "#" + lowerQuery;
+        return requestCoalescer.execute(key, () -> circuitBreaker.protect(stateVectorParser.parse(
+                                lookupWebClient.get()
+                                        .uri(url)
+                                        .accept(MediaType.APPLICATION_JSON)
+                                        .retrieve()
+                                        .bodyToFlux(DataBuffer.class),
+                                listable(lowerQuery),
+                                MAX_RESULTS)
+                        .timeout(timeout))
+                        .doOnNext(trackStore::record));
+    }
+
+    /**
+     * Build DTOs for the first {@link #MAX_RESULTS} rows that pass the filter and enrich them
+     * with metadata. Only the returned rows are materialised.
+     */
+    private Mono<List<AircraftDTO>> toAircraft(StateColumns states, StateColumns.RowFilter filter) {
         List<AircraftDTO> result = new ArrayList<>();
-        try {
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode states = root.get("states");
-            
-            if (states == null || !states.isArray()) {
-                return result;
-            }
 
-            String lowerQuery = query != null ? query.toLowerCase().trim() : "";
+        for (int row = 0; row < states.size() && result.size() < MAX_RESULTS; row++) {
+            if (!filter.test(states, row)) continue;
 
-            for (JsonNode state : states) {
-                if (!state.isArray() || state.size() < 8) continue;
+            result.add(toDto(states, row));
+        }
 
-                String icao24 = getTextValue(state.get(0));
-                String callsign = getTextValue(state.get(1));
-                String originCountry = getTextValue(state.get(2));
+        // Enrich with metadata from OpenSky database
+        return enrichAircraftMetadata(result);
+    }
 
-                // Skip if no callsign (not useful for users)
-                if (callsign == null || callsign.isBlank()) continue;
-                
-                callsign = callsign.trim();
+    private static AircraftDTO toDto(StateColumns states, int row) {
+        return AircraftDTO.builder()
+                .icao24(states.icao24Hex(row))
+                .callsign(states.callsign(row))
+                .originCountry(states.originCountry(row))
+                .build();
+    }
 
-                // Filter by query if provided
-                if (!lowerQuery.isEmpty()) {
-                    boolean matches = (icao24 != null && icao24.toLowerCase().contains(lowerQuery)) ||
-                                     callsign.toLowerCase().contains(lowerQuery) ||
-                                     (originCountry != null && originCountry.toLowerCase().contains(lowerQuery));
-                    if (!matches) continue;
-                }
+    /**
+     * Rows that should be listed for the (lowercase) query: they need a callsign (aircraft
+     * without one are not useful to users), and a non-empty query must match their ICAO24,
+     * callsign or origin country.
+     */
+    private static StateColumns.RowFilter listable(String lowerQuery) {
+        StateColumns.RowFilter matching = StateColumns.matching(lowerQuery);
+        return (states, row) -> states.hasCallsign(row) && matching.test(states, row);
+    }
 
-                // Fetch metadata for this aircraft (registration, model, operator)
-                AircraftDTO aircraft = AircraftDTO.builder()
-                        .icao24(icao24)
-                        .callsign(callsign)
-                        .originCountry(originCountry)
-                        .build();
-                
-                // Enrich with metadata from OpenSky database
-                enrichAircraftMetadata(aircraft);
-                
-                result.add(aircraft);
-
-                // Limit results
-                if (result.size() >= 50) break;
-            }
-        } catch (Exception e) {
-            log.error("Error parsing aircraft response", e);
-        }
-        return result;
+    private static String normalizeQuery(String query) {
+        return query != null ? query.toLowerCase().trim() : "";
     }
 
     private String getTextValue(JsonNode node) {
@@ -184,75 +279,138 @@ public class AircraftService {
     }
 
     /**
-     * Enrich aircraft with metadata (registration, model, operator) from OpenSky database.
-     * This data is cached by OpenSky and doesn't count against API credits.
+     * Enrich aircraft with metadata (registration, model, operator). The local aircraft
+     * database is consulted first; only misses go to the OpenSky metadata API. Remote lookups
+     * run concurrently (at most {@code opensky.metadata.concurrency} at a time) and the whole
+     * batch is bounded by {@code opensky.metadata.deadline}; aircraft whose metadata has not
+     * arrived by the deadline are returned as they are. Emits the same (enriched) list.
      */
-    private void enrichAircraftMetadata(AircraftDTO aircraft) {
-        if (aircraft.getIcao24() == null) return;
-        
-        try {
-            String url = "https://opensky-network.org/api/metadata/aircraft/icao/" + 
-                         aircraft.getIcao24().toLowerCase();
-            
-            WebClient webClient = WebClient.builder().build();
-            
-            String response = webClient.get()
-                    .uri(url)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .onErrorResume(e -> {
-                        log.debug("No metadata for aircraft {}: {}", aircraft.getIcao24(), e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
-            
-            if (response != null && !response.isBlank()) {
-                JsonNode metadata = objectMapper.readTree(response);
-                
-                // Extract metadata fields
-                aircraft.setRegistration(getTextValue(metadata.get("registration")));
-                aircraft.setModel(getTextValue(metadata.get("model")));
-                aircraft.setManufacturer(getTextValue(metadata.get("manufacturername")));
-                aircraft.setOperator(getTextValue(metadata.get("operator")));
-                
-                log.debug("Enriched aircraft {}: {} {} operated by {}", 
-                    aircraft.getIcao24(), 
-                    aircraft.getManufacturer(), 
-                    aircraft.getModel(), 
-                    aircraft.getOperator());
+    private Mono<List<AircraftDTO>> enrichAircraftMetadata(List<AircraftDTO> aircraft) {
+        if (aircraft.isEmpty()) return Mono.just(aircraft);
+
+        List<AircraftDTO> misses = new ArrayList<>();
+        for (AircraftDTO a : aircraft) {
+            AircraftMetadata local = metadataIndex.lookup(a.getIcao24());
+            if (local != null) {
+                applyMetadata(a, local);
+            } else if (a.getIcao24() != null) {
+                misses.add(a);
             }
-        } catch (Exception e) {
-            // Metadata not critical - just log and continue
-            log.debug("Failed to fetch metadata for aircraft {}", aircraft.getIcao24());
         }
+        if (misses.isEmpty() || !remoteMetadataFallback) return Mono.just(aircraft);
+
+        return Flux.fromIterable(misses)
+                .flatMap(a -> fetchAircraftMetadata(a.getIcao24())
+                        .map(m -> Map.entry(a.getIcao24(), m)), metadataConcurrency)
+                .take(metadataDeadline)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(metadata -> {
+                    for (AircraftDTO a : misses) {
+                        AircraftMetadata m = metadata.get(a.getIcao24());
+                        if (m != null) applyMetadata(a, m);
+                    }
+                    log.debug("Enriched {} of {} aircraft with remote metadata", metadata.size(), misses.size());
+                    return aircraft;
+                });
+    }
+
+    private void applyMetadata(AircraftDTO aircraft, AircraftMetadata metadata) {
+        aircraft.setRegistration(metadata.getRegistration());
+        aircraft.setModel(metadata.getModel());
+        aircraft.setManufacturer(metadata.getManufacturer());
+        aircraft.setOperator(metadata.getOperator());
     }
 
     /**
-     * Get aircraft by ICAO24 hex code.
+     * Get metadata (registration, model, operator) for one aircraft: from the local aircraft
+     * database, else from the OpenSky metadata API when the remote fallback is enabled.
+     * Completes empty if the aircraft is unknown or the lookup fails.
      */
-    public AircraftDTO getAircraftByIcao24(String icao24) {
-        try {
-            String url = "https://opensky-network.org/api/states/all?icao24=" + icao24.toLowerCase();
+    public Mono<AircraftMetadata> getAircraftMetadata(String icao24) {
+        if (icao24 == null || icao24.isBlank()) return Mono.empty();
+        AircraftMetadata local = metadataIndex.lookup(icao24.trim());
+        if (local != null) return Mono.just(local);
+        return remoteMetadataFallback ? fetchAircraftMetadata(icao24.trim()) : Mono.empty();
+    }
 
-            // Use anonymous access
-            WebClient webClient = WebClient.builder().build();
-
-            String response = webClient.get()
-                    .uri(url)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(10))
-                    .onErrorResume(e -> Mono.just("{\"states\":[]}"))
-                    .block();
-
-            List<AircraftDTO> aircraft = parseAircraftResponse(response, null);
-            return aircraft.isEmpty() ? null : aircraft.get(0);
+    /**
+     * Fetch metadata for a single aircraft. This data is cached by OpenSky and doesn't count
+     * against API credits. Concurrent lookups of the same aircraft share one call. Completes
+     * empty if the aircraft is unknown or the call fails.
+     */
+    private Mono<AircraftMetadata> fetchAircraftMetadata(String icao24) {
+        String key = RequestCoalescer.key("lookup", "/metadata/aircraft/icao/" + icao24.toLowerCase());
+        return requestCoalescer.execute(key, () -> lookupWebClient.get()
+                        .uri("/metadata/aircraft/icao/{icao24}", icao24.toLowerCase())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .timeout(Duration.ofSeconds(5))
+                        .flatMap(response -> Mono.justOrEmpty(parseMetadata(response))))
+                .onErrorResume(e -> {
+                    // Metadata not critical - just log and continue
+                    log.debug("No metadata for aircraft {}: {}", icao24, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private AircraftMetadata parseMetadata(String response) {
+        if (response == null || response.isBlank()) return null;
+        try {
+            JsonNode metadata = objectMapper.readTree(response);
+            return AircraftMetadata.builder()
+                    .registration(getTextValue(metadata.get("registration")))
+                    .model(getTextValue(metadata.get("model")))
+                    .manufacturer(getTextValue(metadata.get("manufacturername")))
+                    .operator(getTextValue(metadata.get("operator")))
+                    .build();
         } catch (Exception e) {
-            log.error("Failed to get aircraft by ICAO24: {}", icao24, e);
+            log.debug("Unreadable metadata response: {}", e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Get aircraft by ICAO24 hex code. Completes empty if the aircraft is not currently
+     * airborne or the lookup fails.
+     */
+    public Mono<AircraftDTO> getAircraftByIcao24(String icao24) {
+        return timed("icao24", Mono.defer(() -> {
+            LiveTrafficSnapshot snapshot = liveTrafficPoller.currentSnapshot();
+            Mono<List<AircraftDTO>> fromSnapshot = snapshot != null
+                    ? toAircraft(snapshot.byIcao24(icao24), listable(""))
+                    : Mono.just(List.of());
+
+            String url = "/states/all?icao24=" + icao24.toLowerCase();
+
+            // Use anonymous access
+            return fromSnapshot
+                    .filter(aircraft -> !aircraft.isEmpty())
+                    .switchIfEmpty(Mono.defer(() -> fetchStates(url, Duration.ofSeconds(10), "")
+                            .flatMap(states -> toAircraft(states, StateColumns.RowFilter.ALL))))
+                    .flatMap(aircraft -> Mono.justOrEmpty(aircraft.isEmpty() ? null : aircraft.get(0)));
+        }).onErrorResume(e -> {
+            log.error("Failed to get aircraft by ICAO24: {}", icao24, e);
+            return Mono.empty();
+        }));
+    }
+
+    /**
+     * Records end-to-end latency of a lookup, including metadata enrichment, so that p50/p99
+     * can be compared via {@code /actuator/metrics/opensky.lookup}. The clock starts on
+     * subscription and stops when the lookup completes or is cancelled.
+     */
+    private <T> Mono<T> timed(String operation, Mono<T> lookup) {
+        Timer timer = Timer.builder("opensky.lookup")
+                .description("Latency of live aircraft lookups including metadata enrichment")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return lookup
+                    .doOnTerminate(() -> sample.stop(timer))
+                    .doOnCancel(() -> sample.stop(timer));
+        });
+    }
 }
@@ -0,0 +1,161 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AircraftTrackDTO;
+import com.flightspotterlogbook.dto.TrackPointDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent positions of live aircraft, filled from the state vectors the service already receives
+ * (background poller, tile cache and lookups), so tracks cost no extra upstream calls.
+ *
+ * <p>Each aircraft has a fixed-size ring buffer of its last {@link #CAPACITY} samples held in
+ * primitive arrays. A sample is only added when the state is newer than the last one, so the
+ * same state seen through several paths is stored once. Aircraft not seen for
+ * {@code opensky.tracks.max-age} are evicted, and at most {@code opensky.tracks.max-aircraft}
+ * are tracked, so memory stays bounded at roughly {@link Track#BYTES} per aircraft.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AircraftTrackStore {
+
+    static final int CAPACITY = 64;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * How long an aircraft may go unseen before its track is dropped.
+     */
+    @Value("${opensky.tracks.max-age:30m}")
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    /**
+     * Upper bound on tracked aircraft. New aircraft are ignored while the store is full.
+     */
+    @Value("${opensky.tracks.max-aircraft:20000}")
+    private int maxAircraft = 20000;
+
+    private final ConcurrentHashMap<Integer, Track> tracks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.tracks.aircraft", tracks, Map::size)
+                .description("Aircraft with a recent track in memory")
+                .register(meterRegistry);
+        Gauge.builder("opensky.tracks.bytes", this, AircraftTrackStore::estimatedBytes)
+                .description("Approximate heap retained by recent aircraft tracks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends the positioned rows of the given states to their aircraft's track, timed by when
+     * the position was reported. Rows without a position time are skipped.
+     */
+    public void record(StateColumns states) {
+        long now = System.currentTimeMillis();
+        for (int row = 0; row < states.size(); row++) {
+            if (!states.hasPosition(row) || states.timePosition(row) <= 0) continue;
+            int icao24 = states.icao24(row);
+            Track track = tracks.get(icao24);
+            if (track == null) {
+                if (tracks.size() >= maxAircraft) continue;
+                track = tracks.computeIfAbsent(icao24, k -> new Track());
+            }
+            track.append(states.timePosition(row), states.latitude(row), states.longitude(row),
+                    states.altitude(row), now);
+        }
+    }
+
+    /**
+     * The recent track of the given aircraft, oldest sample first, or {@code null} if it has
+     * not been seen recently.
+     */
+    public AircraftTrackDTO track(String icao24) {
+        int icao = AircraftMetadataIndex.parseIcao24(icao24);
+        Track track = icao < 0 ? null : tracks.get(icao);
+        if (track == null) return null;
+        return AircraftTrackDTO.builder()
+                .icao24(StateColumns.toHex(icao))
+                .points(track.points())
+                .build();
+    }
+
+    /**
+     * Drops the tracks of aircraft that have not been seen for {@code opensky.tracks.max-age}.
+     */
+    @Scheduled(fixedDelayString = "${opensky.tracks.eviction-interval:60000}")
+    public void evictStaleTracks() {
+        long cutoff = System.currentTimeMillis() - maxAge.toMillis();
+        tracks.values().removeIf(track -> track.lastSeenMillis < cutoff);
+    }
+
+    public int size() {
+        return tracks.size();
+    }
+
+    /**
+     * Approximate heap retained by the tracks, in bytes.
+     */
+    public long estimatedBytes() {
+        return (long) tracks.size() * Track.BYTES;
+    }
+
+    /**
+     * Ring buffer of one aircraft's samples. {@code head} is the next slot to write.
+     */
+    static final class Track {
+
+        /**
+         * Heap per tracked aircraft: the sample arrays (8 + 3 × 4 bytes per sample plus array
+         * headers), the track object and its map entry with the boxed key.
+         */
+        static final long BYTES = CAPACITY * (8L + 3 * 4) + 4 * 16 + 40 + 48;
+
+        private final long[] times = new long[CAPACITY];
+        private final float[] latitudes = new float[CAPACITY];
+        private final float[] longitudes = new float[CAPACITY];
+        private final float[] altitudes = new float[CAPACITY];
+        private int head;
+        private int count;
+        private volatile long lastSeenMillis;
+
+        synchronized void append(long time, float latitude, float longitude, float altitude, long seenMillis) {
+            lastSeenMillis = seenMillis;
+            if (count > 0 && time <= times[(head + CAPACITY - 1) % CAPACITY]) return;
+            times[head] = time;
+            latitudes[head] = latitude;
+            longitudes[head] = longitude;
+            altitudes[head] = altitude;
+            head = (head + 1) % CAPACITY;
+            if (count < CAPACITY) count++;
+        }
+
+        synchronized List<TrackPointDTO> points() {
+            List<TrackPointDTO> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int slot = (head - count + i + CAPACITY) % CAPACITY;
+                points.add(TrackPointDTO.builder()
+                        .time(times[slot])
+                        .latitude(StateColumns.toDouble(latitudes[slot]))
+                        .longitude(StateColumns.toDouble(longitudes[slot]))
+                        .altitude(StateColumns.toDouble(altitudes[slot]))
+                        .build());
+            }
+            return points;
+        }
+    }
+}
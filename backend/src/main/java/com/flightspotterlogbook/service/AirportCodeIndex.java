@@ -0,0 +1,88 @@
+package com.flightspotterlogbook.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * O(1) airport lookups by ICAO or IATA code.
+ *
+ * <p>Codes are fixed-width ASCII in the dataset, so each one is read as a single number (ICAO as
+ * a {@code long}, IATA as an {@code int}) and used as the key of an open-addressing hash table on
+ * primitive arrays; building it and looking up codes creates no strings. When several airports
+ * share a code, the first in dataset order (the largest) wins.</p>
+ */
+final class AirportCodeIndex {
+
+    private static final int NOT_FOUND = -1;
+
+    private final long[] icaoKeys;
+    private final int[] icaoAirports;
+    private final long[] iataKeys;
+    private final int[] iataAirports;
+
+    AirportCodeIndex(AirportDataset dataset) {
+        int n = dataset.size();
+        int capacity = Integer.highestOneBit(Math.max(2, n * 2 - 1)) << 1;
+        icaoKeys = new long[capacity];
+        icaoAirports = new int[capacity];
+        iataKeys = new long[capacity];
+        iataAirports = new int[capacity];
+        for (int i = 0; i < n; i++) {
+            put(icaoKeys, icaoAirports, dataset.icaoKey(i), i);
+            put(iataKeys, iataAirports, dataset.iataKey(i), i);
+        }
+    }
+
+    /**
+     * Index of the airport with the given ICAO code or, failing that, IATA code
+     * (case-insensitive), or -1.
+     */
+    int find(String code) {
+        if (code == null) return NOT_FOUND;
+        String upper = code.trim().toUpperCase(Locale.ROOT);
+        if (upper.isEmpty()) return NOT_FOUND;
+        int airport = get(icaoKeys, icaoAirports, key(upper, AirportDataset.ICAO_WIDTH));
+        return airport != NOT_FOUND ? airport : get(iataKeys, iataAirports, key(upper, AirportDataset.IATA_WIDTH));
+    }
+
+    /**
+     * The code packed as the dataset stores it: ASCII bytes, big-endian, zero-padded to
+     * {@code width}; 0 if it cannot be a code of that width.
+     */
+    static long key(String code, int width) {
+        byte[] bytes = code.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > width) return 0;
+        long key = 0;
+        for (int i = 0; i < width; i++) {
+            key = (key << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+        }
+        return key;
+    }
+
+    private static void put(long[] keys, int[] airports, long key, int airport) {
+        if (key == 0) return;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            // The first airport with a code keeps it
+            if (keys[slot] == key) return;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        airports[slot] = airport;
+    }
+
+    private static int get(long[] keys, int[] airports, long key) {
+        if (key == 0) return NOT_FOUND;
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return airports[slot];
+        }
+        return NOT_FOUND;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
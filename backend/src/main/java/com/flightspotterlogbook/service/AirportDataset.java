@@ -0,0 +1,241 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Read-only view of a compiled airport dataset (see {@link AirportDatasetWriter}), usually
+ * memory-mapped so the airports live in the page cache rather than on the heap. Records are
+ * decoded straight from the buffer, and only when an airport is returned.
+ *
+ * <p>Layout, big-endian, {@code n} airports and {@code k} search keys:</p>
+ * <pre>
+ * header     magic, version, n, k, pool size      5 ints
+ * latitude   n floats
+ * longitude  n floats
+ * name       n ints   pool offsets
+ * city       n ints   pool offsets
+ * country    n ints   pool offsets
+ * text       n ints   pool offsets of the normalised fields joined by NUL (substring search)
+ * keys       k ints   pool offsets of the normalised search keys, sorted by their UTF-8 bytes
+ * key owner  k ints   airport index, high bit set when the key is an ICAO/IATA code
+ * icao       n × 8 bytes  upper-case ASCII, zero-padded
+ * iata       n × 3 bytes  upper-case ASCII, zero-padded
+ * pool       strings as an unsigned 16-bit length followed by UTF-8 bytes
+ * </pre>
+ *
+ * <p>Normalised text is lower-cased with accents folded ({@link AirportIndex#normalise}), so it
+ * matches queries normalised the same way.</p>
+ */
+public final class AirportDataset {
+
+    static final int MAGIC = 0x46534150; // "FSAP"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+    static final int ICAO_WIDTH = 8;
+    static final int IATA_WIDTH = 3;
+    static final int CODE_FLAG = 0x80000000;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int keyCount;
+
+    private final int latitudes;
+    private final int longitudes;
+    private final int names;
+    private final int cities;
+    private final int countries;
+    private final int texts;
+    private final int keys;
+    private final int keyOwners;
+    private final int icaos;
+    private final int iatas;
+    private final int pool;
+
+    private AirportDataset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an airport dataset");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported airport dataset version " + buffer.getInt(4));
+        }
+        this.size = buffer.getInt(8);
+        this.keyCount = buffer.getInt(12);
+        int poolSize = buffer.getInt(16);
+
+        latitudes = HEADER_BYTES;
+        longitudes = latitudes + 4 * size;
+        names = longitudes + 4 * size;
+        cities = names + 4 * size;
+        countries = cities + 4 * size;
+        texts = countries + 4 * size;
+        keys = texts + 4 * size;
+        keyOwners = keys + 4 * keyCount;
+        icaos = keyOwners + 4 * keyCount;
+        iatas = icaos + ICAO_WIDTH * size;
+        pool = iatas + IATA_WIDTH * size;
+        if ((long) pool + poolSize != buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated airport dataset");
+        }
+    }
+
+    /**
+     * Maps a dataset file read-only. The mapping stays valid after the channel is closed.
+     */
+    public static AirportDataset map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a dataset from a buffer, e.g. one produced in memory by {@link AirportDatasetWriter}.
+     */
+    public static AirportDataset wrap(ByteBuffer buffer) {
+        return new AirportDataset(buffer);
+    }
+
+    /**
+     * Compiles the airports into an in-memory dataset.
+     */
+    public static AirportDataset of(List<AirportDTO> airports) {
+        return wrap(ByteBuffer.wrap(AirportDatasetWriter.write(airports)));
+    }
+
+    /**
+     * Number of airports.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Size of the dataset in bytes.
+     */
+    public int byteSize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Decodes the airport at the given index.
+     */
+    public AirportDTO airport(int index) {
+        return AirportDTO.builder()
+                .icao(ascii(icaos + ICAO_WIDTH * index, ICAO_WIDTH))
+                .iata(ascii(iatas + IATA_WIDTH * index, IATA_WIDTH))
+                .name(string(buffer.getInt(names + 4 * index)))
+                .city(string(buffer.getInt(cities + 4 * index)))
+                .country(string(buffer.getInt(countries + 4 * index)))
+                .latitude((double) buffer.getFloat(latitudes + 4 * index))
+                .longitude((double) buffer.getFloat(longitudes + 4 * index))
+                .build();
+    }
+
+    double latitude(int index) {
+        return buffer.getFloat(latitudes + 4 * index);
+    }
+
+    double longitude(int index) {
+        return buffer.getFloat(longitudes + 4 * index);
+    }
+
+    /**
+     * The ICAO code's fixed-width bytes as one number (see {@link AirportCodeIndex#key}).
+     */
+    long icaoKey(int index) {
+        return buffer.getLong(icaos + ICAO_WIDTH * index);
+    }
+
+    /**
+     * The IATA code's fixed-width bytes as one number (see {@link AirportCodeIndex#key}).
+     */
+    long iataKey(int index) {
+        int at = iatas + IATA_WIDTH * index;
+        return (buffer.get(at) & 0xFF) << 16 | (buffer.get(at + 1) & 0xFF) << 8 | buffer.get(at + 2) & 0xFF;
+    }
+
+    int keyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Airport the search key belongs to.
+     */
+    int keyAirport(int key) {
+        return buffer.getInt(keyOwners + 4 * key) & ~CODE_FLAG;
+    }
+
+    /**
+     * Whether the search key is an ICAO or IATA code.
+     */
+    boolean keyIsCode(int key) {
+        return (buffer.getInt(keyOwners + 4 * key) & CODE_FLAG) != 0;
+    }
+
+    int keyLength(int key) {
+        return buffer.getShort(pool + buffer.getInt(keys + 4 * key)) & 0xFFFF;
+    }
+
+    /**
+     * Compares the search key with {@code query} as unsigned bytes, looking at no more than the
+     * query's length: 0 means the key starts with the query.
+     */
+    int compareKeyPrefix(int key, byte[] query) {
+        int at = pool + buffer.getInt(keys + 4 * key);
+        int length = buffer.getShort(at) & 0xFFFF;
+        at += 2;
+        int n = Math.min(length, query.length);
+        for (int i = 0; i < n; i++) {
+            int c = (buffer.get(at + i) & 0xFF) - (query[i] & 0xFF);
+            if (c != 0) return c;
+        }
+        return length < query.length ? -1 : 0;
+    }
+
+    /**
+     * The airport's normalised name, city, country, ICAO and IATA code, joined by NUL.
+     */
+    String text(int index) {
+        return string(buffer.getInt(texts + 4 * index));
+    }
+
+    /**
+     * Whether the airport's normalised fields contain {@code query}.
+     */
+    boolean textContains(int index, byte[] query) {
+        int at = pool + buffer.getInt(texts + 4 * index);
+        int length = buffer.getShort(at) & 0xFFFF;
+        at += 2;
+        byte first = query[0];
+        for (int i = 0, last = length - query.length; i <= last; i++) {
+            if (buffer.get(at + i) != first) continue;
+            int j = 1;
+            while (j < query.length && buffer.get(at + i + j) == query[j]) j++;
+            if (j == query.length) return true;
+        }
+        return false;
+    }
+
+    private String string(int offset) {
+        int at = pool + offset;
+        byte[] bytes = new byte[buffer.getShort(at) & 0xFFFF];
+        buffer.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String ascii(int at, int width) {
+        int length = 0;
+        while (length < width && buffer.get(at + length) != 0) length++;
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,272 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles airports into the binary layout read by {@link AirportDataset}.
+ *
+ * <p>Run at build time by the {@code airports} Maven profile, which converts the OurAirports
+ * {@code airports.csv} (and optionally {@code countries.csv} for country names) into
+ * {@code airports/airports.bin} on the classpath:</p>
+ * <pre>
+ * mvn -Pairports package -Dairports.csv=/path/to/airports.csv -Dairports.countries=/path/to/countries.csv
+ * </pre>
+ *
+ * <p>Closed airports are dropped, and the rest are ordered large, medium, small, then seaplane
+ * bases and heliports, which is also the order equally good search matches are listed in.
+ * Repeated strings (countries, cities, common words) are stored once.</p>
+ */
+@Slf4j
+public final class AirportDatasetWriter {
+
+    private static final List<String> TYPE_ORDER = List.of(
+            "large_airport", "medium_airport", "small_airport", "seaplane_base", "heliport", "balloonport");
+
+    private AirportDatasetWriter() {
+    }
+
+    /**
+     * Usage: {@code AirportDatasetWriter <airports.csv> <output.bin> [countries.csv]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: AirportDatasetWriter <airports.csv> <output.bin> [countries.csv]");
+        }
+        long start = System.nanoTime();
+        Path airportsCsv = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+
+        Map<String, String> countryNames = Map.of();
+        if (args.length > 2 && Files.isReadable(Path.of(args[2]))) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[2]), StandardCharsets.UTF_8)) {
+                countryNames = readCountries(reader);
+            }
+        }
+        List<AirportDTO> airports;
+        try (Reader reader = Files.newBufferedReader(airportsCsv, StandardCharsets.UTF_8)) {
+            airports = readOurAirports(reader, countryNames);
+        }
+
+        byte[] dataset = write(airports);
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.write(output, dataset);
+        log.info("Wrote {} airports to {} ({} KB) in {} ms",
+                airports.size(), output, dataset.length / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads the OurAirports {@code countries.csv} into ISO code to country name.
+     */
+    public static Map<String, String> readCountries(Reader source) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(source);
+        List<String> record = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        if (!csv.next(record)) return names;
+        int codeCol = CsvRecordReader.indexOf(record, "code");
+        int nameCol = CsvRecordReader.indexOf(record, "name");
+        while (csv.next(record)) {
+            String code = CsvRecordReader.field(record, codeCol);
+            String name = CsvRecordReader.field(record, nameCol);
+            if (code != null && name != null) names.put(code, name);
+        }
+        return names;
+    }
+
+    /**
+     * Reads the OurAirports {@code airports.csv}, ordered by airport type. Countries without a
+     * name in {@code countryNames} keep their ISO code.
+     */
+    public static List<AirportDTO> readOurAirports(Reader source, Map<String, String> countryNames) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(source);
+        List<String> record = new ArrayList<>();
+        if (!csv.next(record)) return List.of();
+        int identCol = CsvRecordReader.indexOf(record, "ident");
+        int icaoCol = CsvRecordReader.indexOf(record, "icao_code");
+        int typeCol = CsvRecordReader.indexOf(record, "type");
+        int nameCol = CsvRecordReader.indexOf(record, "name");
+        int latitudeCol = CsvRecordReader.indexOf(record, "latitude_deg");
+        int longitudeCol = CsvRecordReader.indexOf(record, "longitude_deg");
+        int countryCol = CsvRecordReader.indexOf(record, "iso_country");
+        int cityCol = CsvRecordReader.indexOf(record, "municipality");
+        int iataCol = CsvRecordReader.indexOf(record, "iata_code");
+        if (identCol < 0 || nameCol < 0 || latitudeCol < 0 || longitudeCol < 0) {
+            throw new IOException("Not an OurAirports airports.csv (missing ident, name or coordinates)");
+        }
+
+        List<AirportDTO> airports = new ArrayList<>();
+        List<Integer> ranks = new ArrayList<>();
+        while (csv.next(record)) {
+            String type = CsvRecordReader.field(record, typeCol);
+            if ("closed".equals(type)) continue;
+            String icao = CsvRecordReader.field(record, icaoCol);
+            if (icao == null) icao = CsvRecordReader.field(record, identCol);
+            String name = CsvRecordReader.field(record, nameCol);
+            Double latitude = parseDouble(CsvRecordReader.field(record, latitudeCol));
+            Double longitude = parseDouble(CsvRecordReader.field(record, longitudeCol));
+            if (!isCode(icao, AirportDataset.ICAO_WIDTH) || name == null || latitude == null || longitude == null) {
+                continue;
+            }
+            String iata = CsvRecordReader.field(record, iataCol);
+            String country = CsvRecordReader.field(record, countryCol);
+            String city = CsvRecordReader.field(record, cityCol);
+            airports.add(AirportDTO.builder()
+                    .icao(icao.toUpperCase())
+                    .iata(isCode(iata, AirportDataset.IATA_WIDTH) ? iata.toUpperCase() : "")
+                    .name(name)
+                    .city(city != null ? city : "")
+                    .country(country != null ? countryNames.getOrDefault(country, country) : "")
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .build());
+            int rank = TYPE_ORDER.indexOf(type);
+            ranks.add(rank < 0 ? TYPE_ORDER.size() : rank);
+        }
+
+        // Stable, so airports of the same type keep the file order
+        Integer[] order = new Integer[airports.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(ranks::get));
+        List<AirportDTO> sorted = new ArrayList<>(order.length);
+        for (int i : order) sorted.add(airports.get(i));
+        return sorted;
+    }
+
+    /**
+     * Compiles the airports, in the given order, into the {@link AirportDataset} layout.
+     */
+    public static byte[] write(List<AirportDTO> airports) {
+        int n = airports.size();
+        StringPool pool = new StringPool();
+        int[] names = new int[n];
+        int[] cities = new int[n];
+        int[] countries = new int[n];
+        int[] texts = new int[n];
+        List<SearchKey> keys = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            AirportDTO airport = airports.get(i);
+            names[i] = pool.add(airport.getName());
+            cities[i] = pool.add(airport.getCity());
+            countries[i] = pool.add(airport.getCountry());
+            String icao = AirportIndex.normalise(airport.getIcao());
+            String iata = AirportIndex.normalise(airport.getIata());
+            texts[i] = pool.add(String.join("\0", AirportIndex.normalise(airport.getName()),
+                    AirportIndex.normalise(airport.getCity()), AirportIndex.normalise(airport.getCountry()),
+                    icao, iata));
+
+            addKey(keys, pool, icao, i, true);
+            addKey(keys, pool, iata, i, true);
+            for (String field : new String[]{airport.getName(), airport.getCity(), airport.getCountry()}) {
+                String text = AirportIndex.normalise(field);
+                addKey(keys, pool, text, i, false);
+                for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+                    if (!word.equals(text)) addKey(keys, pool, word, i, false);
+                }
+            }
+        }
+
+        // Codes sort before equal text keys, so an airport's first match for a query is its best
+        keys.sort(Comparator.<SearchKey, byte[]>comparing(SearchKey::bytes, Arrays::compareUnsigned)
+                .thenComparing(key -> !key.code())
+                .thenComparingInt(SearchKey::airport));
+        List<SearchKey> unique = new ArrayList<>(keys.size());
+        for (SearchKey key : keys) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).sameAs(key)) unique.add(key);
+        }
+
+        int k = unique.size();
+        byte[] poolBytes = pool.toByteArray();
+        ByteBuffer out = ByteBuffer.allocate(AirportDataset.HEADER_BYTES + 6 * 4 * n + 2 * 4 * k
+                + (AirportDataset.ICAO_WIDTH + AirportDataset.IATA_WIDTH) * n + poolBytes.length);
+        out.putInt(AirportDataset.MAGIC).putInt(AirportDataset.VERSION).putInt(n).putInt(k).putInt(poolBytes.length);
+        for (AirportDTO airport : airports) out.putFloat(airport.getLatitude().floatValue());
+        for (AirportDTO airport : airports) out.putFloat(airport.getLongitude().floatValue());
+        for (int[] column : new int[][]{names, cities, countries, texts}) {
+            for (int offset : column) out.putInt(offset);
+        }
+        for (SearchKey key : unique) out.putInt(key.offset());
+        for (SearchKey key : unique) out.putInt(key.code() ? key.airport() | AirportDataset.CODE_FLAG : key.airport());
+        for (AirportDTO airport : airports) putCode(out, airport.getIcao(), AirportDataset.ICAO_WIDTH);
+        for (AirportDTO airport : airports) putCode(out, airport.getIata(), AirportDataset.IATA_WIDTH);
+        out.put(poolBytes);
+        return out.array();
+    }
+
+    private static void addKey(List<SearchKey> keys, StringPool pool, String text, int airport, boolean code) {
+        if (text.isEmpty()) return;
+        keys.add(new SearchKey(text.getBytes(StandardCharsets.UTF_8), pool.add(text), airport, code));
+    }
+
+    private static void putCode(ByteBuffer out, String code, int width) {
+        byte[] bytes = code == null ? new byte[0] : code.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > width) {
+            throw new IllegalArgumentException("Airport code '" + code + "' is longer than " + width);
+        }
+        out.put(bytes);
+        out.put(new byte[width - bytes.length]);
+    }
+
+    private static boolean isCode(String code, int width) {
+        return code != null && code.length() <= width && code.chars().allMatch(c -> c < 128);
+    }
+
+    private static Double parseDouble(String value) {
+        if (value == null) return null;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record SearchKey(byte[] bytes, int offset, int airport, boolean code) {
+
+        boolean sameAs(SearchKey other) {
+            return offset == other.offset && airport == other.airport && code == other.code;
+        }
+    }
+
+    /**
+     * Deduplicated strings, each stored as an unsigned 16-bit length and UTF-8 bytes.
+     */
+    private static final class StringPool {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+
+        int add(String value) {
+            return offsets.computeIfAbsent(value == null ? "" : value, s -> {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                if (utf8.length > 0xFFFF) {
+                    throw new IllegalArgumentException("String too long for the airport dataset: " + s.length());
+                }
+                int offset = bytes.size();
+                bytes.write(utf8.length >>> 8);
+                bytes.write(utf8.length);
+                bytes.write(utf8, 0, utf8.length);
+                return offset;
+            });
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
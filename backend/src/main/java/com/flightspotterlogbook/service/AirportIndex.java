@@ -0,0 +1,161 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Autocomplete over an {@link AirportDataset}.
+ *
+ * <p>The dataset carries one sorted array of normalised keys: every airport's ICAO and IATA
+ * codes, its full name, city and country, and each word of those. A query is ranked in three
+ * tiers: an exact ICAO/IATA code, then any key starting with the query (found by binary search,
+ * so only matching keys are visited), then a substring anywhere in the airport's fields (a scan
+ * over pre-normalised text, only run when the first two tiers leave room). Within a tier,
+ * airports keep their dataset order. The top results are kept in a {@link NearestRows} heap, and
+ * only the airports returned are decoded; beyond a one-bit-per-airport set of those already
+ * matched, a query allocates in proportion to its matches rather than to the dataset.</p>
+ *
+ * <p>Keys and queries are normalised alike: lower-cased with accents folded, so "malaga" finds
+ * Málaga. With fuzzy matching enabled, the substring tier is replaced by an
+ * {@link AirportTrigramIndex}: results still short of the limit are filled with airports whose
+ * name or city words are similar to the query, best first, which tolerates typos such as "zurik"
+ * and still finds most substrings, without scanning every airport.</p>
+ */
+public final class AirportIndex {
+
+    private static final int EXACT_CODE = 0;
+    private static final int PREFIX = 1;
+    private static final int SUBSTRING = 2;
+    private static final int FUZZY = 3;
+
+    private final AirportDataset dataset;
+    private final AirportTrigramIndex trigramIndex;
+
+    public AirportIndex(AirportDataset dataset) {
+        this(dataset, false);
+    }
+
+    /**
+     * @param fuzzy whether to build the trigram index that {@link #search(String, int, boolean)}
+     *              needs for typo-tolerant matches
+     */
+    public AirportIndex(AirportDataset dataset, boolean fuzzy) {
+        this.dataset = dataset;
+        this.trigramIndex = fuzzy ? new AirportTrigramIndex(dataset) : null;
+    }
+
+    /**
+     * Up to {@code limit} airports matching the query, best first.
+     */
+    public List<AirportDTO> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    /**
+     * Up to {@code limit} airports matching the query, best first. When {@code fuzzy} is set and
+     * the index was built for it, places left after the code and prefix tiers go to similar
+     * names and cities, each returned with its similarity score.
+     */
+    public List<AirportDTO> search(String query, int limit, boolean fuzzy) {
+        String normalised = normalise(query);
+        byte[] q = normalised.getBytes(StandardCharsets.UTF_8);
+        if (q.length == 0 || limit <= 0) return List.of();
+
+        NearestRows best = new NearestRows(limit);
+        BitSet seen = new BitSet(dataset.size());
+
+        for (int key = lowerBound(q); key < dataset.keyCount() && dataset.compareKeyPrefix(key, q) == 0; key++) {
+            int airport = dataset.keyAirport(key);
+            if (seen.get(airport)) continue;
+            seen.set(airport);
+            best.offer(airport, dataset.keyIsCode(key) && dataset.keyLength(key) == q.length ? EXACT_CODE : PREFIX);
+        }
+
+        if (fuzzy && trigramIndex != null) {
+            // Similar words stand in for the substring scan, which reads every airport's text
+            if (best.size() < limit) trigramIndex.search(normalised, seen, best, FUZZY);
+        } else {
+            // Substring matches rank last and in dataset order, so stop as soon as the results are full
+            for (int airport = 0; airport < dataset.size() && best.size() < limit; airport++) {
+                if (!seen.get(airport) && dataset.textContains(airport, q)) {
+                    best.offer(airport, SUBSTRING);
+                }
+            }
+        }
+
+        best.sort();
+        List<AirportDTO> result = new ArrayList<>(best.size());
+        for (int i = 0; i < best.size(); i++) {
+            AirportDTO airport = dataset.airport(best.row(i));
+            if (best.distance(i) >= FUZZY) {
+                airport.setScore(Math.round((FUZZY + 1 - best.distance(i)) * 100) / 100.0);
+            }
+            result.add(airport);
+        }
+        return result;
+    }
+
+    public int size() {
+        return dataset.size();
+    }
+
+    /**
+     * Lower-cases the text and folds accents and special letters to plain ones, so "Düsseldorf"
+     * and "dusseldorf" normalise alike. Keys are normalised when the dataset is compiled,
+     * queries when they arrive.
+     */
+    static String normalise(String text) {
+        if (text == null) return "";
+        String lower = text.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 128) return fold(lower);
+        }
+        return lower;
+    }
+
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            switch (c) {
+                case 'ß' -> folded.append("ss");
+                case 'æ' -> folded.append("ae");
+                case 'œ' -> folded.append("oe");
+                case 'þ' -> folded.append("th");
+                case 'ø' -> folded.append('o');
+                case 'ł' -> folded.append('l');
+                case 'đ', 'ð' -> folded.append('d');
+                case 'ħ' -> folded.append('h');
+                case 'ı' -> folded.append('i');
+                default -> {
+                    if (Character.getType(c) != Character.NON_SPACING_MARK) folded.append(c);
+                }
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Index of the first key not less than {@code q}.
+     */
+    private int lowerBound(byte[] q) {
+        int low = 0;
+        int high = dataset.keyCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dataset.compareKeyPrefix(mid, q) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,135 @@
+package com.flightspotterlogbook.service;
+
+/**
+ * k-d tree over airport positions for nearest-airport queries.
+ *
+ * <p>Positions are stored as points on the unit sphere, so straight-line (chord) distance
+ * orders airports exactly like great-circle distance, with no special cases at the poles or the
+ * antimeridian. The tree is implicit: the points are arranged so that the node of a range is its
+ * midpoint, split on the axis where the range is widest, which needs no node objects. A query
+ * descends to the nearest leaf and only visits the other side of a split when it could still
+ * hold a closer airport, so it touches {@code O(log n + k)} points rather than all of them.</p>
+ */
+final class AirportSpatialIndex {
+
+    // Points in tree order: airport index and unit vector
+    private final int[] airports;
+    private final float[][] coordinates;
+    private final byte[] axes;
+
+    AirportSpatialIndex(AirportDataset dataset) {
+        int n = dataset.size();
+        airports = new int[n];
+        coordinates = new float[3][n];
+        axes = new byte[n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(dataset.latitude(i));
+            double lon = Math.toRadians(dataset.longitude(i));
+            airports[i] = i;
+            coordinates[0][i] = (float) (Math.cos(lat) * Math.cos(lon));
+            coordinates[1][i] = (float) (Math.cos(lat) * Math.sin(lon));
+            coordinates[2][i] = (float) Math.sin(lat);
+        }
+        build(0, n);
+    }
+
+    /**
+     * Offers the airports nearest to the position to {@code nearest}, which keeps as many as it
+     * was created for. Distances are squared chord lengths on the unit sphere.
+     */
+    void nearest(double lat, double lon, NearestRows nearest) {
+        double latRad = Math.toRadians(lat);
+        double lonRad = Math.toRadians(lon);
+        double[] query = {
+                Math.cos(latRad) * Math.cos(lonRad),
+                Math.cos(latRad) * Math.sin(lonRad),
+                Math.sin(latRad)};
+        search(0, airports.length, query, nearest);
+    }
+
+    private void search(int lo, int hi, double[] query, NearestRows nearest) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dx = coordinates[0][mid] - query[0];
+            double dy = coordinates[1][mid] - query[1];
+            double dz = coordinates[2][mid] - query[2];
+            nearest.offer(airports[mid], dx * dx + dy * dy + dz * dz);
+
+            double split = query[axes[mid]] - coordinates[axes[mid]][mid];
+            if (split < 0) {
+                search(lo, mid, query, nearest);
+                lo = mid + 1;
+            } else {
+                search(mid + 1, hi, query, nearest);
+                hi = mid;
+            }
+            // The far side is no closer than the splitting plane
+            if (split * split > nearest.bound()) return;
+        }
+    }
+
+    private void build(int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, coordinates[axis]);
+            axes[mid] = (byte) axis;
+            build(lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        int widest = 0;
+        float widestSpread = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            float[] values = coordinates[axis];
+            float min = values[lo];
+            float max = values[lo];
+            for (int i = lo + 1; i < hi; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Rearranges {@code [left, right]} so position {@code k} holds the value it would in sorted
+     * order, with no larger values before it and no smaller ones after (quickselect).
+     */
+    private void select(int left, int right, int k, float[] values) {
+        while (right > left) {
+            float pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int airport = airports[a];
+        airports[a] = airports[b];
+        airports[b] = airport;
+        for (float[] values : coordinates) {
+            float value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.flightspotterlogbook.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant matching of airport names and cities by trigram similarity.
+ *
+ * <p>Every distinct word of the airports' normalised (lower-cased, accent-folded) names and
+ * cities is split once, at build time, into trigrams of the word padded with a space at each end,
+ * so "zurich" gives " zu", "zur", "uri", "ric", "ich", "ch ". A query word is compared with the
+ * dictionary through an inverted index from trigram to words, so only words sharing a trigram
+ * with it are visited, and scored as shared trigrams over all distinct trigrams of the pair
+ * (Jaccard similarity; "zurik" against "zurich" is 3 / 8). An airport scores the average of its
+ * best similarity for each query word. Everything is held in primitive arrays, and a query's
+ * scratch space is sized to the words and airports it touches.</p>
+ */
+final class AirportTrigramIndex {
+
+    /**
+     * Lowest similarity that counts as a match, for one word and for an airport overall.
+     */
+    static final double THRESHOLD = 0.3;
+
+    // Trigram -> words containing it: sorted keys, then each key's word ids from postingStart
+    private final long[] trigrams;
+    private final int[] postingStart;
+    private final int[] postings;
+
+    // Word -> its number of distinct trigrams, and the airports using it
+    private final int[] wordTrigramCounts;
+    private final int[] wordAirportStart;
+    private final int[] wordAirports;
+
+    AirportTrigramIndex(AirportDataset dataset) {
+        int airportCount = dataset.size();
+        Map<String, Integer> wordIds = new HashMap<>();
+        int[] pairWords = new int[Math.max(16, airportCount * 4)];
+        int[] pairAirports = new int[pairWords.length];
+        int pairs = 0;
+
+        for (int airport = 0; airport < airportCount; airport++) {
+            // Name and city, the first two fields; country and codes are left to the exact search
+            String text = dataset.text(airport);
+            int cityEnd = text.indexOf('\0', text.indexOf('\0') + 1);
+            for (String word : words(cityEnd < 0 ? text : text.substring(0, cityEnd))) {
+                if (pairs == pairWords.length) {
+                    pairWords = Arrays.copyOf(pairWords, pairs * 2);
+                    pairAirports = Arrays.copyOf(pairAirports, pairs * 2);
+                }
+                Integer id = wordIds.get(word);
+                if (id == null) {
+                    id = wordIds.size();
+                    wordIds.put(word, id);
+                }
+                pairWords[pairs] = id;
+                pairAirports[pairs++] = airport;
+            }
+        }
+
+        int wordCount = wordIds.size();
+        String[] dictionary = new String[wordCount];
+        wordIds.forEach((word, id) -> dictionary[id] = word);
+
+        // Airports by word, in dataset order and without repeats
+        wordAirportStart = new int[wordCount + 1];
+        int[] lastAirport = new int[wordCount];
+        Arrays.fill(lastAirport, -1);
+        for (int i = 0; i < pairs; i++) {
+            if (lastAirport[pairWords[i]] != pairAirports[i]) {
+                lastAirport[pairWords[i]] = pairAirports[i];
+                wordAirportStart[pairWords[i] + 1]++;
+            }
+        }
+        for (int w = 0; w < wordCount; w++) wordAirportStart[w + 1] += wordAirportStart[w];
+        wordAirports = new int[wordAirportStart[wordCount]];
+        int[] fill = Arrays.copyOf(wordAirportStart, wordCount);
+        Arrays.fill(lastAirport, -1);
+        for (int i = 0; i < pairs; i++) {
+            if (lastAirport[pairWords[i]] != pairAirports[i]) {
+                lastAirport[pairWords[i]] = pairAirports[i];
+                wordAirports[fill[pairWords[i]]++] = pairAirports[i];
+            }
+        }
+
+        // Words by trigram; words are visited in id order, so each posting list is sorted
+        wordTrigramCounts = new int[wordCount];
+        Map<Long, int[]> postingLists = new HashMap<>();
+        for (int w = 0; w < wordCount; w++) {
+            long[] grams = trigrams(dictionary[w]);
+            wordTrigramCounts[w] = grams.length;
+            for (long gram : grams) {
+                int[] list = postingLists.computeIfAbsent(gram, g -> new int[]{0, 0, 0, 0, 0});
+                if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    postingLists.put(gram, list);
+                }
+                list[++list[0]] = w;
+            }
+        }
+        trigrams = postingLists.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        postingStart = new int[trigrams.length + 1];
+        for (int t = 0; t < trigrams.length; t++) {
+            postingStart[t + 1] = postingStart[t] + postingLists.get(trigrams[t])[0];
+        }
+        postings = new int[postingStart[trigrams.length]];
+        for (int t = 0; t < trigrams.length; t++) {
+            int[] list = postingLists.get(trigrams[t]);
+            System.arraycopy(list, 1, postings, postingStart[t], list[0]);
+        }
+    }
+
+    /**
+     * Offers every airport not in {@code skip} that scores at least {@link #THRESHOLD} against
+     * the normalised query to {@code best}, at distance {@code tier + 1 - score}: the best match
+     * is nearest, and all of them rank after the lower tiers.
+     */
+    void search(String query, BitSet skip, NearestRows best, int tier) {
+        Set<String> queryWords = words(query);
+        if (queryWords.isEmpty()) return;
+
+        // Scratch space grows with the words and airports a query touches, not the whole index
+        SparseScores totals = new SparseScores();
+        for (String queryWord : queryWords) {
+            long[] grams = trigrams(queryWord);
+            SparseScores shared = new SparseScores();
+            for (long gram : grams) {
+                int t = Arrays.binarySearch(trigrams, gram);
+                if (t < 0) continue;
+                for (int p = postingStart[t]; p < postingStart[t + 1]; p++) {
+                    shared.add(postings[p], 1);
+                }
+            }
+
+            SparseScores wordScores = new SparseScores();
+            for (int slot = 0; slot < shared.capacity(); slot++) {
+                int word = shared.id(slot);
+                if (word < 0) continue;
+                int common = (int) shared.value(slot);
+                float similarity = (float) common / (grams.length + wordTrigramCounts[word] - common);
+                if (similarity < THRESHOLD) continue;
+                for (int a = wordAirportStart[word]; a < wordAirportStart[word + 1]; a++) {
+                    int airport = wordAirports[a];
+                    if (skip.get(airport)) continue;
+                    // Only the airport's best word counts for each query word
+                    wordScores.max(airport, similarity);
+                }
+            }
+
+            for (int slot = 0; slot < wordScores.capacity(); slot++) {
+                int airport = wordScores.id(slot);
+                if (airport >= 0) totals.add(airport, wordScores.value(slot));
+            }
+        }
+
+        for (int slot = 0; slot < totals.capacity(); slot++) {
+            int airport = totals.id(slot);
+            if (airport < 0) continue;
+            double score = totals.value(slot) / queryWords.size();
+            if (score >= THRESHOLD) best.offer(airport, tier + 1 - score);
+        }
+    }
+
+    /**
+     * Distinct words (runs of letters and digits) of normalised text.
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Distinct trigrams of the word padded with a space at each end, as three UTF-16 chars
+     * packed into a {@code long}, sorted.
+     */
+    static long[] trigrams(String word) {
+        String padded = " " + word + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Float values by non-negative id, for the ids a query touches: open addressing on primitive
+     * arrays that start small and double at half load.
+     */
+    private static final class SparseScores {
+
+        private int[] ids = new int[32];
+        private float[] values = new float[32];
+        private int size;
+
+        SparseScores() {
+            Arrays.fill(ids, -1);
+        }
+
+        void add(int id, float delta) {
+            int slot = slot(id);
+            values[slot] += delta;
+        }
+
+        void max(int id, float value) {
+            int slot = slot(id);
+            values[slot] = Math.max(values[slot], value);
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        /**
+         * The id held in {@code slot}, or -1 if it is empty.
+         */
+        int id(int slot) {
+            return ids[slot];
+        }
+
+        float value(int slot) {
+            return values[slot];
+        }
+
+        /**
+         * Slot of {@code id}, claimed with a value of zero if it was not held yet.
+         */
+        private int slot(int id) {
+            int mask = ids.length - 1;
+            int hash = id * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (ids[slot] != id) {
+                if (ids[slot] < 0) {
+                    if (2 * (size + 1) > ids.length) {
+                        grow();
+                        return slot(id);
+                    }
+                    ids[slot] = id;
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            float[] oldValues = values;
+            ids = new int[oldIds.length * 2];
+            values = new float[oldIds.length * 2];
+            Arrays.fill(ids, -1);
+            size = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] >= 0) values[slot(oldIds[i])] = oldValues[i];
+            }
+        }
+    }
+}
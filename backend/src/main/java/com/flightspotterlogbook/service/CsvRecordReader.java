@@ -0,0 +1,96 @@
+package com.flightspotterlogbook.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader, shared by the dataset loaders. Handles fields quoted with either
+ * double or single quotes (older and newer OpenSky dumps differ), doubled quotes as escapes and
+ * line breaks inside quoted fields.
+ */
+final class CsvRecordReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private int quote = -1;
+
+    CsvRecordReader(Reader source) {
+        this.reader = source;
+    }
+
+    /**
+     * Index of the named column in a header record (case-insensitive), or -1.
+     */
+    static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(column)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * The trimmed field at the index, or {@code null} if missing or blank.
+     */
+    static String field(List<String> record, int index) {
+        if (index < 0 || index >= record.size()) return null;
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    boolean next(List<String> record) throws IOException {
+        record.clear();
+        field.setLength(0);
+        boolean inQuotes = false;
+        boolean any = false;
+        int c;
+        while ((c = read()) != -1) {
+            any = true;
+            if (inQuotes) {
+                if (c != quote) {
+                    field.append((char) c);
+                } else if (peek() == quote) {
+                    field.append((char) read());
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                // ignore, handled by the following '\n'
+            } else if ((c == '"' || c == '\'') && field.length() == 0 && (quote == -1 || c == quote)) {
+                quote = c;
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!any) return false;
+        record.add(field.toString());
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.Sighting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Groups sightings waiting for enrichment into batches that can share one OpenSky call.
+ *
+ * <p>An ICAO24-filtered {@code /states/all} call costs the same credits for one aircraft as for
+ * many, so sightings are enriched together when their times fall within
+ * {@code enrichment.batch.window} of each other, up to {@code enrichment.batch.max-size}
+ * aircraft per call. Sightings are taken in time order and each batch is closed by the first
+ * sighting too far from its earliest one. Sightings without an ICAO24 address are matched by
+ * callsign instead and each get a batch of their own.</p>
+ */
+@Component
+public class EnrichmentBatcher {
+
+    @Value("${enrichment.batch.max-size:25}")
+    private int maxSize = 25;
+
+    /**
+     * Widest spread of sighting times one call may cover; the call asks for the earliest, and
+     * later sightings missing from its response are asked for again at their own time.
+     */
+    @Value("${enrichment.batch.window:2m}")
+    private Duration window = Duration.ofMinutes(2);
+
+    /**
+     * Most aircraft requested in one call.
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Splits the sightings into batches, each to be enriched with one call.
+     */
+    public List<List<Sighting>> group(Collection<Sighting> sightings) {
+        List<List<Sighting>> batches = new ArrayList<>();
+        List<Sighting> byTime = new ArrayList<>(sightings.size());
+        for (Sighting sighting : sightings) {
+            if (hasIcao24(sighting) && sighting.getTimestamp() != null) {
+                byTime.add(sighting);
+            } else {
+                batches.add(List.of(sighting));
+            }
+        }
+        byTime.sort(Comparator.comparing(Sighting::getTimestamp));
+
+        List<Sighting> batch = new ArrayList<>();
+        Set<String> aircraft = new HashSet<>();
+        LocalDateTime start = null;
+        for (Sighting sighting : byTime) {
+            String icao24 = sighting.getIcao24().trim().toLowerCase(Locale.ROOT);
+            boolean fits = start != null
+                    && !sighting.getTimestamp().isAfter(start.plus(window))
+                    && (aircraft.size() < maxSize || aircraft.contains(icao24));
+            if (!fits && !batch.isEmpty()) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                aircraft = new HashSet<>();
+            }
+            if (batch.isEmpty()) start = sighting.getTimestamp();
+            batch.add(sighting);
+            aircraft.add(icao24);
+        }
+        if (!batch.isEmpty()) batches.add(batch);
+        return batches;
+    }
+
+    private static boolean hasIcao24(Sighting sighting) {
+        return sighting.getIcao24() != null && !sighting.getIcao24().isBlank();
+    }
+}
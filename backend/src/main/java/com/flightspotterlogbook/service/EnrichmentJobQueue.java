@@ -0,0 +1,186 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.EnrichmentJob;
+import com.flightspotterlogbook.model.EnrichmentJobStatus;
+import com.flightspotterlogbook.repository.EnrichmentJobRepository;
+import com.flightspotterlogbook.repository.SightingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Postgres-backed queue of sighting enrichment jobs ({@code enrichment_jobs}).
+ *
+ * <p>Jobs are enqueued in the caller's transaction, so a sighting and its job are committed
+ * together. Workers claim due jobs with {@code SELECT ... FOR UPDATE SKIP LOCKED}, which lets
+ * any number of workers on any number of instances share the queue without handing out a job
+ * twice. A claimed job is leased until {@code run_at}; if its worker dies, the job returns to
+ * the queue when the lease runs out. New jobs wait {@code enrichment.batch.linger} before they
+ * are due, so sightings logged in quick succession are claimed, and enriched, together. A
+ * failed attempt is retried with exponential backoff, and after
+ * {@code enrichment.jobs.max-attempts} attempts, failed or with an expired lease, the job is
+ * dead-lettered and its sighting marked FAILED.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrichmentJobQueue {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final EnrichmentJobRepository jobRepository;
+
+    private final SightingRepository sightingRepository;
+
+    @Value("${enrichment.jobs.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    /**
+     * Delay before the first retry; each further retry waits twice as long.
+     */
+    @Value("${enrichment.jobs.backoff:30s}")
+    private Duration backoff = Duration.ofSeconds(30);
+
+    @Value("${enrichment.jobs.max-backoff:1h}")
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    /**
+     * How long a new job waits for others to share its OpenSky call, unless a full batch is
+     * waiting already.
+     */
+    @Value("${enrichment.batch.linger:2s}")
+    private Duration linger = Duration.ofSeconds(2);
+
+    /**
+     * How long a worker may hold a job before it is handed to another worker.
+     */
+    @Value("${enrichment.jobs.lease:5m}")
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * Queues an enrichment of the sighting, due once the linger has passed. Joins the caller's
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EnrichmentJob enqueue(Long sightingId) {
+        return jobRepository.save(EnrichmentJob.builder()
+                .sightingId(sightingId)
+                .status(EnrichmentJobStatus.PENDING)
+                .runAt(LocalDateTime.now().plus(linger))
+                .build());
+    }
+
+    /**
+     * Claims up to {@code limit} jobs: each is marked RUNNING, its attempt counted and its
+     * lease started. Jobs are claimed once the oldest is due, taking along those still within
+     * their linger, or as soon as {@code fullBatch} of them are waiting.
+     */
+    @Transactional
+    public List<EnrichmentJob> claim(int limit, int fullBatch) {
+        if (limit <= 0) return List.of();
+        LocalDateTime now = LocalDateTime.now();
+        List<EnrichmentJob> jobs = jobRepository.lockDueJobs(now.plus(linger), limit);
+        if (jobs.size() < fullBatch && jobs.stream().allMatch(job -> job.getRunAt().isAfter(now))) {
+            // Still lingering; the row locks are released with the transaction
+            return List.of();
+        }
+        for (EnrichmentJob job : jobs) {
+            job.setStatus(EnrichmentJobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setRunAt(now.plus(lease));
+        }
+        return jobRepository.saveAll(jobs);
+    }
+
+    /**
+     * Removes a job that finished.
+     */
+    @Transactional
+    public void complete(EnrichmentJob job) {
+        jobRepository.deleteById(job.getId());
+    }
+
+    /**
+     * Returns claimed jobs that were never started to the queue, due now and without counting
+     * the attempt.
+     */
+    @Transactional
+    public void release(List<EnrichmentJob> jobs) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EnrichmentJob job : jobs) {
+            job.setStatus(EnrichmentJobStatus.PENDING);
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            job.setRunAt(now);
+        }
+        jobRepository.saveAll(jobs);
+    }
+
+    /**
+     * Records a failed attempt: the job is scheduled for a retry after its backoff, or, out of
+     * attempts, dead-lettered and its sighting marked FAILED.
+     */
+    @Transactional
+    public void fail(EnrichmentJob job, Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setLastError(describe(error));
+        if (job.getAttempts() >= maxAttempts) {
+            deadLetter(job, now);
+        } else {
+            Duration delay = backoff(job.getAttempts());
+            job.setStatus(EnrichmentJobStatus.PENDING);
+            job.setRunAt(now.plus(delay));
+            log.warn("Enrichment of sighting {} failed (attempt {} of {}); retrying in {}: {}",
+                    job.getSightingId(), job.getAttempts(), maxAttempts, delay, job.getLastError());
+        }
+        jobRepository.save(job);
+    }
+
+    /**
+     * Returns jobs whose worker stopped before finishing to the queue. A job whose lease expired
+     * on its last attempt (say, a sighting that crashes or hangs every worker) is dead-lettered
+     * and its sighting marked FAILED instead, as after a failed last attempt.
+     */
+    @Transactional
+    public int releaseExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        for (EnrichmentJob job : jobRepository.findExpiredLeasesOutOfAttempts(now, maxAttempts)) {
+            job.setLastError("Lease expired: the worker did not finish attempt " + job.getAttempts());
+            deadLetter(job, now);
+            jobRepository.save(job);
+        }
+        int released = jobRepository.releaseExpiredLeases(now, maxAttempts);
+        if (released > 0) {
+            log.warn("Released {} enrichment jobs whose lease expired", released);
+        }
+        return released;
+    }
+
+    private void deadLetter(EnrichmentJob job, LocalDateTime now) {
+        job.setStatus(EnrichmentJobStatus.DEAD);
+        sightingRepository.failEnrichment(job.getSightingId(), now);
+        log.error("Enrichment of sighting {} failed {} times; giving up: {}",
+                job.getSightingId(), job.getAttempts(), job.getLastError());
+    }
+
+    /**
+     * Delay before the retry that follows attempt {@code attempts}: the base backoff doubled
+     * for each earlier attempt, capped at {@code enrichment.jobs.max-backoff}.
+     */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = backoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String describe(Throwable error) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,183 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.EnrichmentJob;
+import com.flightspotterlogbook.model.EnrichmentStatus;
+import com.flightspotterlogbook.model.Sighting;
+import com.flightspotterlogbook.repository.SightingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs queued enrichment jobs on the {@code enrichmentExecutor} (see {@code AsyncConfig}).
+ *
+ * <p>Every {@code enrichment.jobs.poll-interval} milliseconds the worker claims from the
+ * {@link EnrichmentJobQueue} as many jobs as its idle threads can take in full batches, so it
+ * never holds jobs it cannot start and other instances can take the rest. The claimed sightings
+ * are grouped by the {@link EnrichmentBatcher}, and each batch is enriched with one OpenSky call
+ * through {@link OpenSkyService#enrichBatch}. Each job is then completed or, on failure, handed
+ * back to the queue for a retry. Outcomes are counted in {@code enrichment.jobs} (tag
+ * {@code outcome}) and batch sizes in {@code enrichment.batch.size}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnrichmentJobWorker {
+
+    private final EnrichmentJobQueue queue;
+
+    private final SightingRepository sightingRepository;
+
+    private final OpenSkyService openSkyService;
+
+    private final EnrichmentBatcher batcher;
+
+    @Qualifier("enrichmentExecutor")
+    private final ThreadPoolTaskExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger busy = new AtomicInteger();
+
+    private Counter completed;
+    private Counter skipped;
+    private Counter failed;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void registerMetrics() {
+        completed = counter("completed");
+        skipped = counter("skipped");
+        failed = counter("failed");
+        batchSizes = DistributionSummary.builder("enrichment.batch.size")
+                .description("Sightings enriched per OpenSky call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims due jobs for the idle threads, groups their sightings into batches and starts them.
+     */
+    @Scheduled(fixedDelayString = "${enrichment.jobs.poll-interval:1000}")
+    public void poll() {
+        int idle = executor.getMaxPoolSize() - busy.get();
+        if (idle <= 0 || executor.getThreadPoolExecutor().isShutdown()) return;
+        List<EnrichmentJob> jobs;
+        try {
+            jobs = queue.claim(idle * batcher.maxSize(), batcher.maxSize());
+        } catch (Exception e) {
+            log.warn("Could not claim enrichment jobs: {}", e.getMessage());
+            return;
+        }
+        if (jobs.isEmpty()) return;
+
+        Map<Long, List<EnrichmentJob>> jobsBySighting = new HashMap<>();
+        for (EnrichmentJob job : jobs) {
+            jobsBySighting.computeIfAbsent(job.getSightingId(), id -> new ArrayList<>()).add(job);
+        }
+        List<Sighting> sightings = new ArrayList<>();
+        try {
+            for (Sighting sighting : sightingRepository.findAllById(jobsBySighting.keySet())) {
+                if (sighting.getEnrichmentStatus() == EnrichmentStatus.ENRICHING) sightings.add(sighting);
+            }
+        } catch (Exception e) {
+            // The leases expire and the jobs are retried
+            log.warn("Could not load sightings for enrichment jobs: {}", e.getMessage());
+            return;
+        }
+
+        // Sightings deleted or no longer being enriched (the user set the fields, or a newer job finished first)
+        Set<Long> pending = new HashSet<>();
+        sightings.forEach(sighting -> pending.add(sighting.getId()));
+        jobsBySighting.forEach((sightingId, sightingJobs) -> {
+            if (!pending.contains(sightingId)) {
+                sightingJobs.forEach(job -> finish(job, null, skipped));
+            }
+        });
+
+        for (List<Sighting> batch : batcher.group(sightings)) {
+            List<EnrichmentJob> batchJobs = new ArrayList<>();
+            batch.forEach(sighting -> batchJobs.addAll(jobsBySighting.get(sighting.getId())));
+            busy.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(batch, batchJobs);
+                    } finally {
+                        busy.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // Shutting down, or more batches than the executor queues: leave them in the database
+                busy.decrementAndGet();
+                queue.release(batchJobs);
+            }
+        }
+    }
+
+    /**
+     * Puts jobs whose worker died back on the queue, or dead-letters them after their last attempt.
+     */
+    @Scheduled(fixedDelayString = "${enrichment.jobs.lease-check-interval:60000}")
+    public void releaseExpiredLeases() {
+        try {
+            queue.releaseExpiredLeases();
+        } catch (Exception e) {
+            log.warn("Could not release expired enrichment jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Enriches a batch of sightings and records the outcome of their jobs.
+     */
+    void run(List<Sighting> batch, List<EnrichmentJob> jobs) {
+        Map<Long, RuntimeException> failures;
+        try {
+            failures = openSkyService.enrichBatch(batch);
+            batchSizes.record(batch.size());
+        } catch (Exception e) {
+            jobs.forEach(job -> finish(job, e, failed));
+            return;
+        }
+        for (EnrichmentJob job : jobs) {
+            RuntimeException failure = failures.get(job.getSightingId());
+            finish(job, failure, failure == null ? completed : failed);
+        }
+    }
+
+    private void finish(EnrichmentJob job, Exception failure, Counter outcome) {
+        outcome.increment();
+        try {
+            if (failure == null) {
+                queue.complete(job);
+            } else {
+                queue.fail(job, failure);
+            }
+        } catch (Exception e) {
+            // The lease expires and the job is retried anyway
+            log.error("Could not record outcome of enrichment job {}", job.getId(), e);
+        }
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("enrichment.jobs")
+                .description("Enrichment job attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.flightspotterlogbook.service;
+
+/**
+ * Distance and bounding-box helpers for radius searches on a spherical Earth.
+ */
+final class GeoMath {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * Half-height in degrees of latitude of a box enclosing a circle of {@code radiusKm}.
+     */
+    static double latitudeDelta(double radiusKm) {
+        return Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+    }
+
+    /**
+     * Half-width in degrees of longitude of a box enclosing a circle of {@code radiusKm} at the
+     * given latitude. A degree of longitude shrinks with {@code cos(lat)}, so the box widens
+     * towards the poles (capped at the full circle).
+     */
+    static double longitudeDelta(double lat, double radiusKm) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+        return Math.min(180.0, latitudeDelta(radiusKm) / cosLat);
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points in kilometres.
+     */
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Equirectangular approximation of the distance in kilometres, given the cosine of the
+     * reference latitude. Needs no trigonometry per point and is within a fraction of a percent
+     * of the great-circle distance over the few hundred kilometres of an airport search.
+     */
+    static double approxDistanceKm(double lat1, double lon1, double lat2, double lon2, double cosLat) {
+        double x = Math.toRadians(lon2 - lon1) * cosLat;
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+    }
+}
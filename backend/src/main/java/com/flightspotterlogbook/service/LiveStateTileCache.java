@@ -0,0 +1,230 @@
+package com.flightspotterlogbook.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of live OpenSky state vectors keyed on a fixed geographic tile grid
+ * (1°×1° by default). Area queries are answered by combining the tiles they cover and
+ * filtering locally, so users looking at the same airport share upstream fetches and API
+ * credits. The missing or stale tiles of a query are fetched together, as one box around them,
+ * and the response is split into tiles locally: a call costs credits by the area of its box,
+ * so one box costs as little as a single tile, and a 250 km search (about 6×7 tiles) costs 2
+ * credits rather than one per tile. Concurrent requests for the same box attach to a single
+ * in-flight fetch through the {@link RequestCoalescer}. Fetches go through the
+ * {@link OpenSkyCircuitBreaker}; tiles whose refresh fails keep their previous contents.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveStateTileCache {
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(15);
+
+    @Qualifier("openSkyLookupWebClient")
+    private final WebClient lookupWebClient;
+
+    private final StateVectorParser stateVectorParser;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final AircraftTrackStore trackStore;
+
+    private final OpenSkyCircuitBreaker circuitBreaker;
+
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    /**
+     * Edge length of a tile in degrees.
+     */
+    @Value("${opensky.tiles.size-degrees:1.0}")
+    private double tileSizeDegrees = 1.0;
+
+    /**
+     * How long a fetched tile is served before it is considered stale.
+     */
+    @Value("${opensky.tiles.ttl:10s}")
+    private Duration ttl = Duration.ofSeconds(10);
+
+    private final ConcurrentHashMap<Long, Tile> tiles = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the states positioned inside the given box, fetching the tiles that are missing
+     * or stale in one call. Fails if a tile that was never fetched cannot be fetched.
+     */
+    public Mono<StateColumns> statesWithin(double lamin, double lomin, double lamax, double lomax) {
+        List<Long> keys = tilesCovering(lamin, lomin, lamax, lomax);
+        Duration currentTtl = effectiveTtl();
+        List<Long> due = new ArrayList<>();
+        for (long key : keys) {
+            Tile cached = tiles.get(key);
+            if (cached == null || !cached.isFresh(currentTtl)) due.add(key);
+        }
+        Mono<StateColumns> refresh = due.isEmpty() ? Mono.empty() : refresh(due);
+        return refresh.then(Mono.fromSupplier(() -> {
+            StateColumns result = new StateColumns();
+            Set<Integer> seen = new HashSet<>();
+            for (long key : keys) {
+                Tile tile = tiles.get(key);
+                if (tile == null) continue;
+                StateColumns states = tile.states;
+                for (int i = 0; i < states.size(); i++) {
+                    if (states.isWithin(i, lamin, lomin, lamax, lomax) && seen.add(states.icao24(i))) {
+                        result.append(states, i);
+                    }
+                }
+            }
+            return result.compact();
+        }));
+    }
+
+    /**
+     * Fetches the box around the given tiles, or attaches to the in-flight fetch of the same
+     * box, and stores every tile of it.
+     */
+    private Mono<StateColumns> refresh(List<Long> due) {
+        int latFrom = Integer.MAX_VALUE, latTo = Integer.MIN_VALUE;
+        int lonFrom = Integer.MAX_VALUE, lonTo = Integer.MIN_VALUE;
+        for (long key : due) {
+            latFrom = Math.min(latFrom, latIndex(key));
+            latTo = Math.max(latTo, latIndex(key));
+            lonFrom = Math.min(lonFrom, lonIndex(key));
+            lonTo = Math.max(lonTo, lonIndex(key));
+        }
+        Box box = new Box(latFrom, lonFrom, latTo, lonTo);
+        String url = String.format(Locale.ROOT,
+                "/states/all?lamin=%.4f&lomin=%.4f&lamax=%.4f&lomax=%.4f",
+                latFrom * tileSizeDegrees, lonFrom * tileSizeDegrees,
+                (latTo + 1) * tileSizeDegrees, (lonTo + 1) * tileSizeDegrees);
+        // Store the tiles inside the shared call, before the coalescer retires it, so late
+        // callers see them
+        return requestCoalescer.execute(RequestCoalescer.key("lookup", url), () -> fetch(url)
+                        .doOnNext(states -> store(box, states)))
+                .onErrorResume(e -> {
+                    log.error("Error fetching live states {}: {}", url, e.getMessage());
+                    // Keep serving the previous contents; with none, fail rather than report an
+                    // empty sky as fact
+                    return due.stream().allMatch(tiles::containsKey) ? Mono.empty() : Mono.error(e);
+                });
+    }
+
+    private Mono<StateColumns> fetch(String url) {
+        log.debug("Fetching live states {}", url);
+        return circuitBreaker.protect(lookupWebClient.get()
+                        .uri(url)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .as(body -> stateVectorParser.parse(body, StateColumns.RowFilter.ALL, Integer.MAX_VALUE))
+                        .timeout(FETCH_TIMEOUT))
+                .doOnNext(trackStore::record);
+    }
+
+    /**
+     * Splits a response by tile and stores every tile of the box, empty ones included.
+     */
+    private void store(Box box, StateColumns states) {
+        Map<Long, StateColumns> split = new HashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            if (!states.hasPosition(i)) continue;
+            int lat = (int) Math.floor(states.latitude(i) / tileSizeDegrees);
+            int lon = (int) Math.floor(states.longitude(i) / tileSizeDegrees);
+            if (box.contains(lat, lon)) {
+                split.computeIfAbsent(key(lat, lon), k -> new StateColumns()).append(states, i);
+            }
+        }
+        long now = System.nanoTime();
+        for (int lat = box.latFrom(); lat <= box.latTo(); lat++) {
+            for (int lon = box.lonFrom(); lon <= box.lonTo(); lon++) {
+                long key = key(lat, lon);
+                StateColumns tile = split.get(key);
+                tiles.put(key, new Tile(tile == null ? new StateColumns(1).compact() : tile.compact(), now));
+            }
+        }
+    }
+
+    /**
+     * Drops tiles that have been stale for a while so the map only holds recently viewed areas.
+     */
+    @Scheduled(fixedDelayString = "${opensky.tiles.eviction-interval:60000}")
+    public void evictStaleTiles() {
+        Duration retention = effectiveTtl().multipliedBy(6);
+        tiles.entrySet().removeIf(e -> !e.getValue().isFresh(retention));
+    }
+
+    /**
+     * The tile TTL, widened while OpenSky credits are low.
+     */
+    private Duration effectiveTtl() {
+        return creditAccountant.isLow() ? ttl.multipliedBy(OpenSkyCreditAccountant.LOW_CREDIT_TTL_FACTOR) : ttl;
+    }
+
+    List<Long> tilesCovering(double lamin, double lomin, double lamax, double lomax) {
+        int latFrom = (int) Math.floor(lamin / tileSizeDegrees);
+        int latTo = (int) Math.floor(lamax / tileSizeDegrees);
+        int lonFrom = (int) Math.floor(lomin / tileSizeDegrees);
+        int lonTo = (int) Math.floor(lomax / tileSizeDegrees);
+        List<Long> keys = new ArrayList<>((latTo - latFrom + 1) * (lonTo - lonFrom + 1));
+        for (int lat = latFrom; lat <= latTo; lat++) {
+            for (int lon = lonFrom; lon <= lonTo; lon++) {
+                keys.add(key(lat, lon));
+            }
+        }
+        return keys;
+    }
+
+    private static long key(int lat, int lon) {
+        return ((long) lat << 32) | (lon & 0xFFFFFFFFL);
+    }
+
+    private static int latIndex(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int lonIndex(long key) {
+        return (int) key;
+    }
+
+    /**
+     * A box of tiles, by tile index, bounds included.
+     */
+    private record Box(int latFrom, int lonFrom, int latTo, int lonTo) {
+
+        boolean contains(int lat, int lon) {
+            return lat >= latFrom && lat <= latTo && lon >= lonFrom && lon <= lonTo;
+        }
+    }
+
+    private static final class Tile {
+
+        final StateColumns states;
+        final long fetchedAtNanos;
+
+        Tile(StateColumns states, long fetchedAtNanos) {
+            this.states = states;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+
+        boolean isFresh(Duration ttl) {
+            return System.nanoTime() - fetchedAtNanos < ttl.toNanos();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optional background poller for live traffic over Europe. When enabled
+ * ({@code opensky.live-poller.enabled=true}), the European box is fetched at a fixed cadence and
+ * published as an immutable {@link LiveTrafficSnapshot} through an atomic reference swap. The
+ * lookup endpoints then answer from memory, so the upstream call rate is set by the poll period
+ * rather than by user traffic.
+ *
+ * <p>Each poll costs 4 credits, so the configured period is only honoured when the daily budget
+ * can pay for it; otherwise polls are spaced to spend the whole budget over a day (at the default
+ * 300 credits, one poll every 19 minutes 12 seconds) and a warning is logged at startup.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveTrafficPoller {
+
+    private static final double GRID_CELL_DEGREES = 0.5;
+
+    @Qualifier("openSkyLookupWebClient")
+    private final WebClient lookupWebClient;
+
+    private final StateVectorParser stateVectorParser;
+
+    private final AircraftTrackStore trackStore;
+
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${opensky.live-poller.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Requested poll period in milliseconds; see {@link #pollInterval()} for the one applied.
+     */
+    @Value("${opensky.live-poller.period:1200000}")
+    private Duration period = Duration.ofMinutes(20);
+
+    @Value(RateLimitConfig.DAILY_BUDGET)
+    private long dailyBudget = RateLimitConfig.DEFAULT_DAILY_BUDGET;
+
+    private final AtomicReference<LiveTrafficSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong lastPollNanos = new AtomicLong();
+
+    /**
+     * Warns when the configured period would spend more than the daily budget.
+     */
+    @PostConstruct
+    public void validatePeriod() {
+        if (!enabled) return;
+        Duration interval = pollInterval();
+        if (interval.compareTo(period) > 0) {
+            log.warn("opensky.live-poller.period {} s would spend {} credits a day against a budget of {}; "
+                            + "polling every {} s instead",
+                    period.toSeconds(), Duration.ofDays(1).toMillis() / Math.max(1, period.toMillis()) * pollCost(),
+                    dailyBudget, interval.toSeconds());
+        }
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.live.snapshot.size", snapshot, ref -> ref.get() == null ? 0 : ref.get().size())
+                .description("Aircraft in the current live traffic snapshot")
+                .register(meterRegistry);
+        Gauge.builder("opensky.live.snapshot.age", snapshot,
+                        ref -> ref.get() == null ? 0 : (System.currentTimeMillis() - ref.get().getCreatedAtMillis()) / 1000.0)
+                .description("Age of the current live traffic snapshot in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("opensky.live.snapshot.bytes", snapshot, ref -> ref.get() == null ? 0 : ref.get().estimatedBytes())
+                .description("Approximate heap retained by the current live traffic snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches the European box and swaps in a new snapshot. Failed polls keep the previous one.
+     * Polls are skipped while OpenSky credits are low, and ticks that come sooner than
+     * {@link #pollInterval()} after the last poll are ignored.
+     */
+    @Scheduled(fixedRateString = "${opensky.live-poller.period:1200000}")
+    public void poll() {
+        if (!enabled) return;
+        if (creditAccountant.isLow()) {
+            log.debug("Skipping live traffic poll, OpenSky credits are low");
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastPollNanos.get();
+        if (last != 0 && now - last < pollInterval().toNanos()) return;
+        lastPollNanos.set(now);
+        String url = String.format(Locale.ROOT,
+                "/states/all?lamin=%.1f&lomin=%.1f&lamax=%.1f&lomax=%.1f",
+                AircraftService.LAT_MIN, AircraftService.LON_MIN, AircraftService.LAT_MAX, AircraftService.LON_MAX);
+        try {
+            long start = System.nanoTime();
+            StateColumns states = lookupWebClient.get()
+                    .uri(url)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .as(body -> stateVectorParser.parse(body, StateColumns.RowFilter.ALL, Integer.MAX_VALUE))
+                    .block(Duration.ofSeconds(30));
+            if (states == null) return;
+            publish(states);
+            trackStore.record(states);
+            log.debug("Published live traffic snapshot with {} aircraft in {} ms",
+                    states.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Live traffic poll failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds and publishes a snapshot of the given states.
+     */
+    void publish(StateColumns states) {
+        snapshot.set(LiveTrafficSnapshot.build(states,
+                AircraftService.LAT_MIN, AircraftService.LON_MIN,
+                AircraftService.LAT_MAX, AircraftService.LON_MAX, GRID_CELL_DEGREES));
+    }
+
+    /**
+     * Time between polls: the configured period, or longer if the daily budget cannot pay for
+     * a poll that often.
+     */
+    Duration pollInterval() {
+        long floorMillis = Duration.ofDays(1).toMillis() * pollCost() / Math.max(1, dailyBudget);
+        return period.toMillis() >= floorMillis ? period : Duration.ofMillis(floorMillis);
+    }
+
+    private static int pollCost() {
+        return OpenSkyCreditAccountant.cost(AircraftService.LAT_MIN, AircraftService.LON_MIN,
+                AircraftService.LAT_MAX, AircraftService.LON_MAX);
+    }
+
+    /**
+     * The current snapshot, or {@code null} if polling is disabled or the last successful poll
+     * is older than three poll intervals.
+     */
+    public LiveTrafficSnapshot currentSnapshot() {
+        if (!enabled) return null;
+        LiveTrafficSnapshot current = snapshot.get();
+        if (current == null) return null;
+        long age = System.currentTimeMillis() - current.getCreatedAtMillis();
+        return age <= pollInterval().multipliedBy(3).toMillis() ? current : null;
+    }
+}
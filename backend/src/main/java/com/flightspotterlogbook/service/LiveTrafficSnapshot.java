@@ -0,0 +1,171 @@
+package com.flightspotterlogbook.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of live traffic over a fixed area, indexed by a uniform grid so that
+ * box, radius and text queries touch only the relevant states.
+ *
+ * <p>The states are held in {@link StateColumns}. The grid is stored in compressed-row form:
+ * {@code cellStart[c]..cellStart[c + 1]} are the positions in {@code cellItems} of the rows
+ * whose position falls in cell {@code c}. ICAO24 lookups binary-search a sorted copy of the
+ * address column. Queries return new {@link StateColumns} holding only the selected rows.</p>
+ */
+public final class LiveTrafficSnapshot {
+
+    private final StateColumns states;
+    private final int[] sortedIcao24;
+    private final int[] sortedRows;
+    private final double latMin;
+    private final double lonMin;
+    private final double cellSize;
+    private final int rows;
+    private final int cols;
+    private final int[] cellStart;
+    private final int[] cellItems;
+    private final long createdAtMillis;
+
+    private LiveTrafficSnapshot(StateColumns states, double latMin, double lonMin,
+                                double latMax, double lonMax, double cellSize, long createdAtMillis) {
+        this.states = states;
+        this.latMin = latMin;
+        this.lonMin = lonMin;
+        this.cellSize = cellSize;
+        this.rows = Math.max(1, (int) Math.ceil((latMax - latMin) / cellSize));
+        this.cols = Math.max(1, (int) Math.ceil((lonMax - lonMin) / cellSize));
+        this.createdAtMillis = createdAtMillis;
+
+        int n = states.size();
+        int[] cellOf = new int[n];
+        int[] counts = new int[rows * cols + 1];
+        long[] icaoRow = new long[n];
+        for (int i = 0; i < n; i++) {
+            icaoRow[i] = ((long) states.icao24(i) << 32) | i;
+            cellOf[i] = states.hasPosition(i) ? cell(row(states.latitude(i)), col(states.longitude(i))) : -1;
+            if (cellOf[i] >= 0) counts[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < rows * cols; c++) {
+            counts[c + 1] += counts[c];
+        }
+        this.cellStart = counts.clone();
+        this.cellItems = new int[counts[rows * cols]];
+        for (int i = 0; i < n; i++) {
+            if (cellOf[i] >= 0) cellItems[counts[cellOf[i]]++] = i;
+        }
+
+        Arrays.sort(icaoRow);
+        this.sortedIcao24 = new int[n];
+        this.sortedRows = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIcao24[i] = (int) (icaoRow[i] >>> 32);
+            sortedRows[i] = (int) icaoRow[i];
+        }
+    }
+
+    /**
+     * Builds a snapshot of the given states covering the box {@code latMin..latMax},
+     * {@code lonMin..lonMax} with square grid cells of {@code cellSize} degrees.
+     */
+    public static LiveTrafficSnapshot build(StateColumns states, double latMin, double lonMin,
+                                            double latMax, double lonMax, double cellSize) {
+        return new LiveTrafficSnapshot(states, latMin, lonMin, latMax, lonMax, cellSize,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Up to {@code limit} states positioned inside the given box that pass the filter.
+     */
+    public StateColumns withinBox(double lamin, double lomin, double lamax, double lomax,
+                                  StateColumns.RowFilter filter, int limit) {
+        StateColumns result = new StateColumns();
+        int rowFrom = row(lamin);
+        int rowTo = row(lamax);
+        int colFrom = col(lomin);
+        int colTo = col(lomax);
+        for (int r = rowFrom; r <= rowTo; r++) {
+            for (int c = colFrom; c <= colTo; c++) {
+                int cell = cell(r, c);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellItems[k];
+                    if (states.isWithin(i, lamin, lomin, lamax, lomax) && filter.test(states, i)) {
+                        result.append(states, i);
+                        if (result.size() >= limit) return result.compact();
+                    }
+                }
+            }
+        }
+        return result.compact();
+    }
+
+    /**
+     * Up to {@code limit} states within {@code radiusKm} (great-circle) of the given point that
+     * pass the filter.
+     */
+    public StateColumns withinRadius(double lat, double lon, double radiusKm,
+                                     StateColumns.RowFilter filter, int limit) {
+        double dLat = GeoMath.latitudeDelta(radiusKm);
+        double dLon = GeoMath.longitudeDelta(lat, radiusKm);
+        StateColumns.RowFilter inRadius = (columns, row) ->
+                GeoMath.haversineKm(lat, lon, columns.latitude(row), columns.longitude(row)) <= radiusKm;
+        return withinBox(lat - dLat, lon - dLon, lat + dLat, lon + dLon, inRadius.and(filter), limit);
+    }
+
+    /**
+     * Up to {@code limit} states that pass the filter, in upstream order.
+     */
+    public StateColumns select(StateColumns.RowFilter filter, int limit) {
+        StateColumns result = new StateColumns();
+        for (int i = 0; i < states.size() && result.size() < limit; i++) {
+            if (filter.test(states, i)) result.append(states, i);
+        }
+        return result.compact();
+    }
+
+    /**
+     * The state for the given ICAO24 address as a single row, or empty columns if it is not in
+     * the snapshot.
+     */
+    public StateColumns byIcao24(String icao24) {
+        StateColumns result = new StateColumns(1);
+        int icao = AircraftMetadataIndex.parseIcao24(icao24);
+        int pos = icao < 0 ? -1 : Arrays.binarySearch(sortedIcao24, icao);
+        if (pos >= 0) result.append(states, sortedRows[pos]);
+        return result.compact();
+    }
+
+    /**
+     * Whether the given box lies entirely inside the area this snapshot covers.
+     */
+    public boolean covers(double lamin, double lomin, double lamax, double lomax) {
+        return lamin >= latMin && lomin >= lonMin
+                && lamax <= latMin + rows * cellSize && lomax <= lonMin + cols * cellSize;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Approximate heap retained by the snapshot, in bytes.
+     */
+    public long estimatedBytes() {
+        return states.estimatedBytes() + 4L * (sortedIcao24.length + sortedRows.length
+                + cellStart.length + cellItems.length);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat - latMin) / cellSize)));
+    }
+
+    private int col(double lon) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor((lon - lonMin) / cellSize)));
+    }
+
+    private int cell(int row, int col) {
+        return row * cols + col;
+    }
+}
@@ -0,0 +1,291 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AircraftPositionDTO;
+import com.flightspotterlogbook.dto.LiveTrafficUpdateDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes live traffic around an airport to any number of subscribers.
+ *
+ * <p>Each area (centre rounded to 0.01°, radius to whole kilometres) has one shared feed that
+ * refreshes from the live poller snapshot or the tile cache, so the upstream cost of an area does
+ * not grow with its audience. The feed is stopped a few seconds after its last subscriber leaves.</p>
+ *
+ * <p>Refreshes that need the tile cache are paced by the credit budget: the remaining credits are
+ * spread over a day across every active feed, the pace widens further while the accountant
+ * reports low credits, and the number of areas with a feed is capped.</p>
+ *
+ * <p>Every subscriber gets a snapshot first and then deltas computed against the last frame it
+ * actually received. A subscriber that cannot keep up only ever holds the latest frame, so it
+ * skips intermediate frames and the next delta covers the whole gap.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveTrafficStreamService {
+
+    static final double MAX_RADIUS_KM = 250.0;
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(5);
+
+    private final LiveStateTileCache tileCache;
+
+    private final LiveTrafficPoller liveTrafficPoller;
+
+    private final AircraftMetadataIndex metadataIndex;
+
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * How often each area feed is refreshed at most. Matches the tile TTL by default so every
+     * refresh sees new data.
+     */
+    @Value("${opensky.live-stream.period:10000}")
+    private Duration period = Duration.ofSeconds(10);
+
+    /**
+     * Maximum number of areas with a feed at the same time.
+     */
+    @Value("${opensky.live-stream.max-areas:50}")
+    private int maxAreas = 50;
+
+    private final ConcurrentHashMap<AreaKey, Flux<Frame>> feeds = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.live.stream.areas", feeds, Map::size)
+                .description("Areas with an active live traffic feed")
+                .register(meterRegistry);
+        Gauge.builder("opensky.live.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Clients subscribed to live traffic streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams the aircraft within {@code radiusKm} of the given point: a snapshot followed by
+     * deltas whenever the area is refreshed.
+     *
+     * @throws IllegalArgumentException if the coordinates or radius are out of range
+     * @throws TooManyAreasException if the area has no feed yet and no more can be started
+     */
+    public Flux<LiveTrafficUpdateDTO> stream(double lat, double lon, double radiusKm) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (int) MAX_RADIUS_KM + " km");
+        }
+        AreaKey key = AreaKey.of(lat, lon, radiusKm);
+        if (!feeds.containsKey(key) && feeds.size() >= maxAreas) {
+            throw new TooManyAreasException(maxAreas);
+        }
+        return Flux.defer(() -> {
+            AtomicReference<Frame> lastSent = new AtomicReference<>();
+            return feeds.computeIfAbsent(key, this::startFeed)
+                    // Conflate: a slow client keeps only the newest frame
+                    .onBackpressureLatest()
+                    .map(frame -> diff(lastSent.getAndSet(frame), frame))
+                    .filter(update -> update.getType().equals(LiveTrafficUpdateDTO.SNAPSHOT) || !isEmpty(update))
+                    .doOnSubscribe(s -> subscribers.incrementAndGet())
+                    .doFinally(signal -> subscribers.decrementAndGet());
+        });
+    }
+
+    private Flux<Frame> startFeed(AreaKey key) {
+        log.debug("Starting live traffic feed for {}", key);
+        AtomicReference<Flux<Frame>> self = new AtomicReference<>();
+        AtomicLong version = new AtomicLong();
+        AtomicLong nextUpstreamRefresh = new AtomicLong(System.nanoTime());
+        Flux<Frame> feed = Flux.interval(Duration.ZERO, period)
+                .onBackpressureDrop()
+                .concatMap(tick -> loadPositions(key, nextUpstreamRefresh)
+                        .map(positions -> new Frame(version.incrementAndGet(), positions)), 1)
+                .doFinally(signal -> {
+                    log.debug("Stopping live traffic feed for {}", key);
+                    feeds.remove(key, self.get());
+                })
+                .replay(1)
+                .refCount(1, SHUTDOWN_GRACE);
+        self.set(feed);
+        return feed;
+    }
+
+    /**
+     * Current positions in the area, keyed by ICAO24. Completes empty if the data could not be
+     * loaded or the area is not due for an upstream refresh yet, so the feed simply skips that
+     * tick.
+     */
+    private Mono<Map<String, AircraftPositionDTO>> loadPositions(AreaKey key, AtomicLong nextUpstreamRefresh) {
+        double lat = key.latitude();
+        double lon = key.longitude();
+        double radiusKm = key.radiusKm();
+
+        LiveTrafficSnapshot snapshot = liveTrafficPoller.currentSnapshot();
+        double dLat = GeoMath.latitudeDelta(radiusKm);
+        double dLon = GeoMath.longitudeDelta(lat, radiusKm);
+        double lamin = Math.max(-90, lat - dLat);
+        double lamax = Math.min(90, lat + dLat);
+        double lomin = lon - dLon;
+        double lomax = lon + dLon;
+
+        Mono<StateColumns> states;
+        if (snapshot != null && snapshot.covers(lamin, lomin, lamax, lomax)) {
+            states = Mono.just(snapshot.withinRadius(lat, lon, radiusKm, StateColumns.RowFilter.ALL, Integer.MAX_VALUE));
+        } else {
+            long now = System.nanoTime();
+            if (now - nextUpstreamRefresh.get() < 0) {
+                return Mono.empty();
+            }
+            int cost = OpenSkyCreditAccountant.cost(lamin, lomin, lamax, lomax);
+            nextUpstreamRefresh.set(now + upstreamPeriod(cost).toNanos());
+            states = tileCache.statesWithin(lamin, lomin, lamax, lomax);
+        }
+
+        return states
+                .map(columns -> {
+                    Map<String, AircraftPositionDTO> positions = new LinkedHashMap<>();
+                    for (int row = 0; row < columns.size(); row++) {
+                        if (!columns.hasPosition(row)) continue;
+                        if (GeoMath.haversineKm(lat, lon, columns.latitude(row), columns.longitude(row)) > radiusKm) continue;
+                        AircraftPositionDTO position = toPosition(columns, row);
+                        positions.put(position.getIcao24(), position);
+                    }
+                    return positions;
+                })
+                .onErrorResume(e -> {
+                    log.warn("Live traffic refresh failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Time between tile cache refreshes of one area costing {@code cost} credits, chosen so that
+     * all active feeds together spend at most the remaining credits over a day. Never shorter
+     * than the configured period, and widened while credits are low.
+     */
+    Duration upstreamPeriod(int cost) {
+        long remaining = Math.max(1, creditAccountant.remaining());
+        long budgeted = Duration.ofDays(1).toMillis() * cost * Math.max(1, feeds.size()) / remaining;
+        Duration paced = Duration.ofMillis(Math.max(period.toMillis(), budgeted));
+        return creditAccountant.isLow() ? paced.multipliedBy(OpenSkyCreditAccountant.LOW_CREDIT_TTL_FACTOR) : paced;
+    }
+
+    private AircraftPositionDTO toPosition(StateColumns columns, int row) {
+        AircraftPositionDTO position = AircraftPositionDTO.builder()
+                .icao24(columns.icao24Hex(row))
+                .callsign(columns.callsign(row))
+                .originCountry(columns.originCountry(row))
+                .latitude(StateColumns.toDouble(columns.latitude(row)))
+                .longitude(StateColumns.toDouble(columns.longitude(row)))
+                .altitude(StateColumns.toDouble(columns.altitude(row)))
+                .velocity(StateColumns.toDouble(columns.velocity(row)))
+                .heading(StateColumns.toDouble(columns.track(row)))
+                .onGround(columns.onGround(row))
+                .build();
+        // Only the local database is used here; remote metadata calls would defeat the point
+        AircraftMetadata metadata = metadataIndex.lookup(columns.icao24(row));
+        if (metadata != null) {
+            position.setRegistration(metadata.getRegistration());
+            position.setModel(metadata.getModel());
+            position.setOperator(metadata.getOperator());
+        }
+        return position;
+    }
+
+    /**
+     * Update that takes a client from {@code previous} (or nothing) to {@code current}.
+     */
+    static LiveTrafficUpdateDTO diff(Frame previous, Frame current) {
+        if (previous == null) {
+            return LiveTrafficUpdateDTO.builder()
+                    .type(LiveTrafficUpdateDTO.SNAPSHOT)
+                    .version(current.version())
+                    .added(new ArrayList<>(current.positions().values()))
+                    .moved(List.of())
+                    .removed(List.of())
+                    .build();
+        }
+        List<AircraftPositionDTO> added = new ArrayList<>();
+        List<AircraftPositionDTO> moved = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (AircraftPositionDTO position : current.positions().values()) {
+            AircraftPositionDTO before = previous.positions().get(position.getIcao24());
+            if (before == null) {
+                added.add(position);
+            } else if (!before.equals(position)) {
+                moved.add(position);
+            }
+        }
+        for (String icao24 : previous.positions().keySet()) {
+            if (!current.positions().containsKey(icao24)) removed.add(icao24);
+        }
+        return LiveTrafficUpdateDTO.builder()
+                .type(LiveTrafficUpdateDTO.DELTA)
+                .version(current.version())
+                .added(added)
+                .moved(moved)
+                .removed(removed)
+                .build();
+    }
+
+    private static boolean isEmpty(LiveTrafficUpdateDTO update) {
+        return update.getAdded().isEmpty() && update.getMoved().isEmpty() && update.getRemoved().isEmpty();
+    }
+
+    /**
+     * Thrown when a client asks for a new area while the maximum number of feeds is running.
+     */
+    public static class TooManyAreasException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public TooManyAreasException(int maxAreas) {
+            super("Live traffic is already streaming for " + maxAreas + " areas; try again later");
+        }
+    }
+
+    /**
+     * Positions in an area at one refresh.
+     */
+    record Frame(long version, Map<String, AircraftPositionDTO> positions) {
+    }
+
+    /**
+     * Area identity: centre in hundredths of a degree (about 1 km) and radius in kilometres, so
+     * clients watching the same airport share a feed.
+     */
+    record AreaKey(int latE2, int lonE2, int radiusKm) {
+
+        static AreaKey of(double lat, double lon, double radiusKm) {
+            return new AreaKey((int) Math.round(lat * 100), (int) Math.round(lon * 100),
+                    (int) Math.max(1, Math.round(radiusKm)));
+        }
+
+        double latitude() {
+            return latE2 / 100.0;
+        }
+
+        double longitude() {
+            return lonE2 / 100.0;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.flightspotterlogbook.service;
+
+/**
+ * A lookup result, with whether it is a stale copy served while a refresh is pending and how
+ * old it is in seconds.
+ */
+public record LookupResult<T>(T value, boolean stale, long ageSeconds) {
+
+    public static <T> LookupResult<T> fresh(T value) {
+        return new LookupResult<>(value, false, 0);
+    }
+}
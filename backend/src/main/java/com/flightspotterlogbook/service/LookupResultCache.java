@@ -0,0 +1,136 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AircraftDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Last good result of each aircraft search (keyed by area and query), served
+ * stale-while-revalidate.
+ *
+ * <p>A result younger than {@code opensky.lookup-cache.fresh-for} is returned as is. An older
+ * one is returned immediately, marked stale, while a single background refresh replaces it; if
+ * the refresh fails the stale copy keeps being served until it reaches
+ * {@code opensky.lookup-cache.max-stale}. While OpenSky credits are low, results stay fresh
+ * for longer. Only a search with no usable copy waits for the
+ * upstream, and if that fails it gets an empty list. Failed lookups never replace a good
+ * result.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LookupResultCache {
+
+    private final MeterRegistry meterRegistry;
+
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    @Value("${opensky.lookup-cache.fresh-for:10s}")
+    private Duration freshFor = Duration.ofSeconds(10);
+
+    @Value("${opensky.lookup-cache.max-stale:15m}")
+    private Duration maxStale = Duration.ofMinutes(15);
+
+    /**
+     * Upper bound on cached searches. New keys are not cached while the cache is full.
+     */
+    @Value("${opensky.lookup-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The result for the key: cached if fresh, cached and marked stale (with a background
+     * refresh) if still usable, otherwise loaded.
+     */
+    public Mono<LookupResult<List<AircraftDTO>>> get(String key, Supplier<Mono<List<AircraftDTO>>> loader) {
+        return Mono.defer(() -> {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                long ageMillis = System.currentTimeMillis() - entry.storedAtMillis;
+                if (ageMillis < effectiveFreshFor().toMillis()) {
+                    count("fresh");
+                    return Mono.just(new LookupResult<>(entry.value, false, ageMillis / 1000));
+                }
+                if (ageMillis < maxStale.toMillis()) {
+                    count("stale");
+                    refreshInBackground(key, entry, loader);
+                    return Mono.just(new LookupResult<>(entry.value, true, ageMillis / 1000));
+                }
+            }
+            count("miss");
+            return loader.get()
+                    .doOnNext(value -> store(key, value))
+                    .map(LookupResult::fresh)
+                    .onErrorResume(e -> {
+                        log.warn("Lookup {} failed with nothing cached: {}", key, e.getMessage());
+                        return Mono.just(LookupResult.fresh(List.of()));
+                    });
+        });
+    }
+
+    /**
+     * Drops results too old to be served.
+     */
+    @Scheduled(fixedDelayString = "${opensky.lookup-cache.eviction-interval:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - maxStale.toMillis();
+        entries.values().removeIf(entry -> entry.storedAtMillis <= cutoff);
+    }
+
+    /**
+     * How long results are fresh, widened while OpenSky credits are low.
+     */
+    private Duration effectiveFreshFor() {
+        return creditAccountant.isLow()
+                ? freshFor.multipliedBy(OpenSkyCreditAccountant.LOW_CREDIT_TTL_FACTOR) : freshFor;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void refreshInBackground(String key, Entry entry, Supplier<Mono<List<AircraftDTO>>> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) return;
+        loader.get()
+                .doFinally(signal -> entry.refreshing.set(false))
+                .subscribe(value -> store(key, value),
+                        e -> log.debug("Background refresh of {} failed, still serving stale: {}", key, e.getMessage()));
+    }
+
+    private void store(String key, List<AircraftDTO> value) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) return;
+        entries.put(key, new Entry(value, System.currentTimeMillis()));
+    }
+
+    private void count(String outcome) {
+        Counter.builder("opensky.lookup.cache")
+                .description("Aircraft searches by lookup cache outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Entry {
+        final List<AircraftDTO> value;
+        final long storedAtMillis;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<AircraftDTO> value, long storedAtMillis) {
+            this.value = value;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+}
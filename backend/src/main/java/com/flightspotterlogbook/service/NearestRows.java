@@ -0,0 +1,104 @@
+package com.flightspotterlogbook.service;
+
+/**
+ * Keeps the {@code k} rows with the smallest distance seen so far, using a bounded max-heap on
+ * primitive arrays. Offering {@code n} rows costs {@code O(n log k)} and only the final
+ * {@code k} rows are ever sorted, so the full candidate list never is. Equal distances are
+ * ordered by row, so rows at the same distance keep their upstream order.
+ */
+final class NearestRows {
+
+    private final int capacity;
+    private final int[] rows;
+    private final double[] distances;
+    private int size;
+
+    NearestRows(int k) {
+        this.capacity = k;
+        this.rows = new int[k];
+        this.distances = new double[k];
+    }
+
+    /**
+     * Considers a row; it is kept if fewer than {@code k} rows are held or it is nearer than
+     * the farthest one held.
+     */
+    void offer(int row, double distance) {
+        if (size < capacity) {
+            rows[size] = row;
+            distances[size] = distance;
+            siftUp(size++);
+        } else if (capacity > 0 && farther(0, row, distance)) {
+            rows[0] = row;
+            distances[0] = distance;
+            siftDown(0, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Distance a new row has to beat to be kept: that of the farthest row held once {@code k}
+     * rows are held, infinity before. Lets a search skip candidates that cannot qualify.
+     */
+    double bound() {
+        return size < capacity ? Double.POSITIVE_INFINITY : capacity == 0 ? Double.NEGATIVE_INFINITY : distances[0];
+    }
+
+    /**
+     * Sorts the held rows nearest first (heap sort in place). Call once, after the last
+     * {@link #offer}; {@link #row} and {@link #distance} then read them in that order.
+     */
+    void sort() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    int row(int i) {
+        return rows[i];
+    }
+
+    double distance(int i) {
+        return distances[i];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!farther(i, rows[parent], distances[parent])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int heapSize) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) break;
+            int largest = left + 1 < heapSize && farther(left + 1, rows[left], distances[left]) ? left + 1 : left;
+            if (!farther(largest, rows[i], distances[i])) break;
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    /**
+     * Whether the held entry at {@code i} sorts after the given row and distance.
+     */
+    private boolean farther(int i, int row, double distance) {
+        return distances[i] > distance || (distances[i] == distance && rows[i] > row);
+    }
+
+    private void swap(int a, int b) {
+        int row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+        double distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+    }
+}
@@ -0,0 +1,110 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Purges expired {@code opensky_cache} rows, which nothing else deletes.
+ *
+ * <p>Every {@code opensky.cache.janitor.interval} milliseconds, rows that expired more than
+ * {@code opensky.cache.janitor.grace} ago are deleted in batches of
+ * {@code opensky.cache.janitor.batch-size}, each in its own short transaction and followed by
+ * {@code opensky.cache.janitor.pause}, so enrichment writes are never held up behind a long
+ * delete. Rows within the grace window stay available as the fallback used when the OpenSky
+ * credit budget runs out.</p>
+ *
+ * <p>Purged rows are counted in {@code opensky.cache.purged}, and the table's on-disk size,
+ * measured after each run, is reported as {@code opensky.cache.table.bytes}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSkyCacheJanitor {
+
+    private final OpenSkyCacheRepository cacheRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${opensky.cache.janitor.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * How long expired rows are kept for the credit budget fallback.
+     */
+    @Value("${opensky.cache.janitor.grace:3d}")
+    private Duration grace = Duration.ofDays(3);
+
+    @Value("${opensky.cache.janitor.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Pause between batches, leaving room for other writers.
+     */
+    @Value("${opensky.cache.janitor.pause:200ms}")
+    private Duration pause = Duration.ofMillis(200);
+
+    private final AtomicLong tableBytes = new AtomicLong(-1);
+
+    private Counter purged;
+
+    @PostConstruct
+    public void registerMetrics() {
+        purged = Counter.builder("opensky.cache.purged")
+                .description("Expired OpenSky cache rows deleted")
+                .register(meterRegistry);
+        Gauge.builder("opensky.cache.table.bytes", tableBytes, AtomicLong::get)
+                .description("On-disk size of the opensky_cache table, as of the last purge")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deletes the rows past their grace window, batch by batch, until none are left.
+     *
+     * @return the number of rows deleted
+     */
+    @Scheduled(fixedDelayString = "${opensky.cache.janitor.interval:3600000}",
+            initialDelayString = "${opensky.cache.janitor.initial-delay:60000}")
+    public long purge() {
+        if (!enabled) return 0;
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        long start = System.nanoTime();
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = cacheRepository.deleteExpiredBatch(cutoff, batchSize);
+                total += deleted;
+                purged.increment(deleted);
+                if (deleted == batchSize && !pause.isZero()) Thread.sleep(pause.toMillis());
+            } while (deleted == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Purging expired OpenSky cache rows failed after {} rows: {}", total, e.getMessage());
+        }
+
+        try {
+            tableBytes.set(cacheRepository.totalRelationSize());
+        } catch (Exception e) {
+            log.debug("Could not measure opensky_cache: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Purged {} expired OpenSky cache rows in {} ms; table now {} KB",
+                    total, (System.nanoTime() - start) / 1_000_000, tableBytes.get() / 1024);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,134 @@
+package com.flightspotterlogbook.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker for OpenSky state requests.
+ *
+ * <p>After {@code opensky.circuit-breaker.failure-threshold} consecutive failures the circuit
+ * opens and calls fail immediately with {@link CircuitOpenException} instead of waiting out the
+ * upstream timeout. Once {@code opensky.circuit-breaker.open-duration} has passed, a single
+ * half-open probe is let through: success closes the circuit, failure opens it again.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSkyCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${opensky.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold = 5;
+
+    @Value("${opensky.circuit-breaker.open-duration:30s}")
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.circuit.state", state, ref -> ref.get().ordinal())
+                .description("OpenSky circuit breaker state (0 closed, 1 open, 2 half-open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call through the breaker. The call is only subscribed if the circuit permits it;
+     * otherwise the result fails at once with {@link CircuitOpenException}.
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            State permittedIn = acquire();
+            if (permittedIn == null) {
+                Counter.builder("opensky.circuit.rejected")
+                        .description("OpenSky calls rejected while the circuit was open")
+                        .register(meterRegistry)
+                        .increment();
+                return Mono.error(new CircuitOpenException());
+            }
+            return call
+                    .doOnSuccess(value -> onSuccess())
+                    .doOnError(error -> onFailure(error, permittedIn))
+                    .doOnCancel(() -> abandonProbe(permittedIn));
+        });
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * The state the call is permitted in, or {@code null} if it is rejected.
+     */
+    private State acquire() {
+        State current = state.get();
+        if (current == State.CLOSED) return State.CLOSED;
+        if (current == State.OPEN && System.nanoTime() - openedAtNanos >= openDuration.toNanos()
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            log.info("OpenSky circuit half-open, probing upstream");
+            return State.HALF_OPEN;
+        }
+        return null;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("OpenSky circuit closed");
+        }
+    }
+
+    private void onFailure(Throwable error, State permittedIn) {
+        // Running out of credits says nothing about the health of OpenSky
+        if (error instanceof OpenSkyCreditAccountant.CreditBudgetExceededException) {
+            abandonProbe(permittedIn);
+            return;
+        }
+        if (state.get() == State.HALF_OPEN) {
+            open("probe failed: " + error.getMessage());
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            open(consecutiveFailures.get() + " consecutive failures, last: " + error.getMessage());
+        }
+    }
+
+    /**
+     * A probe that was cancelled or never reached OpenSky proves nothing; let the next call
+     * probe instead.
+     */
+    private void abandonProbe(State permittedIn) {
+        if (permittedIn == State.HALF_OPEN) state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    private void open(String reason) {
+        openedAtNanos = System.nanoTime();
+        state.set(State.OPEN);
+        log.warn("OpenSky circuit opened for {} ({})", openDuration, reason);
+    }
+
+    /**
+     * Signals that a call was not attempted because the circuit is open.
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException() {
+            super("OpenSky circuit is open");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Charges every OpenSky call to one shared daily credit budget (the {@code openSkyRateLimiter}
+ * bucket), whichever client or service makes it.
+ *
+ * <p>The cost of a {@code /states/all} call follows OpenSky's credit tiers for the requested
+ * area: up to 25 square degrees costs 1 credit, up to 100 costs 2, up to 400 costs 3, and
+ * anything larger (or no box at all) costs 4. OpenSky prices by area alone, so an
+ * {@code icao24=} query without a box, as sent by sighting enrichment, costs 4 credits however
+ * many aircraft it names; enrichment batches sightings to share them. Other endpoints are
+ * free. Calls are charged by {@link #filter(String)}, which is installed on the OpenSky
+ * WebClients; a call the budget cannot cover fails with {@link CreditBudgetExceededException}
+ * without reaching OpenSky.</p>
+ *
+ * <p>Once the remaining credits drop below {@code opensky.credits.low-water-mark} of the
+ * budget, the accountant reports {@link #isLow()}: caches then serve entries longer and
+ * Europe-wide scans are refused, so the remaining credits go to local lookups.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSkyCreditAccountant {
+
+    /**
+     * How much longer cached data is treated as fresh while credits are low.
+     */
+    static final int LOW_CREDIT_TTL_FACTOR = 6;
+
+    @Qualifier("openSkyRateLimiter")
+    private final Bucket creditBucket;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value(RateLimitConfig.DAILY_BUDGET)
+    private long dailyBudget = RateLimitConfig.DEFAULT_DAILY_BUDGET;
+
+    /**
+     * Fraction of the daily budget below which lookups degrade.
+     */
+    @Value("${opensky.credits.low-water-mark:0.2}")
+    private double lowWaterMark = 0.2;
+
+    private final BurnRate burnRate = new BurnRate();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.credits.remaining", this, OpenSkyCreditAccountant::remaining)
+                .description("OpenSky API credits left in today's budget")
+                .register(meterRegistry);
+        Gauge.builder("opensky.credits.burn-rate", burnRate, BurnRate::perHour)
+                .description("OpenSky API credits spent over the last hour")
+                .baseUnit("credits/hour")
+                .register(meterRegistry);
+        Gauge.builder("opensky.credits.low", this, a -> a.isLow() ? 1 : 0)
+                .description("Whether lookups are degraded to save OpenSky API credits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Credit cost of a request to the given URI: its {@code /states/all} box tier, 4 for a
+     * {@code /states/all} call without a box (including {@code icao24=} queries), or 0 for
+     * other endpoints.
+     */
+    public static int cost(URI uri) {
+        if (uri.getPath() == null || !uri.getPath().endsWith("/states/all")) return 0;
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        try {
+            double lamin = Double.parseDouble(params.getFirst("lamin"));
+            double lomin = Double.parseDouble(params.getFirst("lomin"));
+            double lamax = Double.parseDouble(params.getFirst("lamax"));
+            double lomax = Double.parseDouble(params.getFirst("lomax"));
+            return cost(lamin, lomin, lamax, lomax);
+        } catch (NullPointerException | NumberFormatException e) {
+            // No (usable) box: the whole world, even when filtered by icao24
+            return 4;
+        }
+    }
+
+    /**
+     * Credit cost of a {@code /states/all} call for the given box.
+     */
+    public static int cost(double lamin, double lomin, double lamax, double lomax) {
+        double squareDegrees = Math.abs(lamax - lamin) * Math.abs(lomax - lomin);
+        if (squareDegrees <= 25) return 1;
+        if (squareDegrees <= 100) return 2;
+        if (squareDegrees <= 400) return 3;
+        return 4;
+    }
+
+    /**
+     * Charges the given number of credits, if the budget still covers them.
+     */
+    public boolean tryCharge(int credits, String client) {
+        if (credits <= 0) return true;
+        if (!creditBucket.tryConsume(credits)) {
+            log.warn("OpenSky credit budget exhausted: {} credits needed by {}, {} left",
+                    credits, client, creditBucket.getAvailableTokens());
+            return false;
+        }
+        burnRate.add(credits);
+        Counter.builder("opensky.credits.spent")
+                .description("OpenSky API credits spent")
+                .tag("client", client)
+                .register(meterRegistry)
+                .increment(credits);
+        return true;
+    }
+
+    public long remaining() {
+        return creditBucket.getAvailableTokens();
+    }
+
+    /**
+     * Whether the budget is below the low-water mark and lookups should degrade.
+     */
+    public boolean isLow() {
+        return remaining() < dailyBudget * lowWaterMark;
+    }
+
+    /**
+     * Filter for an OpenSky WebClient that charges each request before sending it.
+     */
+    public ExchangeFilterFunction filter(String client) {
+        return (request, next) -> {
+            int credits = cost(request.url());
+            if (!tryCharge(credits, client)) {
+                return Mono.error(new CreditBudgetExceededException(credits));
+            }
+            return next.exchange(request);
+        };
+    }
+
+    /**
+     * Signals that a call was not made because the daily credit budget cannot cover it.
+     */
+    public static class CreditBudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CreditBudgetExceededException(int credits) {
+            super("OpenSky credit budget cannot cover " + credits + " credits");
+        }
+    }
+
+    /**
+     * Credits spent per minute over the last hour, in a ring of one-minute slots.
+     */
+    static final class BurnRate {
+
+        private static final int MINUTES = 60;
+
+        private final long[] credits = new long[MINUTES];
+        private final long[] minutes = new long[MINUTES];
+
+        synchronized void add(int spent) {
+            long minute = System.currentTimeMillis() / 60_000;
+            int slot = (int) (minute % MINUTES);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                credits[slot] = 0;
+            }
+            credits[slot] += spent;
+        }
+
+        synchronized double perHour() {
+            long now = System.currentTimeMillis() / 60_000;
+            long total = 0;
+            for (int i = 0; i < MINUTES; i++) {
+                if (now - minutes[i] < MINUTES) total += credits[i];
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Two-tier read-through cache of OpenSky {@code /states/all} responses used by enrichment,
+ * keyed by query hash.
+ *
+ * <p>L1 is an in-memory Caffeine cache of parsed {@link StateColumns}, bounded by their
+ * estimated heap size ({@code opensky.cache.memory.max-size}); every entry counts for at least
+ * {@link #MIN_ENTRY_BYTES}, which also caps the number of entries. L2 is the
+ * {@code opensky_cache} table, holding the gzip-compressed JSON. An L1 miss reads L2 and, if
+ * the row is still valid, decompresses and parses it once and promotes it. Writes go to both
+ * tiers, and both expire at the row's {@code expires_at}. An expired row is still returned,
+ * marked not fresh, for callers that prefer old data to none.</p>
+ *
+ * <p>Hits and misses per tier are counted in {@code opensky.cache.requests} (tags {@code tier}
+ * and {@code result}) and summarised as {@code opensky.cache.hit-ratio}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenSkyResponseCache {
+
+    static final int MIN_ENTRY_BYTES = 1024;
+
+    private final OpenSkyCacheRepository cacheRepository;
+
+    private final StateVectorParser stateVectorParser;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Upper bound on the estimated heap held by parsed responses in memory.
+     */
+    @Value("${opensky.cache.memory.max-size:32MB}")
+    private DataSize memoryMaxSize = DataSize.ofMegabytes(32);
+
+    private Cache<String, Entry> memory;
+
+    private Counter l1Hits;
+    private Counter l1Misses;
+    private Counter l2Hits;
+    private Counter l2Misses;
+
+    @PostConstruct
+    public void init() {
+        memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxSize.toBytes())
+                .weigher((String hash, Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String hash, Entry entry, long currentTime) {
+                        return entry.nanosToExpiry();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Entry entry, long currentTime, long currentDuration) {
+                        return entry.nanosToExpiry();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        l1Hits = counter("l1", "hit");
+        l1Misses = counter("l1", "miss");
+        l2Hits = counter("l2", "hit");
+        l2Misses = counter("l2", "miss");
+        hitRatio("l1", l1Hits, l1Misses);
+        hitRatio("l2", l2Hits, l2Misses);
+        Gauge.builder("opensky.cache.memory.bytes", this, OpenSkyResponseCache::memoryBytes)
+                .description("Estimated heap held by parsed OpenSky responses in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached response for the query hash, from memory or else the database, or empty if
+     * neither has it. A database row past its expiry is returned with {@code fresh} false.
+     */
+    public Optional<Lookup> get(String queryHash) {
+        Entry entry = memory.getIfPresent(queryHash);
+        if (entry != null) {
+            l1Hits.increment();
+            return Optional.of(new Lookup(entry.states(), true));
+        }
+        l1Misses.increment();
+
+        Optional<OpenSkyCache> row = cacheRepository.findByQueryHash(queryHash);
+        if (row.isEmpty()) {
+            l2Misses.increment();
+            return Optional.empty();
+        }
+        StateColumns states = stateVectorParser.parseGzip(row.get().getResponseGzip());
+        if (!row.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+            l2Misses.increment();
+            return Optional.of(new Lookup(states, false));
+        }
+        l2Hits.increment();
+        memory.put(queryHash, new Entry(states, row.get().getExpiresAt()));
+        return Optional.of(new Lookup(states, true));
+    }
+
+    /**
+     * Stores a fresh response in both tiers for {@code ttl}, replacing any previous entry, and
+     * returns it parsed. The database write is a single upsert, so two lookups storing the same
+     * query at once both succeed.
+     */
+    public StateColumns put(String queryHash, String response, Duration ttl) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        cacheRepository.upsert(queryHash, OpenSkyCache.compress(response), expiresAt);
+
+        StateColumns states = stateVectorParser.parse(response);
+        memory.put(queryHash, new Entry(states, expiresAt));
+        return states;
+    }
+
+    /**
+     * Estimated heap held by the in-memory tier.
+     */
+    public long memoryBytes() {
+        return memory.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    /**
+     * Runs pending evictions and expirations of the in-memory tier.
+     */
+    void cleanUp() {
+        memory.cleanUp();
+    }
+
+    private Counter counter(String tier, String result) {
+        return Counter.builder("opensky.cache.requests")
+                .description("OpenSky response cache lookups by tier and result")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void hitRatio(String tier, Counter hits, Counter misses) {
+        Gauge.builder("opensky.cache.hit-ratio", () -> {
+                    double total = hits.count() + misses.count();
+                    return total == 0 ? Double.NaN : hits.count() / total;
+                })
+                .description("Share of OpenSky response cache lookups answered by the tier")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A cached response, and whether it is still within its expiry.
+     */
+    public record Lookup(StateColumns states, boolean fresh) {
+    }
+
+    private record Entry(StateColumns states, LocalDateTime expiresAt) {
+
+        int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_ENTRY_BYTES, states.estimatedBytes()));
+        }
+
+        long nanosToExpiry() {
+            return Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        }
+    }
+}
@@ -1,15 +1,10 @@
 package com.flightspotterlogbook.service;
 
-import com.flightspotterlogbook.model.EnrichmentStatus;
 import com.flightspotterlogbook.model.Sighting;
-import com.flightspotterlogbook.model.OpenSkyCache;
-import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
 import com.flightspotterlogbook.repository.SightingRepository;
-import io.github.bucket4j.Bucket;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -18,101 +13,200 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * Service responsible for enriching sightings with data from the OpenSky Network. Requests are
- * performed asynchronously to avoid blocking the main request/response thread. Responses are
- * cached both in memory (via Caffeine) and in the database to minimise calls to the external
+ * Service responsible for enriching sightings with data from the OpenSky Network. Enrichment runs
+ * on the {@link EnrichmentJobWorker} pool, off the request thread, from jobs queued in the
+ * database ({@link EnrichmentJobQueue}), so failures are retried rather than lost. Sightings
+ * queued close together are enriched in batches ({@link #enrichBatch}), as a filtered call
+ * costs the same credits for one aircraft as for many. Responses are cached both in memory (via
+ * Caffeine) and in the database ({@link OpenSkyResponseCache}) to minimise calls to the external
  * API and respect rate limits.
+ *
+ * <p>The callsign and ICAO24 address are read from the state vector, and registration, model
+ * and operator from the aircraft metadata. Results are written with a targeted update of those
+ * columns (see {@link SightingRepository#completeEnrichment}) rather than by saving the
+ * sighting, so a user's edits made in the meantime are never overwritten.</p>
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OpenSkyService {
 
-    private final OpenSkyCacheRepository cacheRepository;
+    private final OpenSkyResponseCache responseCache;
     private final SightingRepository sightingRepository;
+    @Qualifier("openSkyWebClient")
     private final WebClient openSkyWebClient;
     
-    @Qualifier("openSkyRateLimiter")
-    private final Bucket openSkyRateLimiter;
+    private final OpenSkyCreditAccountant creditAccountant;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final AircraftService aircraftService;
 
     private final Duration defaultTtl = Duration.ofHours(24);  // Increased from 1 hour to 24 hours
 
     /**
-     * Initiates an asynchronous enrichment for the given sighting. Once the enrichment
-     * completes, the sighting is updated and persisted.
+     * Enriches the sighting and updates the enriched columns in place, provided the sighting is
+     * still being enriched.
      *
      * @param sighting the sighting to enrich
+     * @throws EnrichmentUnavailableException when there is no response to enrich from, or
+     *                                        nothing about the aircraft in it, so the job can be
+     *                                        retried later
      */
-    @Async
-    public void enrichAsync(Sighting sighting) {
-        try {
-            log.debug("Starting enrichment for sighting {}", sighting.getId());
-            String query = buildQueryForSighting(sighting);
-            String hash = computeHash(query);
-            Optional<OpenSkyCache> cached = cacheRepository.findByQueryHash(hash);
-            
-            String response;
-            
-            // First, check if we have valid (non-expired) cache
-            if (cached.isPresent() && cached.get().getExpiresAt().isAfter(LocalDateTime.now())) {
-                log.debug("Using valid cached OpenSky data for sighting {}", sighting.getId());
-                response = cached.get().getResponse();
-            } 
-            // If cache is expired or missing, try to fetch from OpenSky API
-            else {
-                // Check rate limit before making API call
-                if (!openSkyRateLimiter.tryConsume(1)) {
-                    log.warn("OpenSky rate limit exceeded. Tokens remaining: {}", 
-                            openSkyRateLimiter.getAvailableTokens());
-                    
-                    // Graceful degradation: use expired cache if available
-                    if (cached.isPresent()) {
-                        log.info("Using expired cache due to rate limit for sighting {}", sighting.getId());
-                        response = cached.get().getResponse();
-                    } else {
-                        // No cache available, mark as failed
-                        log.error("No cached data available and rate limit exceeded for sighting {}", 
-                                sighting.getId());
-                        sighting.setEnrichmentStatus(EnrichmentStatus.FAILED);
-                        sightingRepository.save(sighting);
-                        return;
-                    }
+    public void enrich(Sighting sighting) {
+        log.debug("Starting enrichment for sighting {}", sighting.getId());
+        StateColumns states = fetchStates(buildQueryForSighting(sighting), "sighting " + sighting.getId());
+        applyState(states, findState(states, sighting), sighting);
+    }
+
+    /**
+     * Enriches several sightings from one OpenSky call: their ICAO24 addresses are requested
+     * together, at the earliest of their times, and each sighting then takes its own row from
+     * the response. A sighting from later than that whose aircraft is not in the response (seen
+     * later, or it had only just taken off) is enriched on its own, at its own time, rather
+     * than completed without a state. Called by {@link EnrichmentJobWorker} for the batches formed by
+     * {@link EnrichmentBatcher}, whose sightings all have an ICAO24 address and close times.
+     *
+     * @param sightings the sightings to enrich, all with an ICAO24 address
+     * @return the sightings that could not be updated, by id, with the reason
+     * @throws EnrichmentUnavailableException when there is no response to enrich from, so the
+     *                                        whole batch can be retried later
+     */
+    public Map<Long, RuntimeException> enrichBatch(List<Sighting> sightings) {
+        if (sightings.size() == 1) {
+            enrich(sightings.get(0));
+            return Map.of();
+        }
+        log.debug("Starting batch enrichment of {} sightings", sightings.size());
+        long batchTime = epochSeconds(earliest(sightings));
+        StateColumns states = fetchStates(buildQueryForBatch(sightings), sightings.size() + " sightings");
+        Map<Long, RuntimeException> failures = new HashMap<>();
+        for (Sighting sighting : sightings) {
+            try {
+                int row = findState(states, sighting);
+                if (row < 0 && epochSeconds(sighting.getTimestamp()) != batchTime) {
+                    log.debug("Sighting {} not in the batch response; enriching it at its own time", sighting.getId());
+                    enrich(sighting);
                 } else {
-                    // Rate limit OK, fetch from API
-                    log.debug("Fetching from OpenSky API. Tokens remaining: {}", 
-                            openSkyRateLimiter.getAvailableTokens());
-                    response = openSkyWebClient.get()
-                            .uri(query)
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .block();
-                    
-                    // Save to cache
-                    cacheRepository.save(OpenSkyCache.builder()
-                            .queryHash(hash)
-                            .response(response)
-                            .expiresAt(LocalDateTime.now().plus(defaultTtl))
-                            .build());
-                    log.debug("Cached OpenSky response for sighting {} (TTL: {})", 
-                            sighting.getId(), defaultTtl);
+                    applyState(states, row, sighting);
                 }
+            } catch (RuntimeException e) {
+                failures.put(sighting.getId(), e);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * States for the query: from the cache while fresh, otherwise from OpenSky, falling back to
+     * an expired cache entry when the credit budget is exhausted.
+     */
+    private StateColumns fetchStates(String query, String subject) {
+        String hash = computeHash(query);
+        Optional<OpenSkyResponseCache.Lookup> cached = responseCache.get(hash);
+
+        // First, check if we have valid (non-expired) cache
+        if (cached.isPresent() && cached.get().fresh()) {
+            log.debug("Using valid cached OpenSky data for {}", subject);
+            return cached.get().states();
+        }
+        // If cache is expired or missing, try to fetch from OpenSky API
+        try {
+            // The WebClient charges the call to the shared credit budget; identical
+            // in-flight enrichments share one call
+            log.debug("Fetching from OpenSky API. Credits remaining: {}", creditAccountant.remaining());
+            String response = requestCoalescer.execute(RequestCoalescer.key("opensky", query),
+                            () -> openSkyWebClient.get()
+                                    .uri(query)
+                                    .retrieve()
+                                    .bodyToMono(String.class))
+                    .block();
+            // Save to both cache tiers
+            StateColumns states = responseCache.put(hash, response, defaultTtl);
+            log.debug("Cached OpenSky response for {} (TTL: {})", subject, defaultTtl);
+            return states;
+        } catch (OpenSkyCreditAccountant.CreditBudgetExceededException e) {
+            log.warn("OpenSky credit budget exhausted. Credits remaining: {}", creditAccountant.remaining());
+
+            // Graceful degradation: use expired cache if available
+            if (cached.isPresent()) {
+                log.info("Using expired cache due to credit budget for {}", subject);
+                return cached.get().states();
+            }
+            // No cache available; the job is retried once credits are back
+            throw new EnrichmentUnavailableException(
+                    "OpenSky credit budget exhausted and no cached data for " + subject, e);
+        }
+    }
+
+    /**
+     * Writes the sighting's row of the response ({@code row}, or -1 when it has none), and its
+     * aircraft's metadata, to the sighting.
+     *
+     * @throws EnrichmentUnavailableException when there is neither a row nor metadata
+     */
+    private void applyState(StateColumns states, int row, Sighting sighting) {
+        String icao24 = row >= 0 ? states.icao24Hex(row) : sighting.getIcao24();
+        String callsign = row >= 0 && states.hasCallsign(row) ? states.callsign(row) : null;
+        AircraftMetadata metadata = aircraftService.getAircraftMetadata(icao24).blockOptional().orElse(null);
+        if (row < 0 && metadata == null) {
+            // Nothing to write: leave the sighting ENRICHING so the job is retried, then dead-lettered
+            throw new EnrichmentUnavailableException(
+                    "No state vector or metadata found for sighting " + sighting.getId());
+        }
+
+        int updated = sightingRepository.completeEnrichment(sighting.getId(),
+                metadata != null ? metadata.getRegistration() : null,
+                metadata != null ? modelName(metadata) : null,
+                metadata != null ? metadata.getOperator() : null,
+                callsign,
+                LocalDateTime.now());
+        if (updated == 0) {
+            log.debug("Sighting {} is no longer being enriched; result discarded", sighting.getId());
+        } else {
+            log.debug("Successfully enriched sighting {} (state found: {}, metadata found: {})",
+                    sighting.getId(), row >= 0, metadata != null);
+        }
+    }
+
+    /**
+     * Row of the sighting's aircraft in the response, matched by ICAO24 address or, when the
+     * sighting has none, by callsign. Returns -1 when there is no such row.
+     */
+    private int findState(StateColumns states, Sighting sighting) {
+        String icao24 = sighting.getIcao24();
+        String callsign = sighting.getCallsign();
+        for (int row = 0; row < states.size(); row++) {
+            if (icao24 != null && !icao24.isBlank()) {
+                if (states.icao24Hex(row).equalsIgnoreCase(icao24.trim())) return row;
+            } else if (callsign != null && states.hasCallsign(row)
+                    && states.callsign(row).equalsIgnoreCase(callsign.trim())) {
+                return row;
             }
+        }
+        return -1;
+    }
 
-            // TODO: parse response JSON and set registration/aircraftModel etc.
-            // For this MVP we simply mark the sighting as enriched.
-            log.info("OpenSky response for sighting {}: {}", sighting.getId(), 
-                    response != null && response.length() > 100 ? response.substring(0, 100) + "..." : response);
-            sighting.setEnrichmentStatus(EnrichmentStatus.ENRICHED);
-            sightingRepository.save(sighting);
-            log.debug("Successfully enriched sighting {}", sighting.getId());
-        } catch (Exception ex) {
-            log.error("Failed to enrich sighting {}", sighting.getId(), ex);
-            sighting.setEnrichmentStatus(EnrichmentStatus.FAILED);
-            sightingRepository.save(sighting);
+    /**
+     * Manufacturer and model, e.g. "Airbus A320 214", unless the model already names the
+     * manufacturer.
+     */
+    private static String modelName(AircraftMetadata metadata) {
+        String model = metadata.getModel();
+        String manufacturer = metadata.getManufacturer();
+        if (model == null || model.isBlank()) return null;
+        if (manufacturer == null || manufacturer.isBlank()
+                || model.toLowerCase().startsWith(manufacturer.toLowerCase())) {
+            return model;
         }
+        return manufacturer + " " + model;
     }
 
     /**
@@ -123,8 +217,7 @@ public class OpenSkyService {
     private String buildQueryForSighting(Sighting sighting) {
         // Example endpoint: /states/all?icao24=abc123&time=UNIX_EPOCH_SECONDS
         if (sighting.getIcao24() != null && !sighting.getIcao24().isBlank()) {
-            long epochSeconds = sighting.getTimestamp().toEpochSecond(java.time.ZoneOffset.UTC);
-            return "/states/all?icao24=" + sighting.getIcao24() + "&time=" + epochSeconds;
+            return "/states/all?icao24=" + sighting.getIcao24() + "&time=" + epochSeconds(sighting.getTimestamp());
         }
         if (sighting.getCallsign() != null && !sighting.getCallsign().isBlank()) {
             // There is no direct endpoint for callsign; this is placeholder for actual implementation.
@@ -134,6 +227,29 @@ public class OpenSkyService {
         return "/";
     }
 
+    /**
+     * Builds one OpenSky query for several sightings: every distinct ICAO24 address, sorted so
+     * the same batch always gives the same query (and cache entry), at the earliest sighting
+     * time.
+     */
+    private String buildQueryForBatch(List<Sighting> sightings) {
+        StringBuilder query = new StringBuilder("/states/all?");
+        sightings.stream()
+                .map(sighting -> sighting.getIcao24().trim().toLowerCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .forEach(icao24 -> query.append("icao24=").append(icao24).append('&'));
+        return query.append("time=").append(epochSeconds(earliest(sightings))).toString();
+    }
+
+    private static LocalDateTime earliest(List<Sighting> sightings) {
+        return sightings.stream().map(Sighting::getTimestamp).min(LocalDateTime::compareTo).orElseThrow();
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(java.time.ZoneOffset.UTC);
+    }
+
     /**
      * Computes a simple MD5 hash of the query string for caching.
      */
@@ -150,4 +266,21 @@ public class OpenSkyService {
             throw new IllegalStateException("MD5 algorithm not available", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Thrown when a sighting cannot be enriched for now, e.g. because the credit budget is
+     * exhausted and nothing is cached, or neither a state vector nor metadata was found.
+     */
+    public static class EnrichmentUnavailableException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public EnrichmentUnavailableException(String message) {
+            super(message);
+        }
+
+        public EnrichmentUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.flightspotterlogbook.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical outbound OpenSky requests.
+ *
+ * <p>Callers that ask for the same key while a call is in flight attach to that call and all
+ * receive its result (or error), so a burst of users searching the same airport costs one
+ * upstream request. The entry is removed as soon as the call produces its result, so later
+ * callers always trigger a fresh call; nothing is cached beyond the life of the request.</p>
+ *
+ * <p>Counts are published as {@code opensky.coalescer.requests} tagged
+ * {@code outcome=executed|coalesced}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RequestCoalescer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("opensky.coalescer.in-flight", inFlight, Map::size)
+                .description("Distinct outbound OpenSky requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call for the given key, or attaches to the call already in flight for it. The
+     * call is assembled and subscribed at most once per flight.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return start(k, call);
+            });
+            meterRegistry.counter("opensky.coalescer.requests", "outcome", started.get() ? "executed" : "coalesced")
+                    .increment();
+            if (!started.get()) log.debug("Coalesced request {}", key);
+            return (Mono<T>) shared;
+        });
+    }
+
+    private <T> Mono<T> start(String key, Supplier<Mono<T>> call) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> shared = call.get()
+                // Retire the entry before the result reaches any caller, so a caller that reacts to
+                // the result with a new request never attaches to this finished flight
+                .doOnEach(signal -> {
+                    if (!signal.isOnSubscribe()) inFlight.remove(key, self.get());
+                })
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .cache();
+        self.set(shared);
+        return shared;
+    }
+
+    /**
+     * Normalised key for a request: the client name, the path and the query parameters in
+     * sorted order, so that parameter order does not defeat coalescing.
+     */
+    public static String key(String client, String url) {
+        int q = url.indexOf('?');
+        if (q < 0) return client + " " + url;
+        String[] params = url.substring(q + 1).split("&");
+        Arrays.sort(params);
+        return client + " " + url.substring(0, q) + "?" + String.join("&", params);
+    }
+}
@@ -21,11 +21,11 @@ import java.time.LocalDateTime;
 public class SightingService {
 
     private final SightingRepository sightingRepository;
-    private final OpenSkyService openSkyService;
+    private final EnrichmentJobQueue enrichmentJobQueue;
 
     /**
      * Creates a new sighting for the given user. The sighting is persisted and an enrichment
-     * job is started asynchronously.
+     * job queued in the same transaction, so a saved sighting is always enriched eventually.
      *
      * @param sighting the sighting to persist
      * @param userId the ID of the authenticated user
@@ -38,7 +38,7 @@ public class SightingService {
         sighting.setCreatedAt(LocalDateTime.now());
         sighting.setUpdatedAt(sighting.getCreatedAt());
         Sighting saved = sightingRepository.save(sighting);
-        openSkyService.enrichAsync(saved);
+        enrichmentJobQueue.enqueue(saved.getId());
         return saved;
     }
 
@@ -94,7 +94,7 @@ public class SightingService {
         existing.setEnrichmentStatus(EnrichmentStatus.ENRICHING);
         existing.setUpdatedAt(LocalDateTime.now());
         sightingRepository.save(existing);
-        openSkyService.enrichAsync(existing);
+        enrichmentJobQueue.enqueue(existing.getId());
     }
 
     /**
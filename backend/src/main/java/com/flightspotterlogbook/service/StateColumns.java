@@ -0,0 +1,345 @@
+package com.flightspotterlogbook.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar store of OpenSky state vectors: one primitive array per field, indexed by row.
+ *
+ * <p>ICAO24 addresses are kept as 24-bit ints, positions and kinematics as {@code float}s
+ * ({@code NaN} when unknown) and the position time ({@code time_position}) as epoch seconds ({@code 0} when
+ * unknown). Callsigns (trimmed) and origin countries are dictionary-coded, so each distinct
+ * value is stored once and a row holds only an {@code int} code ({@code -1} when absent).
+ * Compared with one object per state and boxed fields this takes a fraction of the heap, and
+ * filters scan contiguous arrays.</p>
+ *
+ * <p>Instances are filled by {@link StateVectorParser} (or by copying rows from another
+ * instance) and then published; they are not modified after publication. DTOs are built only
+ * for the rows that are actually returned.</p>
+ */
+public final class StateColumns {
+
+    /**
+     * Row predicate evaluated directly against the columns.
+     */
+    @FunctionalInterface
+    public interface RowFilter {
+
+        RowFilter ALL = (columns, row) -> true;
+
+        boolean test(StateColumns columns, int row);
+
+        default RowFilter and(RowFilter other) {
+            return (columns, row) -> test(columns, row) && other.test(columns, row);
+        }
+    }
+
+    static final int NO_CODE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Remembered outcome of matching a dictionary entry against a query
+    private static final byte UNKNOWN = 0;
+    private static final byte MISS = 1;
+    private static final byte HIT = 2;
+
+    private int size;
+    private int[] icao24;
+    private int[] callsign;
+    private int[] originCountry;
+    private long[] timePosition;
+    private float[] longitude;
+    private float[] latitude;
+    private float[] altitude;
+    private float[] velocity;
+    private float[] track;
+    private boolean[] onGround;
+
+    private final Dictionary callsigns = new Dictionary();
+    private final Dictionary countries = new Dictionary();
+
+    public StateColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public StateColumns(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Appends a row and returns its index.
+     */
+    int add(int icao24, String callsign, String originCountry, long timePosition,
+            float longitude, float latitude, float altitude, boolean onGround, float velocity, float track) {
+        if (size == this.icao24.length) {
+            grow(Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        int row = size++;
+        this.icao24[row] = icao24;
+        this.callsign[row] = callsigns.code(callsign == null ? null : callsign.trim());
+        this.originCountry[row] = countries.code(originCountry);
+        this.timePosition[row] = timePosition;
+        this.longitude[row] = longitude;
+        this.latitude[row] = latitude;
+        this.altitude[row] = altitude;
+        this.onGround[row] = onGround;
+        this.velocity[row] = velocity;
+        this.track[row] = track;
+        return row;
+    }
+
+    /**
+     * Copies one row of another instance onto the end of this one.
+     */
+    int append(StateColumns source, int row) {
+        return add(source.icao24[row], source.callsign(row), source.originCountry(row), source.timePosition[row],
+                source.longitude[row], source.latitude[row], source.altitude[row], source.onGround[row],
+                source.velocity[row], source.track[row]);
+    }
+
+    /**
+     * Drops the last row (used by the parser when a row fails the filter). Dictionary entries
+     * it introduced are kept; they are harmless and usually reused by later rows.
+     */
+    void removeLast() {
+        if (size > 0) size--;
+    }
+
+    /**
+     * Shrinks the arrays to the number of rows and releases the build-time dictionary maps.
+     * Returns {@code this} for chaining.
+     */
+    StateColumns compact() {
+        if (icao24.length != size) {
+            grow(size);
+        }
+        callsigns.freeze();
+        countries.freeze();
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int icao24(int row) {
+        return icao24[row];
+    }
+
+    /**
+     * ICAO24 address as six lowercase hex digits.
+     */
+    public String icao24Hex(int row) {
+        return toHex(icao24[row]);
+    }
+
+    public String callsign(int row) {
+        return callsigns.value(callsign[row]);
+    }
+
+    public boolean hasCallsign(int row) {
+        return callsign[row] != NO_CODE;
+    }
+
+    public String originCountry(int row) {
+        return countries.value(originCountry[row]);
+    }
+
+    public long timePosition(int row) {
+        return timePosition[row];
+    }
+
+    public float longitude(int row) {
+        return longitude[row];
+    }
+
+    public float latitude(int row) {
+        return latitude[row];
+    }
+
+    public boolean hasPosition(int row) {
+        return !Float.isNaN(latitude[row]) && !Float.isNaN(longitude[row]);
+    }
+
+    public float altitude(int row) {
+        return altitude[row];
+    }
+
+    public boolean onGround(int row) {
+        return onGround[row];
+    }
+
+    public float velocity(int row) {
+        return velocity[row];
+    }
+
+    public float track(int row) {
+        return track[row];
+    }
+
+    /**
+     * Whether the row has a position inside the given box (inclusive).
+     */
+    public boolean isWithin(int row, double lamin, double lomin, double lamax, double lomax) {
+        float lat = latitude[row];
+        float lon = longitude[row];
+        // Compare at float precision so a value on an edge stays inside (38.1f < 38.1d).
+        // NaN compares false, so rows without a position are excluded.
+        return lat >= (float) lamin && lat <= (float) lamax && lon >= (float) lomin && lon <= (float) lomax;
+    }
+
+    /**
+     * Approximate heap retained by the columns and dictionaries, in bytes.
+     */
+    public long estimatedBytes() {
+        long perRow = 4L * 3 + 8 + 4L * 5 + 1;
+        return (long) icao24.length * perRow + callsigns.estimatedBytes() + countries.estimatedBytes();
+    }
+
+    /**
+     * Filter matching rows whose ICAO24, callsign or origin country contains the (lowercase)
+     * query; a blank query matches everything. Dictionary entries are matched once each and
+     * the outcome remembered, so the per-row cost is an array lookup. The returned filter is
+     * stateful and must not be shared between threads.
+     */
+    public static RowFilter matching(String lowerQuery) {
+        if (lowerQuery == null || lowerQuery.isEmpty()) return RowFilter.ALL;
+        boolean hexQuery = lowerQuery.length() <= 6 && AircraftMetadataIndex.parseIcao24(lowerQuery) >= 0;
+        return new RowFilter() {
+            private StateColumns seen;
+            private byte[] callsignHits = new byte[0];
+            private byte[] countryHits = new byte[0];
+
+            @Override
+            public boolean test(StateColumns columns, int row) {
+                if (columns != seen) {
+                    seen = columns;
+                    callsignHits = new byte[0];
+                    countryHits = new byte[0];
+                }
+                callsignHits = hits(callsignHits, columns.callsigns, columns.callsign[row], lowerQuery);
+                if (columns.callsign[row] != NO_CODE && callsignHits[columns.callsign[row]] == HIT) return true;
+                countryHits = hits(countryHits, columns.countries, columns.originCountry[row], lowerQuery);
+                if (columns.originCountry[row] != NO_CODE && countryHits[columns.originCountry[row]] == HIT) return true;
+                return hexQuery && columns.icao24Hex(row).contains(lowerQuery);
+            }
+        };
+    }
+
+    /**
+     * Resolves (and remembers) whether dictionary entry {@code code} contains the query.
+     */
+    private static byte[] hits(byte[] cache, Dictionary dictionary, int code, String lowerQuery) {
+        if (code == NO_CODE) return cache;
+        if (code >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(code + 1, dictionary.size()));
+        }
+        if (cache[code] == UNKNOWN) {
+            cache[code] = containsIgnoreCase(dictionary.value(code), lowerQuery) ? HIT : MISS;
+        }
+        return cache;
+    }
+
+    private static boolean containsIgnoreCase(String value, String lowerQuery) {
+        int max = value.length() - lowerQuery.length();
+        for (int i = 0; i <= max; i++) {
+            if (value.regionMatches(true, i, lowerQuery, 0, lowerQuery.length())) return true;
+        }
+        return false;
+    }
+
+    static String toHex(int icao24) {
+        char[] digits = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            digits[i] = Character.forDigit(icao24 & 0xF, 16);
+            icao24 >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Converts a float column value for a DTO: {@code null} when unknown, otherwise the
+     * shortest decimal that round-trips the float (so 38.78f becomes 38.78, not 38.779998).
+     */
+    public static Double toDouble(float value) {
+        return Float.isNaN(value) ? null : Double.valueOf(Float.toString(value));
+    }
+
+    private void allocate(int capacity) {
+        icao24 = new int[capacity];
+        callsign = new int[capacity];
+        originCountry = new int[capacity];
+        timePosition = new long[capacity];
+        longitude = new float[capacity];
+        latitude = new float[capacity];
+        altitude = new float[capacity];
+        velocity = new float[capacity];
+        track = new float[capacity];
+        onGround = new boolean[capacity];
+    }
+
+    private void grow(int capacity) {
+        icao24 = Arrays.copyOf(icao24, capacity);
+        callsign = Arrays.copyOf(callsign, capacity);
+        originCountry = Arrays.copyOf(originCountry, capacity);
+        timePosition = Arrays.copyOf(timePosition, capacity);
+        longitude = Arrays.copyOf(longitude, capacity);
+        latitude = Arrays.copyOf(latitude, capacity);
+        altitude = Arrays.copyOf(altitude, capacity);
+        velocity = Arrays.copyOf(velocity, capacity);
+        track = Arrays.copyOf(track, capacity);
+        onGround = Arrays.copyOf(onGround, capacity);
+    }
+
+    /**
+     * Append-only string dictionary. The reverse map is only needed while rows are added.
+     */
+    private static final class Dictionary {
+
+        private String[] values = new String[8];
+        private int size;
+        private Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            if (value == null || value.isEmpty()) return NO_CODE;
+            if (codes == null) codes = rebuildCodes();
+            Integer code = codes.get(value);
+            if (code != null) return code;
+            if (size == values.length) values = Arrays.copyOf(values, Math.max(8, size * 2));
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+
+        String value(int code) {
+            return code == NO_CODE ? null : values[code];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void freeze() {
+            values = Arrays.copyOf(values, size);
+            codes = null;
+        }
+
+        long estimatedBytes() {
+            long bytes = 16L + 4L * values.length;
+            for (int i = 0; i < size; i++) {
+                bytes += 40 + values[i].length();
+            }
+            return bytes;
+        }
+
+        private Map<String, Integer> rebuildCodes() {
+            Map<String, Integer> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) map.put(values[i], i);
+            return map;
+        }
+    }
+}
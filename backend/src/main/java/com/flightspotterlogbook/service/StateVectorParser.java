@@ -0,0 +1,275 @@
+package com.flightspotterlogbook.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parses OpenSky {@code /states/all} responses into {@link StateColumns}.
+ *
+ * <p>Each state is a JSON array: {@code [icao24, callsign, origin_country, time_position,
+ * last_contact, longitude, latitude, baro_altitude, on_ground, velocity, true_track, ...]}.</p>
+ *
+ * <p>Parsing is done with Jackson's non-blocking token parser fed directly from the response
+ * {@link DataBuffer}s, so the body is never materialised as a {@code String} or a tree, and
+ * values are written straight into the columns without an intermediate object per row. Rows
+ * are filtered as they are read, and once the requested number of rows has been collected the
+ * rest of the body is not consumed.</p>
+ */
+@Component
+@Slf4j
+public class StateVectorParser {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Parses all state vectors in the response. Malformed responses yield empty columns.
+     */
+    public StateColumns parse(String response) {
+        if (response == null || response.isBlank()) return new StateColumns(0);
+        try {
+            StatesReader reader = new StatesReader(jsonFactory, StateColumns.RowFilter.ALL, Integer.MAX_VALUE);
+            reader.feed(ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8)));
+            return reader.finish();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error parsing aircraft response", e);
+            return new StateColumns(0);
+        }
+    }
+
+    /**
+     * Parses all state vectors in a gzip-compressed response, as stored in the
+     * {@code opensky_cache} table. The body is decompressed chunk by chunk into the parser, so
+     * it is never held uncompressed in full. Malformed responses yield empty columns.
+     */
+    public StateColumns parseGzip(byte[] responseGzip) {
+        if (responseGzip == null || responseGzip.length == 0) return new StateColumns(0);
+        // Buffers no larger than the response; enrichment responses are mostly a few hundred bytes
+        int inputSize = Math.min(CHUNK_SIZE, responseGzip.length);
+        int chunkSize = (int) Math.min(CHUNK_SIZE, Math.max(512, uncompressedSize(responseGzip)));
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(responseGzip), inputSize)) {
+            StatesReader reader = new StatesReader(jsonFactory, StateColumns.RowFilter.ALL, Integer.MAX_VALUE);
+            // The parser has consumed each chunk once it asks for more, so the buffer is reused
+            byte[] chunk = new byte[chunkSize];
+            int read;
+            while (!reader.isDone() && (read = body.read(chunk)) > 0) {
+                reader.feed(ByteBuffer.wrap(chunk, 0, read));
+            }
+            return reader.finish();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error parsing compressed aircraft response", e);
+            return new StateColumns(0);
+        }
+    }
+
+    /**
+     * Uncompressed size recorded in the gzip trailer (modulo 2^32), or 0 if there is none.
+     */
+    private static long uncompressedSize(byte[] gzip) {
+        int n = gzip.length;
+        if (n < 18) return 0;
+        return (gzip[n - 4] & 0xFFL) | (gzip[n - 3] & 0xFFL) << 8 | (gzip[n - 2] & 0xFFL) << 16 | (gzip[n - 1] & 0xFFL) << 24;
+    }
+
+    /**
+     * Parses a streamed response body, keeping at most {@code limit} rows that match the filter.
+     * The body subscription is cancelled as soon as the limit is reached; every consumed buffer
+     * is released.
+     */
+    public Mono<StateColumns> parse(Flux<DataBuffer> body, StateColumns.RowFilter filter, int limit) {
+        return Mono.defer(() -> {
+            StatesReader reader;
+            try {
+                reader = new StatesReader(jsonFactory, filter, limit);
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+            return body
+                    .doOnNext(buffer -> {
+                        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                            while (chunks.hasNext() && !reader.isDone()) {
+                                reader.feed(chunks.next());
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .takeUntil(buffer -> reader.isDone())
+                    .then(Mono.fromCallable(reader::finish));
+        });
+    }
+
+    /**
+     * Token-level state machine over one response. Only the {@code states} array is inspected;
+     * every other value is skipped without being built.
+     */
+    private static final class StatesReader {
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final StateColumns.RowFilter filter;
+        private final int limit;
+        private final StateColumns columns = new StateColumns(1024);
+        private final Row row = new Row();
+
+        private int depth;
+        private boolean statesFieldPending;
+        private boolean inStates;
+        private boolean inRow;
+        private int column;
+        private boolean done;
+
+        StatesReader(JsonFactory factory, StateColumns.RowFilter filter, int limit) throws IOException {
+            this.parser = factory.createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.filter = filter;
+            this.limit = limit;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        void feed(ByteBuffer chunk) throws IOException {
+            if (done) return;
+            feeder.feedInput(chunk);
+            drain();
+        }
+
+        StateColumns finish() throws IOException {
+            if (!done) {
+                feeder.endOfInput();
+                drain();
+            }
+            parser.close();
+            return columns.compact();
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    if (statesFieldPending && depth == 1 && token == JsonToken.START_ARRAY) {
+                        inStates = true;
+                    } else if (inStates && depth == 2 && token == JsonToken.START_ARRAY) {
+                        inRow = true;
+                        column = 0;
+                        row.clear();
+                    } else if (inRow && depth == 3) {
+                        column++; // nested value such as the sensors array
+                    }
+                    statesFieldPending = false;
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (inRow && depth == 2) {
+                        inRow = false;
+                        emitRow();
+                    } else if (inStates && depth == 1) {
+                        inStates = false;
+                        done = true;
+                    }
+                }
+                case FIELD_NAME -> statesFieldPending = depth == 1 && "states".equals(parser.currentName());
+                default -> {
+                    statesFieldPending = false;
+                    if (inRow && depth == 3) {
+                        row.set(column++, token, parser);
+                    }
+                }
+            }
+        }
+
+        private void emitRow() {
+            if (row.columns < 8 || row.icao24 < 0) return;
+            int index = row.appendTo(columns);
+            if (!filter.test(columns, index)) {
+                columns.removeLast();
+            } else if (columns.size() >= limit) {
+                done = true;
+            }
+        }
+    }
+
+    /**
+     * Mutable holder for the columns of the row currently being parsed.
+     */
+    private static final class Row {
+        int icao24;
+        String callsign;
+        String originCountry;
+        long timePosition;
+        float longitude;
+        float latitude;
+        float altitude;
+        boolean onGround;
+        float velocity;
+        float track;
+        int columns;
+
+        void clear() {
+            icao24 = -1;
+            callsign = originCountry = null;
+            timePosition = 0;
+            longitude = latitude = altitude = velocity = track = Float.NaN;
+            onGround = false;
+            columns = 0;
+        }
+
+        void set(int column, JsonToken token, JsonParser parser) throws IOException {
+            columns = column + 1;
+            boolean number = token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT;
+            switch (column) {
+                case 0 -> icao24 = token == JsonToken.VALUE_STRING
+                        ? AircraftMetadataIndex.parseIcao24(parser.getText()) : -1;
+                case 1 -> callsign = text(token, parser);
+                case 2 -> originCountry = text(token, parser);
+                case 3 -> timePosition = number ? parser.getLongValue() : 0;
+                case 5 -> longitude = number ? parser.getFloatValue() : Float.NaN;
+                case 6 -> latitude = number ? parser.getFloatValue() : Float.NaN;
+                case 7 -> altitude = number ? parser.getFloatValue() : Float.NaN;
+                case 8 -> onGround = token == JsonToken.VALUE_TRUE;
+                case 9 -> velocity = number ? parser.getFloatValue() : Float.NaN;
+                case 10 -> track = number ? parser.getFloatValue() : Float.NaN;
+                default -> {
+                    // remaining columns are not used
+                }
+            }
+        }
+
+        private static String text(JsonToken token, JsonParser parser) throws IOException {
+            return token == JsonToken.VALUE_NULL ? null : parser.getText();
+        }
+
+        int appendTo(StateColumns target) {
+            return target.add(icao24, callsign, originCountry, timePosition,
+                    longitude, latitude, altitude, onGround, velocity, track);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves cached OpenSky responses from the {@code response} TEXT column to gzip-compressed
+ * {@code response_gzip} BYTEA.
+ *
+ * <p>Compression needs Java, so this migration is not plain SQL. It runs outside Flyway's
+ * migration transaction: the new column is added (nullable) in a statement of its own, existing
+ * rows are converted in id order and committed {@link #BATCH_SIZE} at a time, and only the last
+ * transaction, which converts rows written meanwhile, sets the column NOT NULL and drops the
+ * TEXT column, takes the table lock for longer than an instant. Enrichment keeps writing to the
+ * cache during the conversion, and memory stays bounded however large the table has grown. A
+ * failed run can be repaired and repeated; it picks up the rows not converted yet. The gzip code
+ * is kept here rather than shared with the entity, so the migration keeps doing the same thing
+ * whatever the entity later becomes.</p>
+ */
+public class V5__compress_opensky_cache_responses extends BaseJavaMigration {
+
+    static final int BATCH_SIZE = 500;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE opensky_cache ADD COLUMN IF NOT EXISTS response_gzip BYTEA");
+            }
+            connection.setAutoCommit(false);
+            compressResponses(connection, BATCH_SIZE, true);
+
+            // Rows inserted since their batch passed, then the swap, in one transaction
+            compressResponses(connection, BATCH_SIZE, false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE opensky_cache ALTER COLUMN response_gzip SET NOT NULL");
+                statement.execute("ALTER TABLE opensky_cache DROP COLUMN response");
+            }
+            connection.commit();
+        } catch (Exception e) {
+            if (!connection.getAutoCommit()) connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Fills {@code response_gzip} from {@code response} for every row that has none yet, in
+     * batches, committing each batch when {@code commitEachBatch} is set.
+     *
+     * @return the number of rows converted
+     */
+    static int compressResponses(Connection connection, int batchSize, boolean commitEachBatch)
+            throws SQLException, IOException {
+        int converted = 0;
+        long lastId = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                     "SELECT id, response FROM opensky_cache WHERE id > ? AND response_gzip IS NULL ORDER BY id LIMIT ?");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE opensky_cache SET response_gzip = ? WHERE id = ?")) {
+            while (true) {
+                select.setLong(1, lastId);
+                select.setInt(2, batchSize);
+                int rows = 0;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        lastId = result.getLong(1);
+                        update.setBytes(1, gzip(result.getString(2)));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                if (rows == 0) return converted;
+                update.executeBatch();
+                if (commitEachBatch) connection.commit();
+                converted += rows;
+            }
+        }
+    }
+
+    private static byte[] gzip(String response) throws IOException {
+        byte[] json = response == null ? new byte[0] : response.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 8));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
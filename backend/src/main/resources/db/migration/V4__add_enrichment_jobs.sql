@@ -0,0 +1,20 @@
+-- Durable queue of sighting enrichment jobs, claimed by workers with FOR UPDATE SKIP LOCKED
+CREATE TABLE IF NOT EXISTS enrichment_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    sighting_id BIGINT NOT NULL REFERENCES sightings(id) ON DELETE CASCADE,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING','RUNNING','DEAD')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    run_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Workers only ever look for due pending jobs, or running jobs whose lease has run out
+CREATE INDEX IF NOT EXISTS idx_enrichment_jobs_pending ON enrichment_jobs (run_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_enrichment_jobs_running ON enrichment_jobs (run_at) WHERE status = 'RUNNING';
+CREATE INDEX IF NOT EXISTS idx_enrichment_jobs_sighting ON enrichment_jobs (sighting_id);
+
+-- Sightings left in ENRICHING by the previous in-memory executor get a job
+INSERT INTO enrichment_jobs (sighting_id)
+SELECT id FROM sightings WHERE enrichment_status = 'ENRICHING';
@@ -0,0 +1,155 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.service.AirportDataset;
+import com.flightspotterlogbook.service.AirportDatasetWriter;
+import com.flightspotterlogbook.service.AirportIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares bringing up airport search from a memory-mapped {@link AirportDataset} with naively
+ * loading the OurAirports CSV into a list of DTOs, each followed by the first search.
+ *
+ * <p>The CSV is generated with the column layout and type mix of the OurAirports dump so the
+ * benchmark runs offline. Each invocation is a cold start ({@code SingleShotTime}); add
+ * {@code -prof gc} when running JMH directly to compare what each approach allocates.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=AirportDatasetBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class AirportDatasetBenchmark {
+
+    private static final String HEADER = "\"id\",\"ident\",\"type\",\"name\",\"latitude_deg\",\"longitude_deg\","
+            + "\"elevation_ft\",\"continent\",\"iso_country\",\"iso_region\",\"municipality\",\"scheduled_service\","
+            + "\"gps_code\",\"iata_code\",\"local_code\",\"home_link\",\"wikipedia_link\",\"keywords\"";
+
+    @Param({"70000"})
+    public int airports;
+
+    private Path directory;
+    private Path csv;
+    private Path dataset;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("airports-benchmark");
+        csv = directory.resolve("airports.csv");
+        dataset = directory.resolve("airports.bin");
+        Files.writeString(csv, syntheticCsv(airports, new Random(42)));
+        List<AirportDTO> rows;
+        try (Reader reader = Files.newBufferedReader(csv)) {
+            rows = AirportDatasetWriter.readOurAirports(reader, Map.of());
+        }
+        Files.write(dataset, AirportDatasetWriter.write(rows));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(dataset);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Read every line, split it and keep one DTO per airport on the heap, then scan them.
+     */
+    @Benchmark
+    public List<AirportDTO> naiveCsvLoad() throws IOException {
+        List<AirportDTO> list = new ArrayList<>();
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] f = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+            if (f[4].isEmpty() || f[5].isEmpty()) continue;
+            list.add(AirportDTO.builder()
+                    .icao(unquote(f[1]))
+                    .iata(unquote(f[13]))
+                    .name(unquote(f[3]))
+                    .city(unquote(f[10]))
+                    .country(unquote(f[8]))
+                    .latitude(Double.parseDouble(f[4]))
+                    .longitude(Double.parseDouble(f[5]))
+                    .build());
+        }
+        return list.stream()
+                .filter(a -> a.getName().toLowerCase().contains("lon") || a.getCity().toLowerCase().contains("lon"))
+                .limit(20)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Map the compiled dataset and search it in place.
+     */
+    @Benchmark
+    public List<AirportDTO> mappedDataset() throws IOException {
+        return new AirportIndex(AirportDataset.map(dataset)).search("lon", 20);
+    }
+
+    static String syntheticCsv(int airports, Random random) {
+        String[] types = {"large_airport", "medium_airport", "small_airport", "small_airport", "small_airport",
+                "heliport", "heliport", "closed", "seaplane_base"};
+        String[] syllables = {"ka", "ro", "vi", "len", "sta", "mer", "do", "bur", "na", "tel", "gor", "shi", "lon"};
+        String[] countries = {"US", "BR", "DE", "FR", "GB", "PT", "ES", "IT", "CA", "AU"};
+        StringBuilder sb = new StringBuilder(airports * 160).append(HEADER).append('\n');
+        for (int i = 0; i < airports; i++) {
+            String type = types[random.nextInt(types.length)];
+            String city = word(syllables, random);
+            String ident = String.format(Locale.ROOT, "%c%03X", (char) ('A' + random.nextInt(26)), i % 4096)
+                    + (i >= 4096 ? Integer.toString(i / 4096) : "");
+            boolean scheduled = type.equals("large_airport") || type.equals("medium_airport");
+            sb.append(i).append(",\"").append(ident).append("\",\"").append(type).append("\",\"")
+                    .append(Character.toUpperCase(city.charAt(0))).append(city.substring(1)).append(' ')
+                    .append(type.equals("heliport") ? "Heliport" : "Airport").append("\",")
+                    .append(String.format(Locale.ROOT, "%.6f", -60 + random.nextDouble() * 130)).append(',')
+                    .append(String.format(Locale.ROOT, "%.6f", -180 + random.nextDouble() * 360)).append(',')
+                    .append(random.nextInt(3000)).append(",\"EU\",\"")
+                    .append(countries[random.nextInt(countries.length)]).append("\",\"XX-01\",\"")
+                    .append(Character.toUpperCase(city.charAt(0))).append(city.substring(1)).append("\",\"")
+                    .append(scheduled ? "yes" : "no").append("\",\"").append(ident).append("\",")
+                    .append(scheduled ? "\"" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                            + (char) ('A' + random.nextInt(26)) + "\"" : "")
+                    .append(",,,,\n");
+        }
+        return sb.toString();
+    }
+
+    private static String word(String[] syllables, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 2 + random.nextInt(2); s > 0; s--) {
+            sb.append(syllables[random.nextInt(syllables.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String unquote(String field) {
+        return field.length() >= 2 && field.startsWith("\"") ? field.substring(1, field.length() - 1) : field;
+    }
+}
@@ -0,0 +1,119 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.service.AirportDataset;
+import com.flightspotterlogbook.service.AirportDatasetWriter;
+import com.flightspotterlogbook.service.AirportIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares fuzzy airport search through the trigram index with a scan that folds accents and
+ * computes the edit distance to every word of every name and city, on a synthetic worldwide
+ * dataset the size of OurAirports.
+ *
+ * <p>Queries are misspelt names or cities of the generated airports; "airprt" matches every
+ * airport and is the worst case for the index.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=AirportFuzzySearchBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AirportFuzzySearchBenchmark {
+
+    private static final int MAX_RESULTS = 20;
+
+    @Param({"70000"})
+    public int airports;
+
+    @Param({"kavilem", "stamerdo airprt", "airprt"})
+    public String query;
+
+    private AirportIndex index;
+    private List<AirportDTO> all;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<AirportDTO> rows = AirportDatasetWriter.readOurAirports(
+                new StringReader(AirportDatasetBenchmark.syntheticCsv(airports, new Random(42))), Map.of());
+        AirportDataset dataset = AirportDataset.of(rows);
+        index = new AirportIndex(dataset, true);
+        all = IntStream.range(0, dataset.size()).mapToObj(dataset::airport).toList();
+    }
+
+    @Benchmark
+    public List<AirportDTO> trigramIndex() {
+        return index.search(query, MAX_RESULTS, true);
+    }
+
+    /**
+     * Fold and split every name and city, and keep the airports with the smallest total edit
+     * distance from the query words to their nearest words.
+     */
+    @Benchmark
+    public List<AirportDTO> levenshteinScan() {
+        String[] queryWords = fold(query).split(" ");
+        return all.stream()
+                .map(airport -> {
+                    String[] words = (fold(airport.getName()) + " " + fold(airport.getCity())).split("[^\\p{L}\\p{N}]+");
+                    int total = 0;
+                    for (String queryWord : queryWords) {
+                        int nearest = Integer.MAX_VALUE;
+                        for (String word : words) nearest = Math.min(nearest, levenshtein(queryWord, word));
+                        total += nearest;
+                    }
+                    return Map.entry(airport, total);
+                })
+                .filter(e -> e.getValue() <= 2 * queryWords.length)
+                .sorted(Comparator.comparingInt(Map.Entry::getValue))
+                .limit(MAX_RESULTS)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static String fold(String text) {
+        return Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
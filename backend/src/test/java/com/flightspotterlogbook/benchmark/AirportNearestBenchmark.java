@@ -0,0 +1,123 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.service.AirportDatasetWriter;
+import com.flightspotterlogbook.service.AirportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code AirportService.getNearestAirports} (k-d tree) with a full haversine scan over
+ * every airport, on a synthetic worldwide dataset the size of OurAirports.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=AirportNearestBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AirportNearestBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"70000"})
+    public int airports;
+
+    @Param({"5"})
+    public int k;
+
+    private Path dataset;
+    private AirportService airportService;
+    private List<AirportDTO> all;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<AirportDTO> rows = AirportDatasetWriter.readOurAirports(
+                new StringReader(AirportDatasetBenchmark.syntheticCsv(airports, random)), Map.of());
+        dataset = Files.createTempFile("airports", ".bin");
+        Files.write(dataset, AirportDatasetWriter.write(rows));
+
+        airportService = new AirportService(new ObjectMapper());
+        ReflectionTestUtils.setField(airportService, "datasetResource", new FileSystemResource(dataset));
+        airportService.init();
+        all = airportService.getAllAirports();
+
+        latitudes = new double[QUERIES];
+        longitudes = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            latitudes[i] = -60 + random.nextDouble() * 130;
+            longitudes[i] = -180 + random.nextDouble() * 360;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataset);
+    }
+
+    @Benchmark
+    public List<AirportDTO> kdTree() {
+        int q = next++ & (QUERIES - 1);
+        return airportService.getNearestAirports(latitudes[q], longitudes[q], k);
+    }
+
+    /**
+     * Haversine distance to every airport, then the {@code k} smallest.
+     */
+    @Benchmark
+    public List<AirportDTO> fullScan() {
+        int q = next++ & (QUERIES - 1);
+        double lat = latitudes[q];
+        double lon = longitudes[q];
+        List<double[]> distances = new ArrayList<>(all.size());
+        for (int i = 0; i < all.size(); i++) {
+            AirportDTO airport = all.get(i);
+            distances.add(new double[]{haversineKm(lat, lon, airport.getLatitude(), airport.getLongitude()), i});
+        }
+        distances.sort(Comparator.comparingDouble(d -> d[0]));
+        List<AirportDTO> result = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            result.add(all.get((int) distances.get(i)[1]));
+        }
+        return result;
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
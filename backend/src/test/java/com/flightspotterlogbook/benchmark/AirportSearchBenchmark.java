@@ -0,0 +1,114 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.service.AirportDataset;
+import com.flightspotterlogbook.service.AirportIndex;
+import com.flightspotterlogbook.service.AirportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the {@link AirportIndex} behind {@code AirportService.searchAirports} with the
+ * previous stream scan, which lower-cased five fields of every airport on every keystroke.
+ *
+ * <p>The bundled European list is padded with generated airports up to {@code airports}, to see
+ * how both approaches scale towards a worldwide list. Queries cover an exact code, a common
+ * prefix, a rare prefix and a substring-only match.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=AirportSearchBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AirportSearchBenchmark {
+
+    private static final int MAX_RESULTS = 20;
+
+    @Param({"130", "10000"})
+    public int airports;
+
+    @Param({"lis", "lon", "heath", "athro"})
+    public String query;
+
+    private List<AirportDTO> list;
+    private AirportIndex index;
+
+    @Setup
+    public void setUp() {
+        AirportService service = new AirportService(new ObjectMapper());
+        service.init();
+        list = new ArrayList<>(service.getAllAirports());
+        Random random = new Random(42);
+        while (list.size() < airports) {
+            list.add(syntheticAirport(list.size(), random));
+        }
+        index = new AirportIndex(AirportDataset.of(list));
+    }
+
+    /**
+     * The original implementation: lower-case every field of every airport and keep the first
+     * 20 matches in list order.
+     */
+    @Benchmark
+    public List<AirportDTO> streamScan() {
+        String lowerQuery = query.toLowerCase().trim();
+        return list.stream()
+                .filter(a ->
+                        a.getIcao().toLowerCase().contains(lowerQuery) ||
+                        a.getIata().toLowerCase().contains(lowerQuery) ||
+                        a.getName().toLowerCase().contains(lowerQuery) ||
+                        a.getCity().toLowerCase().contains(lowerQuery) ||
+                        a.getCountry().toLowerCase().contains(lowerQuery))
+                .limit(MAX_RESULTS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ranked lookup in the prebuilt index.
+     */
+    @Benchmark
+    public List<AirportDTO> indexedSearch() {
+        return index.search(query, MAX_RESULTS);
+    }
+
+    private static AirportDTO syntheticAirport(int i, Random random) {
+        String[] syllables = {"ka", "ro", "vi", "len", "sta", "mer", "do", "bur", "na", "tel", "gor", "shi"};
+        String city = word(syllables, random) + " " + word(syllables, random);
+        return AirportDTO.builder()
+                .icao(String.format("X%03X", i % 4096))
+                .iata(String.format("%03d", i % 1000))
+                .name(Character.toUpperCase(city.charAt(0)) + city.substring(1) + " Regional Airport")
+                .city(city)
+                .country(word(syllables, random))
+                .latitude(34 + random.nextDouble() * 37)
+                .longitude(-25 + random.nextDouble() * 70)
+                .build();
+    }
+
+    private static String word(String[] syllables, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 2 + random.nextInt(2); s > 0; s--) {
+            sb.append(syllables[random.nextInt(syllables.length)]);
+        }
+        return sb.toString();
+    }
+}
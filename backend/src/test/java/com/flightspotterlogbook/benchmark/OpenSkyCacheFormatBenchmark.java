@@ -0,0 +1,80 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import com.flightspotterlogbook.service.StateColumns;
+import com.flightspotterlogbook.service.StateVectorParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two {@code opensky_cache} storage formats on a database read: the previous TEXT
+ * column, which the driver hands over as a {@code String} to parse, and the gzip-compressed
+ * BYTEA column, decompressed chunk by chunk into the parser.
+ *
+ * <p>Sizes are those of an enrichment response for one aircraft, a batch of 25 and a
+ * Europe-sized response, generated as in {@link StateVectorParserBenchmark}. The bytes stored
+ * per row, which are also the I/O per lookup, are the lengths of {@code text} and
+ * {@code gzip}.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=OpenSkyCacheFormatBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenSkyCacheFormatBenchmark {
+
+    @Param({"1", "25", "6000"})
+    public int aircraft;
+
+    private final StateVectorParser parser = new StateVectorParser();
+
+    private byte[] text;
+    private byte[] gzip;
+
+    @Setup
+    public void setUp() {
+        String response = StateVectorParserBenchmark.syntheticResponse(aircraft, new Random(42));
+        text = response.getBytes(StandardCharsets.UTF_8);
+        gzip = OpenSkyCache.compress(response);
+    }
+
+    /**
+     * The previous format: the TEXT value decoded to a String, then parsed.
+     */
+    @Benchmark
+    public StateColumns textColumn() {
+        return parser.parse(new String(text, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The gzip-compressed BYTEA value, streamed through the parser.
+     */
+    @Benchmark
+    public StateColumns gzipColumn() {
+        return parser.parseGzip(gzip);
+    }
+
+    /**
+     * Cost of compressing a fresh response before it is written.
+     */
+    @Benchmark
+    public byte[] compressOnWrite() {
+        return OpenSkyCache.compress(new String(text, StandardCharsets.UTF_8));
+    }
+}
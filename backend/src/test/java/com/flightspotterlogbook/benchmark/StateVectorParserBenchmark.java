@@ -0,0 +1,157 @@
+package com.flightspotterlogbook.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightspotterlogbook.service.StateColumns;
+import com.flightspotterlogbook.service.StateVectorParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link StateVectorParser} with the previous tree-based parse
+ * ({@code bodyToMono(String)} followed by {@code ObjectMapper.readTree}) on a Europe-sized
+ * {@code /states/all} response.
+ *
+ * <p>The response is generated with the same shape and value mix as a recorded OpenSky payload
+ * (null callsigns and positions, sensor arrays, trailing columns) so the benchmark runs offline.
+ * The body is split into 8 KB buffers, roughly what the Netty client hands over.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test -DskipTests -Dbenchmark=StateVectorParserBenchmark}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateVectorParserBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"6000"})
+    public int aircraft;
+
+    private final StateVectorParser parser = new StateVectorParser();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = syntheticResponse(aircraft, new Random(42)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The original implementation: aggregate the body into a String, build a tree, and walk it
+     * into one object per state with boxed fields.
+     */
+    @Benchmark
+    public List<LegacyState> treeParseFullBody() throws Exception {
+        String body = new String(response, StandardCharsets.UTF_8);
+        List<LegacyState> result = new ArrayList<>();
+        JsonNode states = objectMapper.readTree(body).get("states");
+        for (JsonNode state : states) {
+            if (!state.isArray() || state.size() < 8) continue;
+            result.add(new LegacyState(
+                    state.get(0).isNull() ? null : state.get(0).asText(),
+                    state.get(1).isNull() ? null : state.get(1).asText(),
+                    state.get(2).asText(),
+                    state.get(4).isNumber() ? state.get(4).asLong() : null,
+                    state.get(5).isNumber() ? state.get(5).asDouble() : null,
+                    state.get(6).isNumber() ? state.get(6).asDouble() : null,
+                    state.get(7).isNumber() ? state.get(7).asDouble() : null,
+                    state.path(8).asBoolean(false),
+                    state.get(9).isNumber() ? state.get(9).asDouble() : null,
+                    state.get(10).isNumber() ? state.get(10).asDouble() : null));
+        }
+        return result.size() > 50 ? result.subList(0, 50) : result;
+    }
+
+    /**
+     * Streaming parse of the whole body into columns (e.g. the live poller).
+     */
+    @Benchmark
+    public StateColumns streamingFullBody() {
+        return parser.parse(chunks(), StateColumns.RowFilter.ALL, Integer.MAX_VALUE).block();
+    }
+
+    /**
+     * Streaming parse that stops after the first 50 positioned aircraft (the Europe search).
+     */
+    @Benchmark
+    public StateColumns streamingFirst50() {
+        return parser.parse(chunks(), (columns, row) -> columns.hasPosition(row), 50).block();
+    }
+
+    /**
+     * One object per state, as the parser produced before the columnar layout.
+     */
+    public record LegacyState(String icao24, String callsign, String originCountry, Long lastContact,
+                              Double longitude, Double latitude, Double baroAltitude, boolean onGround,
+                              Double velocity, Double trueTrack) {
+    }
+
+    private Flux<DataBuffer> chunks() {
+        return Flux.range(0, (response.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .map(i -> {
+                    int from = i * CHUNK_SIZE;
+                    int length = Math.min(CHUNK_SIZE, response.length - from);
+                    DataBuffer buffer = bufferFactory.allocateBuffer(length);
+                    buffer.write(response, from, length);
+                    return buffer;
+                });
+    }
+
+    static String syntheticResponse(int aircraft, Random random) {
+        String[] countries = {"Portugal", "Spain", "France", "Germany", "United Kingdom", "Ireland",
+                "Italy", "Netherlands", "Switzerland", "Türkiye"};
+        StringBuilder sb = new StringBuilder(aircraft * 180);
+        sb.append("{\"time\":1700000000,\"states\":[");
+        for (int i = 0; i < aircraft; i++) {
+            if (i > 0) sb.append(',');
+            boolean positioned = random.nextInt(20) != 0;
+            sb.append('[')
+                    .append('"').append(String.format(Locale.ROOT, "%06x", 0x400000 + i)).append("\",")
+                    .append(random.nextInt(10) == 0 ? "null" :
+                            String.format(Locale.ROOT, "\"TAP%-5d\"", random.nextInt(10000))).append(',')
+                    .append('"').append(countries[random.nextInt(countries.length)]).append("\",")
+                    .append(1700000000 - random.nextInt(30)).append(',')
+                    .append(1700000000 - random.nextInt(5)).append(',')
+                    .append(positioned ? String.format(Locale.ROOT, "%.4f", -25 + random.nextDouble() * 70) : "null")
+                    .append(',')
+                    .append(positioned ? String.format(Locale.ROOT, "%.4f", 34 + random.nextDouble() * 37) : "null")
+                    .append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 12000)).append(',')
+                    .append(random.nextInt(8) == 0).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 260)).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 360)).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 20 - 10)).append(',')
+                    .append(random.nextInt(50) == 0 ? "[1234,5678]" : "null").append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 12500)).append(',')
+                    .append(random.nextInt(5) == 0 ? "null" : "\"" + (1000 + random.nextInt(7000)) + "\"").append(',')
+                    .append("false,0]");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+}
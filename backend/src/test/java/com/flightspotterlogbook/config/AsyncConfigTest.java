@@ -0,0 +1,111 @@
+package com.flightspotterlogbook.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AsyncConfig.
+ * Tests bounded queues, the rejection policies, thread naming and the rejection metric.
+ */
+class AsyncConfigTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncConfig config;
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(meterRegistry);
+        config = new AsyncConfig(provider);
+        ReflectionTestUtils.setField(config, "enrichmentWorkers", 1);
+        ReflectionTestUtils.setField(config, "enrichmentQueueCapacity", 1);
+        ReflectionTestUtils.setField(config, "asyncCoreSize", 1);
+        ReflectionTestUtils.setField(config, "asyncMaxSize", 1);
+        ReflectionTestUtils.setField(config, "asyncQueueCapacity", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) executor.shutdown();
+    }
+
+    @Test
+    void testEnrichmentExecutor_QueueFull_RejectsAndCounts() {
+        // Arrange
+        executor = config.enrichmentExecutor();
+        executor.initialize();
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        // Act & Assert
+        assertThrows(TaskRejectedException.class, () -> executor.execute(this::block));
+        assertEquals(1.0, meterRegistry.get("executor.rejected").tag("name", "enrichmentExecutor").counter().count());
+    }
+
+    @Test
+    void testAsyncExecutor_QueueFull_RunsOnCaller() {
+        // Arrange
+        executor = config.asyncExecutor();
+        executor.initialize();
+        executor.execute(this::block);
+        executor.execute(this::block);
+        AtomicReference<String> thread = new AtomicReference<>();
+
+        // Act
+        executor.execute(() -> thread.set(Thread.currentThread().getName()));
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), thread.get());
+        assertEquals(1.0, meterRegistry.get("executor.rejected").tag("name", "asyncExecutor").counter().count());
+    }
+
+    @Test
+    void testAsyncExecutor_NamesThreads() throws Exception {
+        // Arrange
+        executor = config.asyncExecutor();
+        executor.initialize();
+        AtomicReference<String> thread = new AtomicReference<>();
+
+        // Act
+        executor.submit(() -> thread.set(Thread.currentThread().getName())).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(thread.get().startsWith("async-"), thread.get());
+    }
+
+    @Test
+    void testVirtualThreadFactory_MatchesRuntime() {
+        // Act
+        var factory = AsyncConfig.virtualThreadFactory("test-vt-");
+
+        // Assert
+        assertEquals(Runtime.version().feature() >= 21, factory != null);
+    }
+
+    private void block() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
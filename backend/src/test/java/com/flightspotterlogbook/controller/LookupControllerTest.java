@@ -0,0 +1,223 @@
+package com.flightspotterlogbook.controller;
+
+import com.flightspotterlogbook.dto.AircraftDTO;
+import com.flightspotterlogbook.dto.AircraftTrackDTO;
+import com.flightspotterlogbook.dto.AirportDTO;
+import com.flightspotterlogbook.dto.TrackPointDTO;
+import com.flightspotterlogbook.service.AircraftService;
+import com.flightspotterlogbook.service.AircraftTrackStore;
+import com.flightspotterlogbook.service.AirportService;
+import com.flightspotterlogbook.service.LiveTrafficStreamService;
+import com.flightspotterlogbook.service.LookupResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for LookupController.
+ * Tests that aircraft lookups are handled asynchronously.
+ */
+@WebMvcTest(LookupController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class LookupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AirportService airportService;
+
+    @MockBean
+    private AircraftService aircraftService;
+
+    @MockBean
+    private LiveTrafficStreamService liveTrafficStreamService;
+
+    @MockBean
+    private AircraftTrackStore aircraftTrackStore;
+
+    @Test
+    @WithAnonymousUser
+    void testSearchAircraft_NearAirport_ReturnsAsynchronously() throws Exception {
+        // Arrange - the lookup only completes after the handler has returned
+        AircraftDTO aircraft = AircraftDTO.builder().icao24("4951d0").callsign("TAP123").distanceKm(12.3).build();
+        when(aircraftService.searchAircraftNearAirport(eq(38.77), eq(-9.13), eq(80.0), any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(200)).map(tick -> LookupResult.fresh(List.of(aircraft))));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/lookup/aircraft")
+                        .param("lat", "38.77")
+                        .param("lon", "-9.13")
+                        .param("radiusKm", "80"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].icao24").value("4951d0"))
+                .andExpect(jsonPath("$[0].distanceKm").value(12.3))
+                .andExpect(header().doesNotExist("X-Data-Stale"));
+        verify(aircraftService, never()).searchAircraftOverEurope(anyString());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testSearchAircraft_StaleResult_MarkedWithHeaders() throws Exception {
+        // Arrange
+        AircraftDTO aircraft = AircraftDTO.builder().icao24("4951d0").callsign("TAP123").build();
+        when(aircraftService.searchAircraftOverEurope(""))
+                .thenReturn(Mono.just(new LookupResult<>(List.of(aircraft), true, 42)));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/lookup/aircraft"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Data-Stale", "true"))
+                .andExpect(header().string("Age", "42"))
+                .andExpect(jsonPath("$[0].icao24").value("4951d0"))
+                .andExpect(jsonPath("$[0].distanceKm").doesNotExist());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testSearchAircraft_InvalidRadius_Returns400() throws Exception {
+        // Arrange
+        when(aircraftService.searchAircraftNearAirport(anyDouble(), anyDouble(), anyDouble(), any()))
+                .thenThrow(new IllegalArgumentException("Radius must be between 0 and 250 km"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/lookup/aircraft")
+                        .param("lat", "38.77")
+                        .param("lon", "-9.13")
+                        .param("radiusKm", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testGetNearestAirports_ReturnsAirportsWithDistance() throws Exception {
+        // Arrange
+        AirportDTO lisbon = AirportDTO.builder().icao("LPPT").iata("LIS").name("Lisbon Portela Airport")
+                .latitude(38.7756).longitude(-9.1354).distanceKm(5.9).build();
+        when(airportService.getNearestAirports(38.72, -9.14, 1)).thenReturn(List.of(lisbon));
+
+        // Act & Assert - not mistaken for an airport code
+        mockMvc.perform(get("/api/lookup/airports/nearest")
+                        .param("lat", "38.72")
+                        .param("lon", "-9.14")
+                        .param("k", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].icao").value("LPPT"))
+                .andExpect(jsonPath("$[0].distanceKm").value(5.9));
+        verify(airportService, never()).getAirportByCode(anyString());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testGetNearestAirports_InvalidK_Returns400() throws Exception {
+        // Arrange
+        when(airportService.getNearestAirports(anyDouble(), anyDouble(), anyInt()))
+                .thenThrow(new IllegalArgumentException("k must be between 1 and 50"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/lookup/airports/nearest")
+                        .param("lat", "38.72")
+                        .param("lon", "-9.14")
+                        .param("k", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testGetAircraftByIcao24_NotAirborne_Returns404() throws Exception {
+        // Arrange
+        when(aircraftService.getAircraftByIcao24("4951d0")).thenReturn(Mono.empty());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/lookup/aircraft/4951d0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testGetAircraftTrack_ServedFromMemory() throws Exception {
+        // Arrange
+        when(aircraftTrackStore.track("4951d0")).thenReturn(AircraftTrackDTO.builder()
+                .icao24("4951d0")
+                .points(List.of(TrackPointDTO.builder().time(1700000000L).latitude(38.7).longitude(-9.1).build()))
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/lookup/aircraft/4951d0/track"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.points[0].latitude").value(38.7));
+        mockMvc.perform(get("/api/lookup/aircraft/3c6444/track"))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(aircraftService);
+    }
+
+    @Test
+    @WithAnonymousUser
+    void testGetAllAirports_PreparedBodyWithETag() throws Exception {
+        // Arrange
+        byte[] json = "[{\"icao\":\"LPPT\"}]".getBytes(StandardCharsets.UTF_8);
+        byte[] gzipped = {0x1f, (byte) 0x8b, 1, 2, 3};
+        when(airportService.getAllAirportsPayload()).thenReturn(new AirportService.AirportsPayload(json, gzipped, "abc123"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/lookup/airports/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(header().string("Cache-Control", "max-age=86400, public"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].icao").value("LPPT"));
+        mockMvc.perform(get("/api/lookup/airports/all").header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123-gzip\""))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().bytes(gzipped));
+        mockMvc.perform(get("/api/lookup/airports/all").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        // Act & Assert
+        assertTrue(LookupController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(LookupController.acceptsGzip("*"));
+        assertFalse(LookupController.acceptsGzip(""));
+        assertFalse(LookupController.acceptsGzip("br, gzip;q=0"));
+        assertFalse(LookupController.acceptsGzip("identity"));
+    }
+}
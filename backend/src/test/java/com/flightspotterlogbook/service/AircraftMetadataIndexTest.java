@@ -0,0 +1,93 @@
+package com.flightspotterlogbook.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AircraftMetadataIndex.
+ * Tests CSV import of both OpenSky dump layouts and primitive-keyed lookups.
+ */
+class AircraftMetadataIndexTest {
+
+    private AircraftMetadataIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AircraftMetadataIndex();
+    }
+
+    @Test
+    void testLoad_DoubleQuotedDump_LooksUpByIcao24() throws IOException {
+        // Arrange
+        String csv = "\"icao24\",\"registration\",\"manufacturericao\",\"manufacturername\",\"model\",\"operator\"\n" +
+                "\"4951d0\",\"CS-TUA\",\"AIRBUS\",\"Airbus\",\"A330-941\",\"TAP Air Portugal\"\n" +
+                "\"3c6444\",\"D-AIBD\",\"AIRBUS\",\"Airbus\",\"A319-112\",\"Lufthansa, German Airlines\"\n" +
+                "\"400a0b\",\"G-EUPJ\",\"AIRBUS\",\"Airbus\",\"A319 \"\"Heritage\"\"\",\"\"\n";
+
+        // Act
+        index.load(new StringReader(csv));
+
+        // Assert
+        assertEquals(3, index.size());
+        AircraftMetadata tap = index.lookup("4951D0");
+        assertNotNull(tap);
+        assertEquals("CS-TUA", tap.getRegistration());
+        assertEquals("Airbus", tap.getManufacturer());
+        assertEquals("A330-941", tap.getModel());
+        assertEquals("TAP Air Portugal", tap.getOperator());
+        assertEquals("Lufthansa, German Airlines", index.lookup("3c6444").getOperator());
+        assertEquals("A319 \"Heritage\"", index.lookup("400a0b").getModel());
+        assertNull(index.lookup("400a0b").getOperator());
+    }
+
+    @Test
+    void testLoad_SingleQuotedDump_ParsesMultilineFields() throws IOException {
+        // Arrange - newer dumps quote with single quotes and may contain line breaks in notes
+        String csv = "'icao24','registration','manufacturerName','model','operator','notes'\r\n" +
+                "'a835af','N628TS','Gulfstream','G650ER','','first line\nsecond line'\r\n" +
+                "'ab1234','N12345','Boeing','737-8','United Airlines',''\r\n";
+
+        // Act
+        index.load(new StringReader(csv));
+
+        // Assert
+        assertEquals(2, index.size());
+        assertEquals("N628TS", index.lookup("a835af").getRegistration());
+        assertEquals("United Airlines", index.lookup("ab1234").getOperator());
+    }
+
+    @Test
+    void testLookup_UnknownOrInvalidAddress_ReturnsNull() throws IOException {
+        // Arrange
+        index.load(new StringReader("icao24,registration\n4951d0,CS-TUA\n"));
+
+        // Act & Assert
+        assertNull(index.lookup("4951d1"));
+        assertNull(index.lookup("zzzzzz"));
+        assertNull(index.lookup(null));
+        assertNull(index.lookup("1234567"));
+    }
+
+    @Test
+    void testLoad_ManyRows_ResizesAndSharesDictionary() throws IOException {
+        // Arrange - more rows than the initial capacity
+        StringBuilder csv = new StringBuilder("icao24,registration,manufacturername,model,operator\n");
+        for (int i = 0; i < 100_000; i++) {
+            csv.append(String.format("%06x,REG%d,Airbus,A320,Operator %d%n", i, i, i % 100));
+        }
+
+        // Act
+        index.load(new StringReader(csv.toString()));
+
+        // Assert
+        assertEquals(100_000, index.size());
+        assertEquals("REG99999", index.lookup(String.format("%06x", 99_999)).getRegistration());
+        assertEquals("Operator 42", index.lookup(String.format("%06x", 142)).getOperator());
+        assertTrue(index.estimatedBytes() < 10L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,414 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import com.flightspotterlogbook.dto.AircraftDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AircraftService.
+ * Uses a stubbed WebClient exchange to simulate OpenSky latency without network access.
+ */
+class AircraftServiceTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger metadataCalls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AircraftMetadataIndex metadataIndex;
+    private LiveTrafficPoller liveTrafficPoller;
+    private AircraftTrackStore trackStore;
+    private LookupResultCache lookupCache;
+    private OpenSkyCircuitBreaker circuitBreaker;
+    private OpenSkyCreditAccountant creditAccountant;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metadataIndex = new AircraftMetadataIndex();
+        trackStore = new AircraftTrackStore(meterRegistry);
+        creditAccountant = new OpenSkyCreditAccountant(new RateLimitConfig().openSkyRateLimiter(400), meterRegistry);
+        lookupCache = new LookupResultCache(meterRegistry, creditAccountant);
+        circuitBreaker = new OpenSkyCircuitBreaker(meterRegistry);
+        liveTrafficPoller = new LiveTrafficPoller(null, new StateVectorParser(), trackStore, creditAccountant,
+                meterRegistry);
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_EnrichesConcurrentlyWithinBound() {
+        // Arrange - 20 aircraft, each metadata call takes 200ms
+        AircraftService service = createService(statesResponse(20), icao24 -> Duration.ofMillis(200));
+        ReflectionTestUtils.setField(service, "metadataConcurrency", 8);
+        ReflectionTestUtils.setField(service, "metadataDeadline", Duration.ofSeconds(5));
+
+        // Act
+        long start = System.nanoTime();
+        List<AircraftDTO> result = service.searchAircraftNearAirport(38.77, -9.13, 50, "").block().value();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - sequential enrichment would take ~4s
+        assertEquals(20, result.size());
+        assertTrue(result.stream().allMatch(a -> ("REG-" + a.getIcao24()).equals(a.getRegistration())));
+        assertEquals(20, metadataCalls.get());
+        assertTrue(maxInFlight.get() <= 8, "At most 8 metadata calls should be in flight");
+        assertTrue(elapsedMillis < 2000, "Enrichment took " + elapsedMillis + "ms");
+        assertEquals(1, meterRegistry.get("opensky.lookup").tag("operation", "near-airport").timer().count());
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_ReturnsPartialResultsAtDeadline() {
+        // Arrange - one aircraft has very slow metadata
+        AircraftService service = createService(statesResponse(3),
+                icao24 -> "a00001".equals(icao24) ? Duration.ofSeconds(4) : Duration.ofMillis(10));
+        ReflectionTestUtils.setField(service, "metadataDeadline", Duration.ofMillis(500));
+
+        // Act
+        long start = System.nanoTime();
+        List<AircraftDTO> result = service.searchAircraftNearAirport(38.77, -9.13, 50, null).block().value();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(3, result.size());
+        assertNull(result.get(1).getRegistration());
+        assertEquals("REG-a00000", result.get(0).getRegistration());
+        assertEquals("REG-a00002", result.get(2).getRegistration());
+        assertTrue(elapsedMillis < 2000, "Deadline should cut enrichment short, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_LocalDatabaseHit_SkipsRemoteLookup() throws IOException {
+        // Arrange - two of three aircraft are known locally
+        metadataIndex.load(new StringReader(
+                "icao24,registration,manufacturername,model,operator\n" +
+                "a00000,CS-TUA,Airbus,A330-941,TAP Air Portugal\n" +
+                "a00002,CS-TVA,Airbus,A320-251N,TAP Air Portugal\n"));
+        AircraftService service = createService(statesResponse(3), icao24 -> Duration.ZERO);
+
+        // Act
+        List<AircraftDTO> result = service.searchAircraftNearAirport(38.77, -9.13, 50, null).block().value();
+
+        // Assert
+        assertEquals(1, metadataCalls.get());
+        assertEquals("CS-TUA", result.get(0).getRegistration());
+        assertEquals("A330-941", result.get(0).getModel());
+        assertEquals("TAP Air Portugal", result.get(0).getOperator());
+        assertEquals("REG-a00001", result.get(1).getRegistration());
+        assertEquals("CS-TVA", result.get(2).getRegistration());
+    }
+
+    @Test
+    void testLookups_WithLivePollerSnapshot_AnswerWithoutUpstreamCalls() {
+        // Arrange
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+        ReflectionTestUtils.setField(liveTrafficPoller, "enabled", true);
+        liveTrafficPoller.publish(new StateVectorParser().parse(statesResponse(12)));
+        AircraftService service = newService(webClient);
+        ReflectionTestUtils.setField(service, "remoteMetadataFallback", false);
+
+        // Act
+        List<AircraftDTO> near = service.searchAircraftNearAirport(38.77, -9.13, 50, "tap1").block().value();
+        List<AircraftDTO> europe = service.searchAircraftOverEurope("").block().value();
+        AircraftDTO byIcao = service.getAircraftByIcao24("A0000B").block();
+
+        // Assert
+        assertEquals(3, near.size());
+        assertEquals(12, europe.size());
+        assertNotNull(byIcao);
+        assertEquals("TAP11", byIcao.getCallsign());
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_RanksByDistanceWithinRadius() {
+        // Arrange - aircraft ~26, ~40, ~30 and ~80 km from the airport, plus one without a position
+        String states = "{\"time\":1700000000,\"states\":["
+                + state("a00000", 39.00, -9.13) + ","
+                + state("a00001", 38.77, -8.67) + ","
+                + state("a00002", 38.50, -9.13) + ","
+                + state("a00003", 38.77, -8.21) + ","
+                + "[\"a00004\",\"TAP4\",\"Portugal\",1700000000,1700000000,null,null,null,false,null,null]]}";
+        ReflectionTestUtils.setField(liveTrafficPoller, "enabled", true);
+        liveTrafficPoller.publish(new StateVectorParser().parse(states));
+        AircraftService service = createService(statesResponse(0), icao24 -> Duration.ZERO);
+        ReflectionTestUtils.setField(service, "remoteMetadataFallback", false);
+
+        // Act
+        List<AircraftDTO> result = service.searchAircraftNearAirport(38.77, -9.13, 50, null).block().value();
+
+        // Assert
+        assertEquals(List.of("a00000", "a00002", "a00001"), result.stream().map(AircraftDTO::getIcao24).toList());
+        assertEquals(25.6, result.get(0).getDistanceKm(), 0.1);
+        assertEquals(30.0, result.get(1).getDistanceKm(), 0.1);
+        assertTrue(result.get(1).getDistanceKm() <= result.get(2).getDistanceKm());
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_InvalidRadius_ThrowsException() {
+        // Arrange
+        AircraftService service = createService(statesResponse(0), icao24 -> Duration.ZERO);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.searchAircraftNearAirport(38.77, -9.13, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> service.searchAircraftNearAirport(38.77, -9.13, 1000, null));
+    }
+
+    @Test
+    void testSearchAircraftOverEurope_FiltersByQuery() {
+        // Arrange
+        AircraftService service = createService(statesResponse(12), icao24 -> Duration.ZERO);
+
+        // Act
+        List<AircraftDTO> result = service.searchAircraftOverEurope("TAP11").block().value();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("a0000b", result.get(0).getIcao24());
+        assertEquals("TAP11", result.get(0).getCallsign());
+    }
+
+    @Test
+    void testSearchAircraftOverEurope_ConcurrentIdenticalSearchesShareOneCall() {
+        // Arrange - states response takes 300ms
+        AtomicInteger statesCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> {
+                    statesCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(300)).map(tick -> json(statesResponse(12)));
+                })
+                .build();
+        AircraftService service = newService(webClient);
+        ReflectionTestUtils.setField(service, "remoteMetadataFallback", false);
+
+        // Act - 10 users run the same search at once
+        List<List<AircraftDTO>> results = Flux.range(0, 10)
+                .flatMap(i -> service.searchAircraftOverEurope("tap"))
+                .map(LookupResult::value)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        // Assert
+        assertEquals(1, statesCalls.get());
+        assertNotNull(results);
+        assertTrue(results.stream().allMatch(r -> r.size() == 12));
+        assertEquals(9.0, meterRegistry.counter("opensky.coalescer.requests", "outcome", "coalesced").count());
+    }
+
+    @Test
+    void testSearches_SlowUpstream_DoNotHoldThreads() {
+        // Arrange - every states call takes 1s; distinct queries so nothing is coalesced
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> Mono.delay(Duration.ofSeconds(1)).map(tick -> json(statesResponse(12))))
+                .build();
+        AircraftService service = newService(webClient);
+        ReflectionTestUtils.setField(service, "remoteMetadataFallback", false);
+        int threadsBefore = Thread.activeCount();
+
+        // Act - 200 searches in flight at once, all subscribed from this one thread
+        long start = System.nanoTime();
+        List<List<AircraftDTO>> results = Flux.range(0, 200)
+                .flatMap(i -> service.searchAircraftOverEurope("tap" + i), 200)
+                .map(LookupResult::value)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - a thread per search would need 200 threads or 200 × 1s
+        assertNotNull(results);
+        assertEquals(200, results.size());
+        assertTrue(elapsedMillis < 3000, "Searches took " + elapsedMillis + "ms");
+        assertTrue(Thread.activeCount() - threadsBefore < 20, "Lookups should not park a thread each");
+        assertEquals(200, meterRegistry.get("opensky.lookup").tag("operation", "europe").timer().count());
+    }
+
+    @Test
+    void testSearchAircraftOverEurope_UpstreamDown_ServesStaleResultImmediately() {
+        // Arrange - one good response, then OpenSky hangs past the lookup timeout
+        AtomicInteger statesCalls = new AtomicInteger();
+        AtomicBoolean upstreamDown = new AtomicBoolean();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> {
+                    statesCalls.incrementAndGet();
+                    return upstreamDown.get() ? Mono.never() : Mono.just(json(statesResponse(12)));
+                })
+                .build();
+        AircraftService service = newService(webClient);
+        ReflectionTestUtils.setField(service, "remoteMetadataFallback", false);
+        ReflectionTestUtils.setField(lookupCache, "freshFor", Duration.ZERO);
+        service.searchAircraftOverEurope("tap").block();
+        upstreamDown.set(true);
+
+        // Act
+        long start = System.nanoTime();
+        LookupResult<List<AircraftDTO>> first = service.searchAircraftOverEurope("tap").block();
+        LookupResult<List<AircraftDTO>> second = service.searchAircraftOverEurope("tap").block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - served from the last good result, one background refresh in flight
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(first.stale());
+        assertEquals(12, first.value().size());
+        assertEquals(12, second.value().size());
+        assertTrue(elapsedMillis < 50, "Stale results took " + elapsedMillis + "ms");
+        assertEquals(2, statesCalls.get());
+    }
+
+    @Test
+    void testSearchAircraftNearAirport_OpenCircuit_FailsFastWithoutUpstreamCall() {
+        // Arrange - OpenSky keeps failing
+        AtomicInteger statesCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> {
+                    statesCalls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+        AircraftService service = newService(webClient);
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 3);
+        for (int i = 0; i < 3; i++) {
+            service.searchAircraftNearAirport(38.77, -9.13, 50, "q" + i).block();
+        }
+        int callsBeforeOpen = statesCalls.get();
+
+        // Act
+        List<AircraftDTO> result = service.searchAircraftNearAirport(38.77, -9.13, 50, "other").block().value();
+
+        // Assert
+        assertEquals(OpenSkyCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(result.isEmpty());
+        assertEquals(callsBeforeOpen, statesCalls.get());
+    }
+
+    @Test
+    void testSearchAircraftOverEurope_LowCredits_RefusesScan() {
+        // Arrange - only 10% of the budget left
+        AtomicInteger statesCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> {
+                    statesCalls.incrementAndGet();
+                    return Mono.just(json(statesResponse(12)));
+                })
+                .build();
+        AircraftService service = newService(webClient);
+        creditAccountant.tryCharge(360, "test");
+
+        // Act
+        List<AircraftDTO> result = service.searchAircraftOverEurope("").block().value();
+
+        // Assert
+        assertTrue(creditAccountant.isLow());
+        assertTrue(result.isEmpty());
+        assertEquals(0, statesCalls.get());
+    }
+
+    @Test
+    void testGetAircraftByIcao24_UpstreamError_CompletesEmpty() {
+        // Arrange
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .build();
+        AircraftService service = newService(webClient);
+
+        // Act & Assert
+        assertNull(service.getAircraftByIcao24("a00001").block());
+    }
+
+    private AircraftService createService(String statesJson, Function<String, Duration> metadataLatency) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .exchangeFunction(request -> respond(request, statesJson, metadataLatency))
+                .build();
+        return newService(webClient);
+    }
+
+    private AircraftService newService(WebClient webClient) {
+        StateVectorParser parser = new StateVectorParser();
+        RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+        return new AircraftService(webClient, metadataIndex, parser,
+                new LiveStateTileCache(webClient, parser, coalescer, trackStore, circuitBreaker, creditAccountant),
+                liveTrafficPoller, coalescer, trackStore, lookupCache, circuitBreaker, creditAccountant, meterRegistry);
+    }
+
+    private Mono<ClientResponse> respond(ClientRequest request, String statesJson,
+                                         Function<String, Duration> metadataLatency) {
+        String path = request.url().getPath();
+        if (path.contains("/metadata/aircraft/icao/")) {
+            String icao24 = path.substring(path.lastIndexOf('/') + 1);
+            metadataCalls.incrementAndGet();
+            return Mono.delay(metadataLatency.apply(icao24))
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doOnTerminate(inFlight::decrementAndGet)
+                    .map(tick -> json("{\"icao24\":\"" + icao24 + "\",\"registration\":\"REG-" + icao24 + "\"}"));
+        }
+        // All stub aircraft are at 38.7,-9.1; only the tile containing them reports them
+        if (!isWithinRequestedBox(request, 38.7, -9.1)) {
+            return Mono.just(json("{\"time\":1700000000,\"states\":null}"));
+        }
+        return Mono.just(json(statesJson));
+    }
+
+    private boolean isWithinRequestedBox(ClientRequest request, double lat, double lon) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.url()).build().getQueryParams();
+        if (!params.containsKey("lamin")) return true;
+        return lat >= Double.parseDouble(params.getFirst("lamin")) && lat <= Double.parseDouble(params.getFirst("lamax"))
+                && lon >= Double.parseDouble(params.getFirst("lomin")) && lon <= Double.parseDouble(params.getFirst("lomax"));
+    }
+
+    private ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    private static String state(String icao24, double lat, double lon) {
+        return String.format(Locale.ROOT, "[\"%s\",\"TAP%s\",\"Portugal\",1700000000,1700000000,%.4f,%.4f,1000.0,false,120.0,90.0]",
+                icao24, icao24.substring(4), lon, lat);
+    }
+
+    private String statesResponse(int count) {
+        StringBuilder sb = new StringBuilder("{\"time\":1700000000,\"states\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(String.format("[\"a%05x\",\"TAP%-5d\",\"Portugal\",1700000000,1700000000,-9.1,38.7,1000.0,false,120.0,90.0,0.0,null,1100.0,null,false,0]", i, i));
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AircraftTrackDTO;
+import com.flightspotterlogbook.dto.TrackPointDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AircraftTrackStore.
+ * Tests ring buffer order, duplicate states, eviction and the memory bound.
+ */
+class AircraftTrackStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AircraftTrackStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new AircraftTrackStore(meterRegistry);
+        store.registerMetrics();
+    }
+
+    @Test
+    void testTrack_KeepsLatestSamplesOldestFirst() {
+        // Act - 100 reports, one per second, while the buffer holds 64
+        for (int i = 0; i < 100; i++) {
+            store.record(state(0x4951d0, 1700000000L + i, 38.0f + i * 0.01f));
+        }
+        AircraftTrackDTO track = store.track("4951D0");
+
+        // Assert
+        assertNotNull(track);
+        assertEquals("4951d0", track.getIcao24());
+        assertEquals(AircraftTrackStore.CAPACITY, track.getPoints().size());
+        assertEquals(1700000036L, track.getPoints().get(0).getTime());
+        assertEquals(1700000099L, track.getPoints().get(63).getTime());
+        assertEquals(38.99, track.getPoints().get(63).getLatitude(), 1e-4);
+    }
+
+    @Test
+    void testRecord_NoPositionTime_Skipped() {
+        // Act - OpenSky sends a null time_position when it has no recent position report
+        store.record(state(0x4951d0, 0L, 38.7f));
+
+        // Assert
+        assertNull(store.track("4951d0"));
+    }
+
+    @Test
+    void testRecord_SameStateSeenTwiceIsStoredOnce() {
+        // Arrange - the poller and the tile cache both report the same state
+        StateColumns states = state(0x4951d0, 1700000000L, 38.7f);
+
+        // Act
+        store.record(states);
+        store.record(states);
+        store.record(state(0x4951d0, 1700000005L, 38.8f));
+
+        // Assert
+        assertEquals(2, store.track("4951d0").getPoints().size());
+    }
+
+    @Test
+    void testRecord_RowsWithoutPositionAreSkipped() {
+        // Arrange
+        StateColumns states = new StateColumns();
+        states.add(0x4951d0, "TAP123", "Portugal", 1700000000L, Float.NaN, Float.NaN, Float.NaN, true,
+                Float.NaN, Float.NaN);
+
+        // Act
+        store.record(states);
+
+        // Assert
+        assertNull(store.track("4951d0"));
+        assertNull(store.track("not-hex"));
+    }
+
+    @Test
+    void testEvictStaleTracks_DropsAircraftNotSeenRecently() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(store, "maxAge", Duration.ofMillis(50));
+        store.record(state(0x4951d0, 1700000000L, 38.7f));
+        Thread.sleep(100);
+        store.record(state(0x3c6444, 1700000000L, 50.0f));
+
+        // Act
+        store.evictStaleTracks();
+
+        // Assert
+        assertNull(store.track("4951d0"));
+        assertNotNull(store.track("3c6444"));
+    }
+
+    @Test
+    void testRecord_TenThousandAircraft_MemoryIsBoundedAndReported() {
+        // Arrange
+        ReflectionTestUtils.setField(store, "maxAircraft", 10_000);
+        StateColumns states = new StateColumns();
+        for (int i = 0; i < 12_000; i++) {
+            states.add(0x400000 + i, "TAP" + i, "Portugal", 1700000000L, -9.1f, 38.7f, 1000f, false,
+                    Float.NaN, Float.NaN);
+        }
+
+        // Act - a full buffer for every aircraft
+        for (int t = 0; t < AircraftTrackStore.CAPACITY + 10; t++) {
+            StateColumns next = new StateColumns();
+            for (int i = 0; i < states.size(); i++) {
+                next.add(states.icao24(i), "TAP" + i, "Portugal", 1700000000L + t, -9.1f, 38.7f + t * 0.01f, 1000f,
+                        false, Float.NaN, Float.NaN);
+            }
+            store.record(next);
+        }
+
+        // Assert - aircraft beyond the cap are not tracked; about 1.4 KB per aircraft
+        assertEquals(10_000, store.size());
+        assertNull(store.track(StateColumns.toHex(0x400000 + 11_000)));
+        double bytes = meterRegistry.get("opensky.tracks.bytes").gauge().value();
+        assertEquals(store.estimatedBytes(), bytes);
+        assertTrue(bytes < 16_000_000, "Tracks retain " + bytes + " bytes");
+        TrackPointDTO last = store.track("400000").getPoints().get(AircraftTrackStore.CAPACITY - 1);
+        assertEquals(1700000000L + AircraftTrackStore.CAPACITY + 9, last.getTime());
+    }
+
+    private static StateColumns state(int icao24, long timePosition, float latitude) {
+        StateColumns states = new StateColumns();
+        states.add(icao24, "TAP123", "Portugal", timePosition, -9.13f, latitude, 1000f, false, 120f, 90f);
+        return states.compact();
+    }
+}
@@ -0,0 +1,114 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AirportDataset and AirportDatasetWriter.
+ * Tests OurAirports conversion, the mapped file round trip and searching the mapped data.
+ */
+class AirportDatasetTest {
+
+    private static final String AIRPORTS_CSV = """
+            "id","ident","type","name","latitude_deg","longitude_deg","elevation_ft","continent","iso_country","iso_region","municipality","scheduled_service","gps_code","iata_code","local_code","home_link","wikipedia_link","keywords"
+            1,"PT-0001","small_airport","Lisbon Aeroclub Field",38.70,-9.20,10,"EU","PT","PT-11","Lisbon","no",,,,,,
+            2,"LPPT","large_airport","Humberto Delgado Airport (Lisbon Portela Airport)",38.7813,-9.13592,374,"EU","PT","PT-11","Lisbon","yes","LPPT","LIS",,,"https://en.wikipedia.org/wiki/Lisbon_Airport","Lisboa"
+            3,"LPCS","medium_airport","Cascais Municipal Aerodrome",38.725,-9.35523,325,"EU","PT","PT-11","Cascais","no","LPCS","CAT",,,,
+            4,"LPXX","closed","Old Lisbon Seaplane Base",38.70,-9.10,0,"EU","PT","PT-11","Lisbon","no",,,,,,
+            5,"EDDM","large_airport","Munich Airport",48.353802,11.7861,1487,"EU","DE","DE-BY","München","yes","EDDM","MUC",,,,
+            6,"LPHX","heliport","Hospital ""Santa Maria"" Heliport",38.75,-9.16,100,"EU","PT","PT-11","Lisbon","no",,,,,,
+            7,"LPBAD","small_airport","Broken Coordinates Field",,-9.0,0,"EU","PT","PT-11","Nowhere","no",,,,,,
+            """;
+
+    private static final String COUNTRIES_CSV = """
+            "id","code","name","continent","wikipedia_link","keywords"
+            302672,"PT","Portugal","EU","https://en.wikipedia.org/wiki/Portugal",
+            302618,"DE","Germany","EU","https://en.wikipedia.org/wiki/Germany","Deutschland"
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadOurAirports_DropsClosedAndOrdersByType() throws Exception {
+        // Act
+        List<AirportDTO> airports = AirportDatasetWriter.readOurAirports(new StringReader(AIRPORTS_CSV),
+                AirportDatasetWriter.readCountries(new StringReader(COUNTRIES_CSV)));
+
+        // Assert - large, medium, small, heliport; closed and unplaced rows are skipped
+        assertEquals(List.of("LPPT", "EDDM", "LPCS", "PT-0001", "LPHX"),
+                airports.stream().map(AirportDTO::getIcao).toList());
+        assertEquals("Portugal", airports.get(0).getCountry());
+        assertEquals("", airports.get(3).getIata());
+        assertEquals("Hospital \"Santa Maria\" Heliport", airports.get(4).getName());
+    }
+
+    @Test
+    void testMap_RoundTripsThroughFile() throws Exception {
+        // Arrange
+        List<AirportDTO> airports = AirportDatasetWriter.readOurAirports(new StringReader(AIRPORTS_CSV), Map.of());
+        Path file = tempDir.resolve("airports.bin");
+        Files.write(file, AirportDatasetWriter.write(airports));
+
+        // Act
+        AirportDataset dataset = AirportDataset.map(file);
+
+        // Assert
+        assertEquals(5, dataset.size());
+        AirportDTO munich = dataset.airport(1);
+        assertEquals("EDDM", munich.getIcao());
+        assertEquals("MUC", munich.getIata());
+        assertEquals("München", munich.getCity());
+        assertEquals("DE", munich.getCountry());
+        assertEquals(48.353802, munich.getLatitude(), 1e-5);
+        assertEquals(11.7861, munich.getLongitude(), 1e-5);
+    }
+
+    @Test
+    void testSearch_OverMappedData() throws Exception {
+        // Arrange
+        List<AirportDTO> airports = AirportDatasetWriter.readOurAirports(new StringReader(AIRPORTS_CSV),
+                AirportDatasetWriter.readCountries(new StringReader(COUNTRIES_CSV)));
+        Path file = tempDir.resolve("airports.bin");
+        Files.write(file, AirportDatasetWriter.write(airports));
+        AirportDataset dataset = AirportDataset.map(file);
+        AirportIndex index = new AirportIndex(dataset);
+        AirportCodeIndex codes = new AirportCodeIndex(dataset);
+
+        // Act & Assert - larger airports first among equal matches, accents are folded
+        assertEquals(List.of("LPPT", "PT-0001", "LPHX"),
+                index.search("lisbon", 20).stream().map(AirportDTO::getIcao).toList());
+        assertEquals("EDDM", index.search("mün", 20).get(0).getIcao());
+        assertEquals("EDDM", index.search("munchen", 20).get(0).getIcao());
+        assertEquals("LPCS", index.search("cat", 20).get(0).getIcao());
+        assertEquals("LPPT", dataset.airport(codes.find("lis")).getIcao());
+        assertEquals("PT-0001", dataset.airport(codes.find("pt-0001")).getIcao());
+        assertEquals(-1, codes.find("lisbon"));
+    }
+
+    @Test
+    void testWrap_RejectsOtherOrTruncatedData() {
+        // Arrange
+        byte[] dataset = AirportDatasetWriter.write(List.of(AirportDTO.builder().icao("LPPT").iata("LIS")
+                .name("Lisbon Portela Airport").city("Lisbon").country("Portugal")
+                .latitude(38.7756).longitude(-9.1354).build()));
+
+        // Act & Assert
+        assertEquals(1, AirportDataset.wrap(ByteBuffer.wrap(dataset)).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> AirportDataset.wrap(ByteBuffer.wrap(Arrays.copyOf(dataset, dataset.length - 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> AirportDataset.wrap(ByteBuffer.wrap("icao,iata\n".getBytes())));
+    }
+}
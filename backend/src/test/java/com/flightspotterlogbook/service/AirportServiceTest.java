@@ -0,0 +1,186 @@
+package com.flightspotterlogbook.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightspotterlogbook.dto.AirportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AirportService.
+ * Tests autocomplete ranking (exact code, prefix, substring), code lookups and the lazily
+ * built all-airports payload.
+ */
+class AirportServiceTest {
+
+    private AirportService airportService;
+
+    @BeforeEach
+    void setUp() {
+        airportService = new AirportService(new ObjectMapper());
+        airportService.init();
+    }
+
+    @Test
+    void testSearchAirports_PrefixMatchesRankBeforeSubstrings() {
+        // Act - "lon" is a substring of Barcelona, which is listed before London
+        List<AirportDTO> result = airportService.searchAirports("lon");
+
+        // Assert
+        assertEquals(List.of("EGLL", "EGKK", "EGSS", "EGLC", "EGGW"),
+                result.subList(0, 5).stream().map(AirportDTO::getIcao).toList());
+        assertTrue(result.stream().anyMatch(a -> a.getIcao().equals("LEBL")));
+    }
+
+    @Test
+    void testSearchAirports_ExactCodeRanksFirst() {
+        // Act - "man" also starts Manchester's city and name, "ma" many more
+        List<AirportDTO> byIata = airportService.searchAirports("MAN");
+        List<AirportDTO> byIcao = airportService.searchAirports(" lppt ");
+
+        // Assert
+        assertEquals("EGCC", byIata.get(0).getIcao());
+        assertEquals("LPPT", byIcao.get(0).getIcao());
+        assertEquals(1, byIcao.size());
+    }
+
+    @Test
+    void testSearchAirports_MatchesWordsInNameCityAndCountry() {
+        // Act
+        List<AirportDTO> byNameWord = airportService.searchAirports("heath");
+        List<AirportDTO> byMultiWordName = airportService.searchAirports("london gat");
+        List<AirportDTO> byCountry = airportService.searchAirports("switz");
+        List<AirportDTO> bySubstring = airportService.searchAirports("athro");
+
+        // Assert
+        assertEquals(List.of("EGLL"), byNameWord.stream().map(AirportDTO::getIcao).toList());
+        assertEquals(List.of("EGKK"), byMultiWordName.stream().map(AirportDTO::getIcao).toList());
+        assertEquals(4, byCountry.size());
+        assertEquals(List.of("EGLL"), bySubstring.stream().map(AirportDTO::getIcao).toList());
+    }
+
+    @Test
+    void testSearchAirports_AtMostTwentyResults() {
+        // Act - every airport has "airport" in its name
+        List<AirportDTO> result = airportService.searchAirports("airport");
+
+        // Assert
+        assertEquals(20, result.size());
+        assertEquals("LPPT", result.get(0).getIcao());
+    }
+
+    @Test
+    void testSearchAirports_ShortOrMissingQuery_ReturnsEmpty() {
+        // Act & Assert
+        assertTrue(airportService.searchAirports(null).isEmpty());
+        assertTrue(airportService.searchAirports(" l ").isEmpty());
+        assertTrue(airportService.searchAirports("zzzz").isEmpty());
+    }
+
+    @Test
+    void testSearchAirports_IgnoresAccents() {
+        // Act
+        List<AirportDTO> malaga = airportService.searchAirports("malaga");
+        List<AirportDTO> dusseldorf = airportService.searchAirports("DUSSELDORF");
+        List<AirportDTO> accented = airportService.searchAirports("Zürich");
+
+        // Assert
+        assertEquals("LEMG", malaga.get(0).getIcao());
+        assertEquals("Málaga Airport", malaga.get(0).getName());
+        assertEquals("EDDL", dusseldorf.get(0).getIcao());
+        assertEquals("LSZH", accented.get(0).getIcao());
+    }
+
+    @Test
+    void testSearchAirports_Fuzzy_ToleratesTypos() {
+        // Act
+        List<AirportDTO> exactOnly = airportService.searchAirports("zurik");
+        List<AirportDTO> fuzzy = airportService.searchAirports("zurik", true);
+        List<AirportDTO> twoWords = airportService.searchAirports("dusseldorff airprt", true);
+
+        // Assert
+        assertTrue(exactOnly.isEmpty());
+        assertEquals("LSZH", fuzzy.get(0).getIcao());
+        assertEquals(0.38, fuzzy.get(0).getScore(), 0.01);
+        assertEquals(List.of("EDDL"), twoWords.stream().map(AirportDTO::getIcao).toList());
+        assertEquals(0.6, twoWords.get(0).getScore(), 0.01);
+    }
+
+    @Test
+    void testSearchAirports_Fuzzy_ExactMatchesFirstWithoutScore() {
+        // Act - "porto" is Porto's city, and close to "portela" in Lisbon Portela
+        List<AirportDTO> result = airportService.searchAirports("porto", true);
+
+        // Assert
+        assertEquals(List.of("LPPR", "LPPT"), result.stream().map(AirportDTO::getIcao).toList());
+        assertNull(result.get(0).getScore());
+        assertTrue(result.get(1).getScore() >= AirportTrigramIndex.THRESHOLD);
+    }
+
+    @Test
+    void testGetNearestAirports_NearestFirstWithDistance() {
+        // Act - central Lisbon
+        List<AirportDTO> result = airportService.getNearestAirports(38.7223, -9.1393, 3);
+
+        // Assert - Lisbon, then Faro (about 215 km) and Porto (about 275 km)
+        assertEquals(List.of("LPPT", "LPFR", "LPPR"), result.stream().map(AirportDTO::getIcao).toList());
+        assertEquals(5.9, result.get(0).getDistanceKm(), 0.5);
+        assertTrue(result.get(1).getDistanceKm() < result.get(2).getDistanceKm());
+    }
+
+    @Test
+    void testGetNearestAirports_InvalidArguments_Throw() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> airportService.getNearestAirports(91, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> airportService.getNearestAirports(38.7, -9.1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> airportService.getNearestAirports(38.7, -9.1, AirportService.MAX_NEAREST + 1));
+    }
+
+    @Test
+    void testGetAirportByCode_IcaoOrIata() {
+        // Act & Assert
+        assertEquals("LHR", airportService.getAirportByCode("egll").getIata());
+        assertEquals("EGLL", airportService.getAirportByCode("LHR").getIcao());
+        assertNull(airportService.getAirportByCode("XXXX"));
+    }
+
+    @Test
+    void testGetAllAirportsPayload_SameAirportsAsJsonAndGzip() throws IOException {
+        // Act
+        AirportService.AirportsPayload payload = airportService.getAllAirportsPayload();
+        List<AirportDTO> airports = new ObjectMapper().readValue(payload.json(), new TypeReference<>() {
+        });
+        byte[] unzipped;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.gzipped()))) {
+            unzipped = in.readAllBytes();
+        }
+
+        // Assert
+        assertEquals(airportService.getAllAirports(), airports);
+        assertArrayEquals(payload.json(), unzipped);
+        assertTrue(payload.gzipped().length < payload.json().length / 2);
+        assertEquals(32, payload.version().length());
+        assertSame(payload, airportService.getAllAirportsPayload());
+    }
+
+    @Test
+    void testGetAllAirportsPayload_OmitsUnsetDistanceAndScore() {
+        // Act
+        String json = new String(airportService.getAllAirportsPayload().json(), StandardCharsets.UTF_8);
+
+        // Assert
+        assertTrue(json.contains("\"icao\":\"LPPT\""));
+        assertFalse(json.contains("distanceKm"));
+        assertFalse(json.contains("score"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AirportSpatialIndex.
+ * Tests k-nearest results against a full scan, including across the antimeridian and poles.
+ */
+class AirportSpatialIndexTest {
+
+    @Test
+    void testNearest_MatchesFullScan() {
+        // Arrange
+        Random random = new Random(7);
+        AirportDataset dataset = randomAirports(5000, random);
+        AirportSpatialIndex index = new AirportSpatialIndex(dataset);
+
+        for (int query = 0; query < 200; query++) {
+            double lat = -90 + random.nextDouble() * 180;
+            double lon = -180 + random.nextDouble() * 360;
+
+            // Act
+            NearestRows nearest = new NearestRows(10);
+            index.nearest(lat, lon, nearest);
+            nearest.sort();
+
+            // Assert
+            double[] distances = new double[dataset.size()];
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = GeoMath.haversineKm(lat, lon, dataset.latitude(i), dataset.longitude(i));
+            }
+            double[] expected = distances.clone();
+            Arrays.sort(expected);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(expected[i], distances[nearest.row(i)], 0.01, "Query " + lat + "," + lon + " result " + i);
+            }
+        }
+    }
+
+    @Test
+    void testNearest_AcrossAntimeridian() {
+        // Arrange - Fiji's Nadi is 100 km west of the query across 180°, the other airport is 1,000 km east
+        AirportDataset dataset = AirportDataset.of(List.of(
+                airport("NFFN", -17.755, 177.443),
+                airport("XEAS", -17.0, -170.0)));
+        AirportSpatialIndex index = new AirportSpatialIndex(dataset);
+
+        // Act
+        NearestRows nearest = new NearestRows(1);
+        index.nearest(-17.5, -179.9, nearest);
+
+        // Assert
+        assertEquals(0, nearest.row(0));
+    }
+
+    @Test
+    void testNearest_EmptyDatasetOrFewerAirportsThanK() {
+        // Arrange
+        NearestRows none = new NearestRows(0);
+        NearestRows all = new NearestRows(5);
+
+        // Act
+        new AirportSpatialIndex(AirportDataset.of(List.of())).nearest(0, 0, none);
+        new AirportSpatialIndex(AirportDataset.of(List.of(airport("LPPT", 38.78, -9.14)))).nearest(0, 0, all);
+
+        // Assert
+        assertEquals(0, none.size());
+        assertEquals(1, all.size());
+    }
+
+    private static AirportDataset randomAirports(int n, Random random) {
+        List<AirportDTO> airports = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            // Cluster some airports at identical positions, like heliports at one hospital
+            double lat = i % 50 == 0 ? 51.47 : -90 + random.nextDouble() * 180;
+            double lon = i % 50 == 0 ? -0.45 : -180 + random.nextDouble() * 360;
+            airports.add(airport(String.format("X%04d", i), lat, lon));
+        }
+        return AirportDataset.of(airports);
+    }
+
+    private static AirportDTO airport(String icao, double lat, double lon) {
+        return AirportDTO.builder().icao(icao).iata("").name(icao + " Airport").city("").country("")
+                .latitude(lat).longitude(lon).build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AirportDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AirportTrigramIndex.
+ * Tests trigram extraction, accent folding and similarity ranking of names and cities.
+ */
+class AirportTrigramIndexTest {
+
+    private static final AirportDataset DATASET = AirportDataset.of(List.of(
+            airport("LSZH", "Zurich Airport", "Zurich"),
+            airport("EDDL", "Düsseldorf Airport", "Düsseldorf"),
+            airport("LEMG", "Málaga Airport", "Málaga"),
+            airport("EKCH", "Copenhagen Kastrup Airport", "Copenhagen"),
+            airport("LFPG", "Charles de Gaulle Airport", "Paris")));
+
+    @Test
+    void testTrigrams_PaddedAndDistinct() {
+        // Act
+        long[] zurich = AirportTrigramIndex.trigrams("zurich");
+        long[] aaa = AirportTrigramIndex.trigrams("aaaa");
+
+        // Assert - " zu", "zur", "uri", "ric", "ich", "ch "; " aa", "aaa", "aa "
+        assertEquals(6, zurich.length);
+        assertEquals(3, aaa.length);
+    }
+
+    @Test
+    void testNormalise_FoldsAccentsAndSpecialLetters() {
+        // Act & Assert
+        assertEquals("dusseldorf", AirportIndex.normalise(" Düsseldorf "));
+        assertEquals("malaga", AirportIndex.normalise("MÁLAGA"));
+        assertEquals("lodz", AirportIndex.normalise("Łódź"));
+        assertEquals("strasse oresund", AirportIndex.normalise("Straße Øresund"));
+    }
+
+    @Test
+    void testSearch_RanksBySimilarity() {
+        // Arrange
+        AirportTrigramIndex index = new AirportTrigramIndex(DATASET);
+
+        // Act
+        List<Integer> zurik = search(index, "zurik", new BitSet());
+        List<Integer> copenhagn = search(index, "copenhagn kastrup", new BitSet());
+
+        // Assert
+        assertEquals(List.of(0), zurik);
+        assertEquals(3, copenhagn.get(0));
+    }
+
+    @Test
+    void testSearch_SkipsAndThreshold() {
+        // Arrange
+        AirportTrigramIndex index = new AirportTrigramIndex(DATASET);
+        BitSet skip = new BitSet();
+        skip.set(1);
+
+        // Act
+        List<Integer> skipped = search(index, "dusseldorf", skip);
+        List<Integer> unrelated = search(index, "xyzzy", new BitSet());
+        List<Integer> everyAirport = search(index, "airprt", new BitSet());
+
+        // Assert
+        assertTrue(skipped.isEmpty());
+        assertTrue(unrelated.isEmpty());
+        assertEquals(List.of(0, 1, 2, 3, 4), everyAirport);
+    }
+
+    @Test
+    void testSearch_ManyMatches_AllScored() {
+        // Arrange - more matching airports and words than the initial scratch space holds
+        List<AirportDTO> airports = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            airports.add(airport("X" + i, "Airport " + i, "Town" + i));
+        }
+        AirportTrigramIndex index = new AirportTrigramIndex(AirportDataset.of(airports));
+
+        // Act
+        NearestRows best = new NearestRows(500);
+        index.search(AirportIndex.normalise("airprt"), new BitSet(), best, 0);
+        List<Integer> towns = search(index, "town7", new BitSet());
+
+        // Assert
+        assertEquals(200, best.size());
+        assertEquals(7, towns.get(0));
+    }
+
+    private static List<Integer> search(AirportTrigramIndex index, String query, BitSet skip) {
+        NearestRows best = new NearestRows(10);
+        index.search(AirportIndex.normalise(query), skip, best, 0);
+        best.sort();
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < best.size(); i++) {
+            assertTrue(best.distance(i) <= 1 - AirportTrigramIndex.THRESHOLD + 1e-9);
+            rows.add(best.row(i));
+        }
+        return rows;
+    }
+
+    private static AirportDTO airport(String icao, String name, String city) {
+        return AirportDTO.builder().icao(icao).iata("").name(name).city(city).country("")
+                .latitude(0.0).longitude(0.0).build();
+    }
+}
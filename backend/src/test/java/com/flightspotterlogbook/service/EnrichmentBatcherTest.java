@@ -0,0 +1,93 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.Sighting;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EnrichmentBatcher.
+ * Tests grouping by time window and batch size, and that callsign-only sightings stay alone.
+ */
+class EnrichmentBatcherTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final EnrichmentBatcher batcher = new EnrichmentBatcher();
+
+    @Test
+    void testGroup_CloseTimes_OneBatch() {
+        // Arrange
+        List<Sighting> sightings = List.of(
+                sighting(1L, "4951d0", T0.plusSeconds(90)),
+                sighting(2L, "3c6444", T0),
+                sighting(3L, "a1b2c3", T0.plusSeconds(120)));
+
+        // Act
+        List<List<Sighting>> batches = batcher.group(sightings);
+
+        // Assert
+        assertEquals(1, batches.size());
+        assertEquals(List.of(2L, 1L, 3L), batches.get(0).stream().map(Sighting::getId).toList());
+    }
+
+    @Test
+    void testGroup_TimesFurtherApartThanWindow_SeparateBatches() {
+        // Arrange
+        List<Sighting> sightings = List.of(
+                sighting(1L, "4951d0", T0),
+                sighting(2L, "3c6444", T0.plusMinutes(3)),
+                sighting(3L, "a1b2c3", T0.plusMinutes(4)));
+
+        // Act
+        List<List<Sighting>> batches = batcher.group(sightings);
+
+        // Assert
+        assertEquals(2, batches.size());
+        assertEquals(1, batches.get(0).size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    void testGroup_MoreAircraftThanMaxSize_SplitsBatch() {
+        // Arrange
+        List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            sightings.add(sighting((long) i, String.format("4951%02x", i), T0));
+        }
+        // The same aircraft again, while its batch is open, still fits
+        sightings.add(5, sighting(99L, "495100", T0));
+
+        // Act
+        List<List<Sighting>> batches = batcher.group(sightings);
+
+        // Assert
+        assertEquals(2, batches.size());
+        assertEquals(26, batches.get(0).size());
+        assertEquals(5, batches.get(1).size());
+    }
+
+    @Test
+    void testGroup_CallsignOnly_OwnBatch() {
+        // Arrange
+        Sighting byCallsign = sighting(1L, null, T0);
+        byCallsign.setCallsign("TAP123");
+        List<Sighting> sightings = List.of(byCallsign, sighting(2L, "3c6444", T0), sighting(3L, "4951d0", T0));
+
+        // Act
+        List<List<Sighting>> batches = batcher.group(sightings);
+
+        // Assert
+        assertEquals(2, batches.size());
+        assertEquals(List.of(byCallsign), batches.get(0));
+        assertEquals(2, batches.get(1).size());
+    }
+
+    private static Sighting sighting(Long id, String icao24, LocalDateTime timestamp) {
+        return Sighting.builder().id(id).ownerUserId("user_123").icao24(icao24).timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.EnrichmentJob;
+import com.flightspotterlogbook.model.EnrichmentJobStatus;
+import com.flightspotterlogbook.repository.EnrichmentJobRepository;
+import com.flightspotterlogbook.repository.SightingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EnrichmentJobQueue.
+ * Tests claiming, exponential backoff between retries, dead-lettering and expired leases.
+ */
+@ExtendWith(MockitoExtension.class)
+class EnrichmentJobQueueTest {
+
+    @Mock
+    private EnrichmentJobRepository jobRepository;
+
+    @Mock
+    private SightingRepository sightingRepository;
+
+    private EnrichmentJobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new EnrichmentJobQueue(jobRepository, sightingRepository);
+    }
+
+    @Test
+    void testClaim_MarksJobsRunningAndCountsAttempt() {
+        // Arrange
+        EnrichmentJob job = job(0);
+        when(jobRepository.lockDueJobs(any(LocalDateTime.class), eq(3))).thenReturn(List.of(job));
+        when(jobRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        List<EnrichmentJob> claimed = queue.claim(3, 25);
+
+        // Assert
+        assertEquals(1, claimed.size());
+        assertEquals(EnrichmentJobStatus.RUNNING, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertTrue(job.getRunAt().isAfter(before.plusMinutes(4)), "Lease should run for the configured 5 minutes");
+    }
+
+    @Test
+    void testClaim_NoIdleWorkers_DoesNotQuery() {
+        // Act
+        List<EnrichmentJob> claimed = queue.claim(0, 25);
+
+        // Assert
+        assertTrue(claimed.isEmpty());
+        verify(jobRepository, never()).lockDueJobs(any(), anyInt());
+    }
+
+    @Test
+    void testClaim_AllJobsStillLingering_ClaimsNothing() {
+        // Arrange
+        EnrichmentJob job = job(0);
+        job.setStatus(EnrichmentJobStatus.PENDING);
+        job.setRunAt(LocalDateTime.now().plusSeconds(1));
+        when(jobRepository.lockDueJobs(any(LocalDateTime.class), eq(50))).thenReturn(List.of(job));
+
+        // Act
+        List<EnrichmentJob> claimed = queue.claim(50, 25);
+
+        // Assert
+        assertTrue(claimed.isEmpty());
+        assertEquals(EnrichmentJobStatus.PENDING, job.getStatus());
+        verify(jobRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testClaim_FullBatchLingering_ClaimsEarly() {
+        // Arrange
+        List<EnrichmentJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            EnrichmentJob job = job(0);
+            job.setRunAt(LocalDateTime.now().plusSeconds(1));
+            jobs.add(job);
+        }
+        when(jobRepository.lockDueJobs(any(LocalDateTime.class), eq(4))).thenReturn(jobs);
+        when(jobRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<EnrichmentJob> claimed = queue.claim(4, 2);
+
+        // Assert
+        assertEquals(2, claimed.size());
+        assertTrue(claimed.stream().allMatch(job -> job.getStatus() == EnrichmentJobStatus.RUNNING));
+    }
+
+    @Test
+    void testFail_BelowMaxAttempts_SchedulesRetryWithBackoff() {
+        // Arrange
+        EnrichmentJob job = job(3);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        queue.fail(job, new IllegalStateException("OpenSky timed out"));
+
+        // Assert
+        assertEquals(EnrichmentJobStatus.PENDING, job.getStatus());
+        assertFalse(job.getRunAt().isBefore(before.plusMinutes(2)), "Third retry should wait 30s * 2^2");
+        assertEquals("IllegalStateException: OpenSky timed out", job.getLastError());
+        verify(jobRepository).save(job);
+        verify(sightingRepository, never()).failEnrichment(any(), any());
+    }
+
+    @Test
+    void testFail_OutOfAttempts_DeadLettersAndMarksSightingFailed() {
+        // Arrange
+        EnrichmentJob job = job(6);
+
+        // Act
+        queue.fail(job, new RuntimeException("boom"));
+
+        // Assert
+        assertEquals(EnrichmentJobStatus.DEAD, job.getStatus());
+        verify(sightingRepository).failEnrichment(eq(42L), any(LocalDateTime.class));
+        verify(jobRepository).save(job);
+    }
+
+    @Test
+    void testReleaseExpiredLeases_OutOfAttempts_DeadLettersInsteadOfReleasing() {
+        // Arrange - a job whose worker never finished its last attempt
+        EnrichmentJob poison = job(6);
+        when(jobRepository.findExpiredLeasesOutOfAttempts(any(LocalDateTime.class), eq(6))).thenReturn(List.of(poison));
+        when(jobRepository.releaseExpiredLeases(any(LocalDateTime.class), eq(6))).thenReturn(2);
+
+        // Act
+        int released = queue.releaseExpiredLeases();
+
+        // Assert
+        assertEquals(2, released);
+        assertEquals(EnrichmentJobStatus.DEAD, poison.getStatus());
+        assertTrue(poison.getLastError().startsWith("Lease expired"));
+        verify(sightingRepository).failEnrichment(eq(42L), any(LocalDateTime.class));
+        verify(jobRepository).save(poison);
+    }
+
+    @Test
+    void testBackoff_DoublesUpToCap() {
+        // Assert
+        assertEquals(Duration.ofSeconds(30), queue.backoff(1));
+        assertEquals(Duration.ofSeconds(60), queue.backoff(2));
+        assertEquals(Duration.ofMinutes(16), queue.backoff(6));
+        assertEquals(Duration.ofHours(1), queue.backoff(8));
+        assertEquals(Duration.ofHours(1), queue.backoff(100));
+    }
+
+    private static EnrichmentJob job(int attempts) {
+        return EnrichmentJob.builder()
+                .id(1L)
+                .sightingId(42L)
+                .status(EnrichmentJobStatus.RUNNING)
+                .attempts(attempts)
+                .runAt(LocalDateTime.now())
+                .build();
+    }
+}
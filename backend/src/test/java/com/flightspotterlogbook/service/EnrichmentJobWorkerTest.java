@@ -0,0 +1,174 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.EnrichmentJob;
+import com.flightspotterlogbook.model.EnrichmentJobStatus;
+import com.flightspotterlogbook.model.EnrichmentStatus;
+import com.flightspotterlogbook.model.Sighting;
+import com.flightspotterlogbook.repository.SightingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EnrichmentJobWorker.
+ * Tests that claimed jobs are batched, then completed, skipped or handed back to the queue.
+ */
+@ExtendWith(MockitoExtension.class)
+class EnrichmentJobWorkerTest {
+
+    @Mock
+    private EnrichmentJobQueue queue;
+
+    @Mock
+    private SightingRepository sightingRepository;
+
+    @Mock
+    private OpenSkyService openSkyService;
+
+    private ThreadPoolTaskExecutor executor;
+    private EnrichmentJobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        worker = new EnrichmentJobWorker(queue, sightingRepository, openSkyService, new EnrichmentBatcher(),
+                executor, new SimpleMeterRegistry());
+        worker.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testRun_BatchEnriched_CompletesAllJobs() {
+        // Arrange
+        List<Sighting> batch = List.of(sighting(1L, EnrichmentStatus.ENRICHING), sighting(2L, EnrichmentStatus.ENRICHING));
+        List<EnrichmentJob> jobs = List.of(job(1L), job(2L));
+        when(openSkyService.enrichBatch(batch)).thenReturn(Map.of());
+
+        // Act
+        worker.run(batch, jobs);
+
+        // Assert
+        verify(queue).complete(jobs.get(0));
+        verify(queue).complete(jobs.get(1));
+        verify(queue, never()).fail(any(), any());
+    }
+
+    @Test
+    void testRun_OneSightingFails_OnlyItsJobIsRetried() {
+        // Arrange
+        List<Sighting> batch = List.of(sighting(1L, EnrichmentStatus.ENRICHING), sighting(2L, EnrichmentStatus.ENRICHING));
+        List<EnrichmentJob> jobs = List.of(job(1L), job(2L));
+        RuntimeException error = new RuntimeException("metadata lookup failed");
+        when(openSkyService.enrichBatch(batch)).thenReturn(Map.of(2L, error));
+
+        // Act
+        worker.run(batch, jobs);
+
+        // Assert
+        verify(queue).complete(jobs.get(0));
+        verify(queue).fail(jobs.get(1), error);
+    }
+
+    @Test
+    void testRun_CallFails_HandsEveryJobBackToQueue() {
+        // Arrange
+        List<Sighting> batch = List.of(sighting(1L, EnrichmentStatus.ENRICHING), sighting(2L, EnrichmentStatus.ENRICHING));
+        List<EnrichmentJob> jobs = List.of(job(1L), job(2L));
+        RuntimeException error = new RuntimeException("OpenSky unavailable");
+        when(openSkyService.enrichBatch(batch)).thenThrow(error);
+
+        // Act
+        worker.run(batch, jobs);
+
+        // Assert
+        verify(queue).fail(jobs.get(0), error);
+        verify(queue).fail(jobs.get(1), error);
+        verify(queue, never()).complete(any());
+    }
+
+    @Test
+    void testPoll_SightingAlreadyEnriched_CompletesWithoutCallingOpenSky() {
+        // Arrange
+        EnrichmentJob job = job(1L);
+        when(queue.claim(100, 25)).thenReturn(List.of(job));
+        when(sightingRepository.findAllById(any())).thenReturn(List.of(sighting(1L, EnrichmentStatus.ENRICHED)));
+
+        // Act
+        worker.poll();
+
+        // Assert
+        verify(queue).complete(job);
+        verify(openSkyService, never()).enrichBatch(anyList());
+    }
+
+    @Test
+    void testPoll_ExecutorRejects_ReleasesJobsToQueue() {
+        // Arrange
+        EnrichmentJob job = job(1L);
+        ThreadPoolTaskExecutor full = mock(ThreadPoolTaskExecutor.class);
+        when(full.getMaxPoolSize()).thenReturn(4);
+        when(full.getThreadPoolExecutor()).thenReturn(executor.getThreadPoolExecutor());
+        doThrow(new TaskRejectedException("queue full")).when(full).execute(any(Runnable.class));
+        when(queue.claim(100, 25)).thenReturn(List.of(job));
+        when(sightingRepository.findAllById(any())).thenReturn(List.of(sighting(1L, EnrichmentStatus.ENRICHING)));
+        worker = new EnrichmentJobWorker(queue, sightingRepository, openSkyService, new EnrichmentBatcher(),
+                full, new SimpleMeterRegistry());
+        worker.registerMetrics();
+
+        // Act
+        worker.poll();
+
+        // Assert
+        verify(queue).release(List.of(job));
+        verify(queue, never()).fail(any(), any());
+    }
+
+    @Test
+    void testPoll_NothingDue_DoesNotLoadSightings() {
+        // Arrange
+        when(queue.claim(100, 25)).thenReturn(List.of());
+
+        // Act
+        worker.poll();
+
+        // Assert
+        verify(sightingRepository, never()).findAllById(any());
+    }
+
+    private static EnrichmentJob job(Long sightingId) {
+        return EnrichmentJob.builder()
+                .id(sightingId * 10).sightingId(sightingId).status(EnrichmentJobStatus.RUNNING).attempts(1).build();
+    }
+
+    private static Sighting sighting(Long id, EnrichmentStatus status) {
+        return Sighting.builder()
+                .id(id)
+                .ownerUserId("user_123")
+                .icao24("4951d" + id)
+                .timestamp(LocalDateTime.of(2023, 11, 14, 22, 13))
+                .enrichmentStatus(status)
+                .build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LiveStateTileCache.
+ * Tests tile reuse, TTL expiry, one box per fetch and its credit cost, and sharing of
+ * in-flight fetches.
+ */
+class LiveStateTileCacheTest {
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final Set<String> fetchedUrls = ConcurrentHashMap.newKeySet();
+    private volatile HttpStatus status = HttpStatus.OK;
+
+    private final OpenSkyCreditAccountant creditAccountant = new OpenSkyCreditAccountant(
+            new RateLimitConfig().openSkyRateLimiter(RateLimitConfig.DEFAULT_DAILY_BUDGET), new SimpleMeterRegistry());
+
+    private LiveStateTileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .filter(creditAccountant.filter("lookup"))
+                .exchangeFunction(request -> {
+                    fetches.incrementAndGet();
+                    fetchedUrls.add(request.url().getQuery());
+                    if (status != HttpStatus.OK) {
+                        return Mono.just(ClientResponse.create(status).build());
+                    }
+                    // Three aircraft in tile (38,-10), one of them (on the ground) at its edge
+                    return Mono.delay(Duration.ofMillis(100)).map(t -> ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"time\":1,\"states\":[" +
+                                    "[\"4951d0\",\"TAP123 \",\"Portugal\",1,1,-9.13,38.78,500.0,false,80.0,30.0]," +
+                                    "[\"4951d1\",\"TAP456 \",\"Portugal\",1,1,-9.50,38.10,900.0,false,90.0,40.0]," +
+                                    "[\"3c6444\",\"DLH1 \",\"Germany\",1,1,-9.90,38.99,null,true,null,null]]}")
+                            .build());
+                })
+                .build();
+        cache = new LiveStateTileCache(webClient, new StateVectorParser(),
+                new RequestCoalescer(new SimpleMeterRegistry()), new AircraftTrackStore(new SimpleMeterRegistry()),
+                new OpenSkyCircuitBreaker(new SimpleMeterRegistry()), creditAccountant);
+    }
+
+    @Test
+    void testStatesWithin_FiltersCombinedTilesToBox() {
+        // Act
+        StateColumns states = cache.statesWithin(38.28, -9.63, 39.28, -8.63).block();
+
+        // Assert - the box covers 4 tiles, fetched as one box and filtered locally
+        assertEquals(1, fetches.get());
+        assertNotNull(states);
+        assertEquals(List.of("4951d0"), LiveTrafficSnapshotTest.icao24s(states));
+        assertEquals(Set.of("lamin=38.0000&lomin=-10.0000&lamax=40.0000&lomax=-8.0000"), fetchedUrls);
+    }
+
+    @Test
+    void testStatesWithin_ChargesOneBoxPerSearch() {
+        // Act - 50 km (2×2 tiles) and 250 km (6×7 tiles) around Lisbon
+        cache.statesWithin(38.33, -9.71, 39.23, -8.56).block();
+        long afterSmall = creditAccountant.remaining();
+        cache.statesWithin(36.53, -12.03, 41.02, -6.24).block();
+
+        // Assert - 4 square degrees cost 1 credit, 42 cost 2
+        assertEquals(RateLimitConfig.DEFAULT_DAILY_BUDGET - 1, afterSmall);
+        assertEquals(RateLimitConfig.DEFAULT_DAILY_BUDGET - 3, creditAccountant.remaining());
+        assertEquals(2, fetches.get());
+        assertTrue(fetchedUrls.contains("lamin=36.0000&lomin=-13.0000&lamax=42.0000&lomax=-6.0000"));
+    }
+
+    @Test
+    void testStatesWithin_ResponseSplitIntoTiles() {
+        // Arrange - one fetch fills every tile of the box, empty ones included
+        cache.statesWithin(38.33, -9.71, 39.23, -8.56).block();
+
+        // Act - inside tile (38,-10) only, then tile (39,-9) only
+        StateColumns lisbon = cache.statesWithin(38.0, -10.0, 39.0, -9.0).block();
+        StateColumns empty = cache.statesWithin(39.1, -8.9, 39.9, -8.1).block();
+
+        // Assert
+        assertEquals(1, fetches.get());
+        assertNotNull(lisbon);
+        assertEquals(3, lisbon.size());
+        assertNotNull(empty);
+        assertEquals(0, empty.size());
+    }
+
+    @Test
+    void testStatesWithin_FreshTilesAreNotRefetched() {
+        // Act
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+        cache.statesWithin(38.2, -9.8, 38.8, -9.2).block();
+
+        // Assert
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testStatesWithin_StaleTilesAreRefetched() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ZERO);
+
+        // Act
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+
+        // Assert
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testStatesWithin_LowCredits_ServesTilesLonger() throws InterruptedException {
+        // Arrange - tiles would normally expire after 100ms
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMillis(100));
+        creditAccountant.tryCharge(290, "test");
+
+        // Act
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+        Thread.sleep(200);
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+
+        // Assert
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testStatesWithin_ConcurrentRequestsShareOneFetch() {
+        // Act - 50 concurrent users looking at the same tile
+        List<StateColumns> results = Flux.range(0, 50)
+                .flatMap(i -> cache.statesWithin(38.1, -9.9, 38.9, -9.1))
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(1, fetches.get());
+        assertNotNull(results);
+        assertTrue(results.stream().allMatch(r -> r.size() == 2));
+    }
+
+    @Test
+    void testStatesWithin_UpstreamErrorServesPreviousTile() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ZERO);
+        cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        // Act
+        StateColumns states = cache.statesWithin(38.1, -9.9, 38.9, -9.1).block();
+
+        // Assert
+        assertNotNull(states);
+        assertEquals(2, states.size());
+    }
+
+    @Test
+    void testStatesWithin_UpstreamErrorWithoutPreviousTile_Fails() {
+        // Arrange
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        // Act & Assert - an outage must not look like an empty sky
+        assertThrows(RuntimeException.class, () -> cache.statesWithin(38.1, -9.9, 38.9, -9.1).block());
+    }
+}
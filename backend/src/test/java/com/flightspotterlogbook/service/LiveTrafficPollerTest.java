@@ -0,0 +1,63 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LiveTrafficPoller.
+ * Tests that the poll interval stays within the daily credit budget.
+ */
+class LiveTrafficPollerTest {
+
+    private LiveTrafficPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        poller = new LiveTrafficPoller(null, new StateVectorParser(), new AircraftTrackStore(meterRegistry),
+                new OpenSkyCreditAccountant(new RateLimitConfig().openSkyRateLimiter(300), meterRegistry),
+                meterRegistry);
+    }
+
+    @Test
+    void testPollInterval_PeriodOverBudget_RaisedToFloor() {
+        // Arrange - 4 credits every 15 s against 300 credits a day
+        ReflectionTestUtils.setField(poller, "period", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(poller, "dailyBudget", 300L);
+
+        // Act & Assert - 86400 s x 4 / 300
+        assertEquals(Duration.ofSeconds(1152), poller.pollInterval());
+    }
+
+    @Test
+    void testPollInterval_PeriodWithinBudget_Kept() {
+        // Arrange
+        ReflectionTestUtils.setField(poller, "period", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(poller, "dailyBudget", 25_000L);
+
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(15), poller.pollInterval());
+    }
+
+    @Test
+    void testCurrentSnapshot_TrustedForThreePollIntervals() throws InterruptedException {
+        // Arrange - the configured period alone would expire the snapshot after 3 ms
+        ReflectionTestUtils.setField(poller, "enabled", true);
+        ReflectionTestUtils.setField(poller, "period", Duration.ofMillis(1));
+        poller.publish(new StateColumns().compact());
+
+        // Act
+        Thread.sleep(50);
+        LiveTrafficSnapshot current = poller.currentSnapshot();
+
+        // Assert
+        assertNotNull(current);
+    }
+}
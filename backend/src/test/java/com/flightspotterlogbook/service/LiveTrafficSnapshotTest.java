@@ -0,0 +1,90 @@
+package com.flightspotterlogbook.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LiveTrafficSnapshot.
+ * Tests grid-indexed box, radius, filter and ICAO24 queries.
+ */
+class LiveTrafficSnapshotTest {
+
+    private LiveTrafficSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        StateColumns states = new StateColumns();
+        add(states, "4951d0", "TAP123  ", "Portugal", 38.78f, -9.13f);   // Lisbon
+        add(states, "4951d1", "TAP456  ", "Portugal", 41.24f, -8.68f);   // Porto
+        add(states, "3c6444", "DLH4AB  ", "Germany", 50.03f, 8.56f);     // Frankfurt
+        add(states, "4cc27b", "ICE501  ", "Iceland", 63.98f, -22.60f);   // Keflavik
+        add(states, "abcdef", null, "United States", Float.NaN, Float.NaN);
+        snapshot = LiveTrafficSnapshot.build(states.compact(), 34.0, -25.0, 71.0, 45.0, 0.5);
+    }
+
+    @Test
+    void testWithinBox_ReturnsOnlyStatesInsideBox() {
+        StateColumns result = snapshot.withinBox(38.0, -10.0, 42.0, -8.0, StateColumns.RowFilter.ALL, 50);
+
+        assertEquals(List.of("4951d0", "4951d1"), icao24s(result));
+    }
+
+    @Test
+    void testWithinBox_AppliesFilterAndLimit() {
+        StateColumns filtered = snapshot.withinBox(38.0, -10.0, 42.0, -8.0, StateColumns.matching("tap4"), 50);
+        StateColumns limited = snapshot.withinBox(38.0, -10.0, 42.0, -8.0, StateColumns.RowFilter.ALL, 1);
+
+        assertEquals(List.of("4951d1"), icao24s(filtered));
+        assertEquals("TAP456", filtered.callsign(0));
+        assertEquals(1, limited.size());
+    }
+
+    @Test
+    void testWithinRadius_UsesGreatCircleDistance() {
+        // Lisbon to Porto is ~275 km
+        assertEquals(1, snapshot.withinRadius(38.77, -9.13, 100, StateColumns.RowFilter.ALL, 50).size());
+        assertEquals(2, snapshot.withinRadius(38.77, -9.13, 300, StateColumns.RowFilter.ALL, 50).size());
+        // Near Keflavik a degree of longitude is only ~49 km
+        assertEquals(1, snapshot.withinRadius(63.98, -21.0, 100, StateColumns.RowFilter.ALL, 50).size());
+    }
+
+    @Test
+    void testSelect_MatchesIcaoCallsignOrCountry() {
+        assertEquals(2, snapshot.select(StateColumns.matching("portugal"), 50).size());
+        assertEquals(1, snapshot.select(StateColumns.matching("dlh4"), 50).size());
+        assertEquals(List.of("4cc27b"), icao24s(snapshot.select(StateColumns.matching("c27"), 50)));
+        assertEquals(5, snapshot.select(StateColumns.matching(""), 50).size());
+        assertTrue(snapshot.select(StateColumns.matching("ugalt"), 50).isEmpty());
+    }
+
+    @Test
+    void testByIcao24_IsCaseInsensitive() {
+        assertEquals("ICE501", snapshot.byIcao24("4CC27B").callsign(0));
+        assertTrue(snapshot.byIcao24("000000").isEmpty());
+        assertTrue(snapshot.byIcao24("not-hex").isEmpty());
+    }
+
+    @Test
+    void testCovers_RejectsBoxesOutsideSnapshotArea() {
+        assertTrue(snapshot.covers(38.0, -10.0, 39.0, -9.0));
+        assertFalse(snapshot.covers(27.5, -16.0, 28.5, -15.0));
+    }
+
+    private static void add(StateColumns states, String icao24, String callsign, String country, float lat, float lon) {
+        states.add(AircraftMetadataIndex.parseIcao24(icao24), callsign, country, 0L,
+                lon, lat, Float.NaN, false, Float.NaN, Float.NaN);
+    }
+
+    static List<String> icao24s(StateColumns states) {
+        List<String> result = new ArrayList<>();
+        for (int row = 0; row < states.size(); row++) {
+            result.add(states.icao24Hex(row));
+        }
+        return result;
+    }
+}
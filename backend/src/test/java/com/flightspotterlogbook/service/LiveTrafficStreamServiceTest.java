@@ -0,0 +1,195 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.dto.AircraftPositionDTO;
+import com.flightspotterlogbook.dto.LiveTrafficUpdateDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LiveTrafficStreamService.
+ * Tests snapshot/delta updates, feed sharing between subscribers and conflation.
+ */
+@ExtendWith(MockitoExtension.class)
+class LiveTrafficStreamServiceTest {
+
+    @Mock
+    private LiveStateTileCache tileCache;
+
+    @Mock
+    private LiveTrafficPoller liveTrafficPoller;
+
+    @Mock
+    private AircraftMetadataIndex metadataIndex;
+
+    @Mock
+    private OpenSkyCreditAccountant creditAccountant;
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    private LiveTrafficStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LiveTrafficStreamService(tileCache, liveTrafficPoller, metadataIndex, creditAccountant,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "period", Duration.ofMillis(50));
+        lenient().when(creditAccountant.remaining()).thenReturn(Long.MAX_VALUE);
+        // Refresh n: TAP1 moves north each time, TAP2 is only present on the first refresh,
+        // TAP3 appears from the second refresh on
+        lenient().when(tileCache.statesWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenAnswer(inv -> {
+                    int n = refreshes.incrementAndGet();
+                    StateColumns states = new StateColumns();
+                    add(states, "4951d0", 38.70f + n * 0.01f);
+                    add(states, n == 1 ? "4951d1" : "3c6444", n == 1 ? 38.80f : 38.90f);
+                    return Mono.just(states.compact());
+                });
+    }
+
+    @Test
+    void testStream_SnapshotThenDelta() {
+        // Act
+        List<LiveTrafficUpdateDTO> updates = service.stream(38.77, -9.13, 50).take(2).collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNotNull(updates);
+        LiveTrafficUpdateDTO snapshot = updates.get(0);
+        assertEquals(LiveTrafficUpdateDTO.SNAPSHOT, snapshot.getType());
+        assertEquals(List.of("4951d0", "4951d1"), snapshot.getAdded().stream().map(AircraftPositionDTO::getIcao24).toList());
+
+        LiveTrafficUpdateDTO delta = updates.get(1);
+        assertEquals(LiveTrafficUpdateDTO.DELTA, delta.getType());
+        assertEquals(List.of("3c6444"), delta.getAdded().stream().map(AircraftPositionDTO::getIcao24).toList());
+        assertEquals(List.of("4951d0"), delta.getMoved().stream().map(AircraftPositionDTO::getIcao24).toList());
+        assertEquals(List.of("4951d1"), delta.getRemoved());
+    }
+
+    @Test
+    void testStream_SubscribersToSameAreaShareOneFeed() {
+        // Arrange
+        ReflectionTestUtils.setField(service, "period", Duration.ofSeconds(30));
+
+        // Act - three clients at the same airport, one with slightly different coordinates
+        LiveTrafficUpdateDTO first = service.stream(38.77, -9.13, 50).blockFirst(Duration.ofSeconds(5));
+        LiveTrafficUpdateDTO second = service.stream(38.77, -9.13, 50).blockFirst(Duration.ofSeconds(5));
+        LiveTrafficUpdateDTO third = service.stream(38.7701, -9.1299, 50.2).blockFirst(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, refreshes.get());
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotNull(third);
+        assertEquals(LiveTrafficUpdateDTO.SNAPSHOT, second.getType());
+        assertEquals(first.getVersion(), third.getVersion());
+    }
+
+    @Test
+    void testStream_SlowSubscriberSkipsToLatestFrame() throws InterruptedException {
+        // Arrange - a client that asks for one update at a time
+        List<LiveTrafficUpdateDTO> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<LiveTrafficUpdateDTO> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(LiveTrafficUpdateDTO update) {
+                received.add(update);
+            }
+        };
+
+        // Act - let several refreshes pass before asking for the next update
+        service.stream(38.77, -9.13, 50).subscribe(slow);
+        Thread.sleep(400);
+        slow.request(1);
+        Thread.sleep(100);
+        slow.dispose();
+
+        // Assert - one delta covering the whole gap rather than a backlog
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0).getVersion());
+        LiveTrafficUpdateDTO delta = received.get(1);
+        assertTrue(delta.getVersion() > 2, "expected intermediate frames to be skipped");
+        assertEquals(List.of("3c6444"), delta.getAdded().stream().map(AircraftPositionDTO::getIcao24).toList());
+        assertEquals(List.of("4951d1"), delta.getRemoved());
+    }
+
+    @Test
+    void testStream_LowCreditsSpaceOutRefreshes() throws InterruptedException {
+        // Arrange - 100 credits spread over a day allow one refresh every 864 s
+        when(creditAccountant.remaining()).thenReturn(100L);
+
+        // Act
+        LiveTrafficUpdateDTO first = service.stream(38.77, -9.13, 50).blockFirst(Duration.ofSeconds(5));
+        Duration paced = service.upstreamPeriod(1);
+        when(creditAccountant.isLow()).thenReturn(true);
+        Duration low = service.upstreamPeriod(1);
+
+        // Assert - ticks every 50 ms did not reach upstream again
+        assertNotNull(first);
+        assertEquals(1, refreshes.get());
+        assertEquals(Duration.ofSeconds(864), paced);
+        assertEquals(paced.multipliedBy(OpenSkyCreditAccountant.LOW_CREDIT_TTL_FACTOR), low);
+    }
+
+    @Test
+    void testStream_TooManyAreas_ThrowsException() {
+        // Arrange
+        ReflectionTestUtils.setField(service, "maxAreas", 1);
+        service.stream(38.77, -9.13, 50).subscribe();
+
+        // Act & Assert - the running area can still be joined, a new one cannot
+        assertNotNull(service.stream(38.77, -9.13, 50).blockFirst(Duration.ofSeconds(5)));
+        assertThrows(LiveTrafficStreamService.TooManyAreasException.class, () -> service.stream(41.24, -8.68, 50));
+    }
+
+    @Test
+    void testDiff_UnchangedAircraftAreNotRepeated() {
+        // Arrange
+        AircraftPositionDTO still = AircraftPositionDTO.builder().icao24("4951d0").latitude(38.7).longitude(-9.1).build();
+        LiveTrafficStreamService.Frame before = new LiveTrafficStreamService.Frame(1, Map.of("4951d0", still));
+        LiveTrafficStreamService.Frame after = new LiveTrafficStreamService.Frame(2,
+                Map.of("4951d0", AircraftPositionDTO.builder().icao24("4951d0").latitude(38.7).longitude(-9.1).build()));
+
+        // Act
+        LiveTrafficUpdateDTO delta = LiveTrafficStreamService.diff(before, after);
+
+        // Assert
+        assertTrue(delta.getAdded().isEmpty());
+        assertTrue(delta.getMoved().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    void testStream_InvalidRadius_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> service.stream(38.77, -9.13, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.stream(38.77, -9.13, 1000));
+        assertThrows(IllegalArgumentException.class, () -> service.stream(95, -9.13, 50));
+        verifyNoInteractions(tileCache);
+    }
+
+    private static void add(StateColumns states, String icao24, float latitude) {
+        states.add(AircraftMetadataIndex.parseIcao24(icao24), "TAP" + icao24.substring(4) + " ", "Portugal", 0L,
+                -9.13f, latitude, 1000f, false, Float.NaN, Float.NaN);
+    }
+}
@@ -0,0 +1,130 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import com.flightspotterlogbook.dto.AircraftDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LookupResultCache.
+ * Tests fresh hits, stale-while-revalidate refreshes and failed lookups.
+ */
+class LookupResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private LookupResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cache = new LookupResultCache(meterRegistry,
+                new OpenSkyCreditAccountant(new RateLimitConfig().openSkyRateLimiter(400), meterRegistry));
+    }
+
+    @Test
+    void testGet_FreshResultIsNotReloaded() {
+        // Act
+        cache.get("europe:", () -> load("a")).block();
+        LookupResult<List<AircraftDTO>> second = cache.get("europe:", () -> load("b")).block();
+
+        // Assert
+        assertNotNull(second);
+        assertFalse(second.stale());
+        assertEquals("a", second.value().get(0).getIcao24());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_StaleResultServedWhileRefreshReplacesIt() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "freshFor", Duration.ZERO);
+        cache.get("europe:", () -> load("a")).block();
+
+        // Act
+        LookupResult<List<AircraftDTO>> stale = cache.get("europe:", () -> load("b")).block();
+        LookupResult<List<AircraftDTO>> refreshed = cache.get("europe:", () -> load("c")).block();
+
+        // Assert
+        assertNotNull(stale);
+        assertTrue(stale.stale());
+        assertEquals("a", stale.value().get(0).getIcao24());
+        assertNotNull(refreshed);
+        assertEquals("b", refreshed.value().get(0).getIcao24());
+    }
+
+    @Test
+    void testGet_FailedRefreshKeepsServingStaleResult() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "freshFor", Duration.ZERO);
+        cache.get("europe:", () -> load("a")).block();
+
+        // Act
+        cache.get("europe:", () -> Mono.error(new IOException("upstream down"))).block();
+        LookupResult<List<AircraftDTO>> result = cache.get("europe:", () -> Mono.error(new IOException("upstream down"))).block();
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.stale());
+        assertEquals("a", result.value().get(0).getIcao24());
+    }
+
+    @Test
+    void testGet_OnlyOneBackgroundRefreshAtATime() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "freshFor", Duration.ZERO);
+        cache.get("europe:", () -> load("a")).block();
+
+        // Act - the refresh never completes
+        for (int i = 0; i < 5; i++) {
+            cache.get("europe:", () -> {
+                loads.incrementAndGet();
+                return Mono.never();
+            }).block();
+        }
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_FailedLookupWithNothingCached_ReturnsEmptyAndCachesNothing() {
+        // Act
+        LookupResult<List<AircraftDTO>> result = cache.get("europe:", () -> Mono.error(new IOException("down"))).block();
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.value().isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEvictExpired_DropsResultsPastMaxStale() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "maxStale", Duration.ZERO);
+        cache.get("europe:", () -> load("a")).block();
+
+        // Act
+        cache.evictExpired();
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    private Mono<List<AircraftDTO>> load(String icao24) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return List.of(AircraftDTO.builder().icao24(icao24).build());
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.flightspotterlogbook.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NearestRows.
+ */
+class NearestRowsTest {
+
+    @Test
+    void testSort_KeepsNearestRowsInAscendingOrder() {
+        // Arrange
+        double[] distances = new double[500];
+        Random random = new Random(7);
+        NearestRows nearest = new NearestRows(10);
+
+        // Act
+        for (int row = 0; row < distances.length; row++) {
+            distances[row] = random.nextDouble() * 250;
+            nearest.offer(row, distances[row]);
+        }
+        nearest.sort();
+
+        // Assert
+        double[] expected = distances.clone();
+        Arrays.sort(expected);
+        assertEquals(10, nearest.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected[i], nearest.distance(i));
+            assertEquals(distances[nearest.row(i)], nearest.distance(i));
+        }
+    }
+
+    @Test
+    void testSort_EqualDistancesKeepRowOrder() {
+        // Arrange
+        NearestRows nearest = new NearestRows(3);
+
+        // Act
+        for (int row = 0; row < 6; row++) {
+            nearest.offer(row, 5.0);
+        }
+        nearest.sort();
+
+        // Assert
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < nearest.size(); i++) rows.add(nearest.row(i));
+        assertEquals(List.of(0, 1, 2), rows);
+    }
+
+    @Test
+    void testGeoMath_LongitudeDeltaWidensTowardsThePoles() {
+        // Act
+        double atEquator = GeoMath.longitudeDelta(0, 50);
+        double atLisbon = GeoMath.longitudeDelta(38.77, 50);
+        double atTromso = GeoMath.longitudeDelta(69.68, 50);
+
+        // Assert - 50 km east of the centre must still be inside the box
+        assertEquals(GeoMath.latitudeDelta(50), atEquator, 1e-9);
+        assertTrue(atLisbon > atEquator && atTromso > atLisbon);
+        assertEquals(50.0, GeoMath.haversineKm(69.68, 18.94, 69.68, 18.94 + atTromso), 0.5);
+    }
+}
@@ -0,0 +1,103 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OpenSkyCacheJanitor.
+ * Tests batched deletion past the grace window and the purge metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class OpenSkyCacheJanitorTest {
+
+    @Mock
+    private OpenSkyCacheRepository cacheRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OpenSkyCacheJanitor janitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        janitor = new OpenSkyCacheJanitor(cacheRepository, meterRegistry);
+        ReflectionTestUtils.setField(janitor, "batchSize", 100);
+        ReflectionTestUtils.setField(janitor, "pause", Duration.ZERO);
+        janitor.registerMetrics();
+    }
+
+    @Test
+    void testPurge_DeletesInBatchesUntilShortBatch() {
+        // Arrange
+        when(cacheRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 42);
+        when(cacheRepository.totalRelationSize()).thenReturn(8192L);
+
+        // Act
+        long purged = janitor.purge();
+
+        // Assert
+        assertEquals(242, purged);
+        verify(cacheRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+        assertEquals(242, meterRegistry.get("opensky.cache.purged").counter().count());
+        assertEquals(8192, meterRegistry.get("opensky.cache.table.bytes").gauge().value());
+    }
+
+    @Test
+    void testPurge_KeepsRowsWithinGraceWindow() {
+        // Arrange
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(cacheRepository.deleteExpiredBatch(cutoff.capture(), anyInt())).thenReturn(0);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        janitor.purge();
+
+        // Assert
+        assertFalse(cutoff.getValue().isAfter(before.minusDays(3).plusSeconds(5)));
+        assertTrue(cutoff.getValue().isAfter(before.minusDays(3).minusSeconds(5)));
+    }
+
+    @Test
+    void testPurge_DeleteFails_StillMeasuresTable() {
+        // Arrange
+        when(cacheRepository.deleteExpiredBatch(any(LocalDateTime.class), anyInt()))
+                .thenReturn(100)
+                .thenThrow(new IllegalStateException("lock timeout"));
+        when(cacheRepository.totalRelationSize()).thenReturn(4096L);
+
+        // Act
+        long purged = janitor.purge();
+
+        // Assert
+        assertEquals(100, purged);
+        assertEquals(4096, meterRegistry.get("opensky.cache.table.bytes").gauge().value());
+    }
+
+    @Test
+    void testPurge_Disabled_DoesNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(janitor, "enabled", false);
+
+        // Act
+        long purged = janitor.purge();
+
+        // Assert
+        assertEquals(0, purged);
+        verifyNoInteractions(cacheRepository);
+    }
+}
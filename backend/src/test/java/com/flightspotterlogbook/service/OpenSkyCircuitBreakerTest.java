@@ -0,0 +1,126 @@
+package com.flightspotterlogbook.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OpenSkyCircuitBreaker.
+ * Tests opening after repeated failures, fast rejection and half-open probes.
+ */
+class OpenSkyCircuitBreakerTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private OpenSkyCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        breaker = new OpenSkyCircuitBreaker(meterRegistry);
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openDuration", Duration.ofMillis(100));
+    }
+
+    @Test
+    void testProtect_OpensAfterConsecutiveFailuresAndRejectsWithoutCalling() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.protect(failing()).block());
+        }
+
+        // Assert
+        assertEquals(OpenSkyCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(OpenSkyCircuitBreaker.CircuitOpenException.class, () -> breaker.protect(succeeding()).block());
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.counter("opensky.circuit.rejected").count());
+    }
+
+    @Test
+    void testProtect_SuccessResetsFailureCount() {
+        // Act
+        breaker.protect(failing()).onErrorResume(e -> Mono.empty()).block();
+        breaker.protect(failing()).onErrorResume(e -> Mono.empty()).block();
+        breaker.protect(succeeding()).block();
+        breaker.protect(failing()).onErrorResume(e -> Mono.empty()).block();
+
+        // Assert
+        assertEquals(OpenSkyCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testProtect_SuccessfulHalfOpenProbeClosesCircuit() throws InterruptedException {
+        // Arrange
+        open();
+        Thread.sleep(150);
+
+        // Act
+        String result = breaker.protect(succeeding()).block();
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(OpenSkyCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testProtect_FailedHalfOpenProbeReopensCircuit() throws InterruptedException {
+        // Arrange
+        open();
+        Thread.sleep(150);
+
+        // Act
+        assertThrows(RuntimeException.class, () -> breaker.protect(failing()).block());
+
+        // Assert
+        assertEquals(OpenSkyCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(OpenSkyCircuitBreaker.CircuitOpenException.class, () -> breaker.protect(succeeding()).block());
+    }
+
+    @Test
+    void testProtect_OnlyOneProbeWhileHalfOpen() throws InterruptedException {
+        // Arrange
+        open();
+        Thread.sleep(150);
+        int callsBefore = calls.get();
+
+        // Act - a slow probe is in flight when a second call arrives
+        Mono<String> probe = breaker.protect(Mono.delay(Duration.ofMillis(200)).map(t -> "probe"));
+        probe.subscribe();
+        Mono<String> second = breaker.protect(succeeding());
+
+        // Assert
+        assertEquals(OpenSkyCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(OpenSkyCircuitBreaker.CircuitOpenException.class, second::block);
+        assertEquals(callsBefore, calls.get());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.protect(failing()).onErrorResume(e -> Mono.empty()).block();
+        }
+        assertEquals(OpenSkyCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private Mono<String> failing() {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IOException("upstream down"));
+        });
+    }
+
+    private Mono<String> succeeding() {
+        return Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+    }
+}
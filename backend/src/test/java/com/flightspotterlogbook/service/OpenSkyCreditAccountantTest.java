@@ -0,0 +1,103 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OpenSkyCreditAccountant.
+ * Tests the credit tiers, charging through the WebClient filter and the low-credit state.
+ */
+class OpenSkyCreditAccountantTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private OpenSkyCreditAccountant accountant;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountant = new OpenSkyCreditAccountant(new RateLimitConfig().openSkyRateLimiter(RateLimitConfig.DEFAULT_DAILY_BUDGET), meterRegistry);
+        accountant.registerMetrics();
+        webClient = WebClient.builder()
+                .baseUrl("https://opensky.test/api")
+                .filter(accountant.filter("lookup"))
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).body("{}").build());
+                })
+                .build();
+    }
+
+    @Test
+    void testCost_FollowsAreaTiers() {
+        // Assert - a 1° tile, a ±50km airport box, a 10°×10° box, Europe and the whole world
+        assertEquals(1, OpenSkyCreditAccountant.cost(38, -10, 39, -9));
+        assertEquals(1, OpenSkyCreditAccountant.cost(38.32, -9.71, 39.22, -8.55));
+        assertEquals(2, OpenSkyCreditAccountant.cost(30, 0, 40, 10));
+        assertEquals(4, OpenSkyCreditAccountant.cost(34, -25, 71, 45));
+        assertEquals(3, OpenSkyCreditAccountant.cost(URI.create(
+                "https://opensky.test/api/states/all?lamin=30&lomin=0&lamax=45&lomax=20")));
+        assertEquals(0, OpenSkyCreditAccountant.cost(URI.create("https://opensky.test/api/metadata/aircraft/icao/4951d0")));
+    }
+
+    @Test
+    void testCost_Icao24QueryWithoutBox_CostsFourCredits() {
+        // Assert - priced as the whole world, for one aircraft or a batch of them
+        assertEquals(4, OpenSkyCreditAccountant.cost(URI.create("https://opensky.test/api/states/all?icao24=4951d0")));
+        assertEquals(4, OpenSkyCreditAccountant.cost(URI.create(
+                "https://opensky.test/api/states/all?time=1700000000&icao24=4951d0&icao24=3c6444&icao24=a1b2c3")));
+        assertEquals(1, OpenSkyCreditAccountant.cost(URI.create(
+                "https://opensky.test/api/states/all?icao24=4951d0&lamin=38&lomin=-10&lamax=39&lomax=-9")));
+    }
+
+    @Test
+    void testFilter_ChargesEachCallByArea() {
+        // Act
+        webClient.get().uri("/states/all?lamin=38&lomin=-10&lamax=39&lomax=-9").retrieve().bodyToMono(String.class).block();
+        webClient.get().uri("/states/all?lamin=34.0&lomin=-25.0&lamax=71.0&lomax=45.0").retrieve().bodyToMono(String.class).block();
+        webClient.get().uri("/metadata/aircraft/icao/4951d0").retrieve().bodyToMono(String.class).block();
+
+        // Assert
+        assertEquals(295, accountant.remaining());
+        assertEquals(5.0, meterRegistry.counter("opensky.credits.spent", "client", "lookup").count());
+        assertEquals(5.0, meterRegistry.get("opensky.credits.burn-rate").gauge().value());
+        assertEquals(295.0, meterRegistry.get("opensky.credits.remaining").gauge().value());
+    }
+
+    @Test
+    void testFilter_ExhaustedBudget_FailsWithoutCallingUpstream() {
+        // Arrange
+        assertTrue(accountant.tryCharge(298, "test"));
+
+        // Act & Assert - a Europe scan needs 4 credits
+        Mono<String> europe = webClient.get().uri("/states/all?lamin=34.0&lomin=-25.0&lamax=71.0&lomax=45.0")
+                .retrieve().bodyToMono(String.class);
+        assertThrows(OpenSkyCreditAccountant.CreditBudgetExceededException.class, europe::block);
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(2, accountant.remaining());
+    }
+
+    @Test
+    void testIsLow_BelowLowWaterMark() {
+        // Act & Assert
+        assertFalse(accountant.isLow());
+        accountant.tryCharge(240, "test");
+        assertFalse(accountant.isLow());
+        accountant.tryCharge(1, "test");
+        assertTrue(accountant.isLow());
+        assertEquals(1.0, meterRegistry.get("opensky.credits.low").gauge().value());
+    }
+}
@@ -0,0 +1,154 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OpenSkyResponseCache.
+ * Tests read-through from the database, write-through to both tiers, expiry and the per-tier
+ * hit and miss metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class OpenSkyResponseCacheTest {
+
+    private static final String RESPONSE = "{\"time\":1700000000,\"states\":[" +
+            "[\"4951d0\",\"TAP123  \",\"Portugal\",1700000000,1700000001,-9.13,38.78,1066.8,false,120.5,271.0]]}";
+
+    @Mock
+    private OpenSkyCacheRepository cacheRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OpenSkyResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new OpenSkyResponseCache(cacheRepository, new StateVectorParser(), meterRegistry);
+        cache.init();
+    }
+
+    @Test
+    void testGet_ValidRow_PromotedToMemory() {
+        // Arrange
+        when(cacheRepository.findByQueryHash("h")).thenReturn(Optional.of(row(RESPONSE, LocalDateTime.now().plusHours(1))));
+
+        // Act
+        Optional<OpenSkyResponseCache.Lookup> first = cache.get("h");
+        Optional<OpenSkyResponseCache.Lookup> second = cache.get("h");
+
+        // Assert
+        assertTrue(first.orElseThrow().fresh());
+        assertEquals("TAP123", first.get().states().callsign(0));
+        assertSame(first.get().states(), second.orElseThrow().states());
+        verify(cacheRepository, times(1)).findByQueryHash("h");
+        assertEquals(1.0, requests("l1", "hit"));
+        assertEquals(1.0, requests("l1", "miss"));
+        assertEquals(1.0, requests("l2", "hit"));
+        assertEquals(0.5, meterRegistry.get("opensky.cache.hit-ratio").tag("tier", "l1").gauge().value());
+        assertEquals(1.0, meterRegistry.get("opensky.cache.hit-ratio").tag("tier", "l2").gauge().value());
+    }
+
+    @Test
+    void testGet_ExpiredRow_ReturnedStaleAndNotPromoted() {
+        // Arrange
+        when(cacheRepository.findByQueryHash("h")).thenReturn(Optional.of(row(RESPONSE, LocalDateTime.now().minusMinutes(1))));
+
+        // Act
+        Optional<OpenSkyResponseCache.Lookup> first = cache.get("h");
+        cache.get("h");
+
+        // Assert
+        assertFalse(first.orElseThrow().fresh());
+        assertEquals(1, first.get().states().size());
+        verify(cacheRepository, times(2)).findByQueryHash("h");
+        assertEquals(2.0, requests("l2", "miss"));
+    }
+
+    @Test
+    void testGet_Missing_ReturnsEmpty() {
+        // Arrange
+        when(cacheRepository.findByQueryHash("h")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(cache.get("h").isEmpty());
+        assertEquals(1.0, requests("l2", "miss"));
+    }
+
+    @Test
+    void testPut_WritesBothTiers_UpsertsRow() {
+        // Act
+        StateColumns states = cache.put("h", RESPONSE, Duration.ofHours(24));
+        Optional<OpenSkyResponseCache.Lookup> cached = cache.get("h");
+
+        // Assert - one upsert, no read-then-insert that could race on the unique hash
+        ArgumentCaptor<byte[]> gzip = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(cacheRepository).upsert(eq("h"), gzip.capture(), expiresAt.capture());
+        verify(cacheRepository, never()).findByQueryHash(anyString());
+        verify(cacheRepository, never()).save(any());
+        assertEquals(RESPONSE, OpenSkyCache.decompress(gzip.getValue()));
+        assertTrue(expiresAt.getValue().isAfter(LocalDateTime.now().plusHours(23)));
+        assertSame(states, cached.orElseThrow().states());
+        assertEquals(1.0, requests("l1", "hit"));
+        cache.cleanUp(); // the weighted size is updated by Caffeine's asynchronous maintenance
+        assertTrue(cache.memoryBytes() >= OpenSkyResponseCache.MIN_ENTRY_BYTES);
+    }
+
+    @Test
+    void testPut_ExpiresWithRow() throws InterruptedException {
+        // Arrange
+        when(cacheRepository.findByQueryHash("h")).thenReturn(Optional.empty());
+        cache.put("h", RESPONSE, Duration.ofMillis(50));
+
+        // Act
+        Thread.sleep(100);
+        Optional<OpenSkyResponseCache.Lookup> expired = cache.get("h");
+
+        // Assert - memory no longer has it, and the database (mocked empty) is asked
+        assertTrue(expired.isEmpty());
+        assertEquals(0.0, requests("l1", "hit"));
+    }
+
+    @Test
+    void testPut_MemoryBoundedByWeight() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "memoryMaxSize", DataSize.ofKilobytes(8));
+        cache.init();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            cache.put("h" + i, RESPONSE, Duration.ofHours(1));
+        }
+        cache.cleanUp();
+
+        // Assert
+        assertTrue(cache.memoryBytes() <= DataSize.ofKilobytes(8).toBytes());
+    }
+
+    private double requests(String tier, String result) {
+        return meterRegistry.get("opensky.cache.requests").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    private static OpenSkyCache row(String response, LocalDateTime expiresAt) {
+        return OpenSkyCache.builder().queryHash("h").response(response).expiresAt(expiresAt).build();
+    }
+}
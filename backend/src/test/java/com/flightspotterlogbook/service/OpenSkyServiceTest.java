@@ -0,0 +1,243 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import com.flightspotterlogbook.model.Sighting;
+import com.flightspotterlogbook.repository.OpenSkyCacheRepository;
+import com.flightspotterlogbook.repository.SightingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OpenSkyService.
+ * Tests that enrichment parses the state vector and metadata and writes them with a targeted
+ * update instead of saving the sighting.
+ */
+@ExtendWith(MockitoExtension.class)
+class OpenSkyServiceTest {
+
+    private static final String RESPONSE = "{\"time\":1700000000,\"states\":[" +
+            "[\"3c6444\",\"DLH4AB  \",\"Germany\",1700000000,1700000001,8.5,50.0,10000,false,230,90.0]," +
+            "[\"4951d0\",\"TAP123  \",\"Portugal\",1700000000,1700000001,-9.13,38.78,1066.8,false,120.5,271.0]" +
+            "]}";
+
+    @Mock
+    private OpenSkyCacheRepository cacheRepository;
+
+    @Mock
+    private SightingRepository sightingRepository;
+
+    @Mock
+    private WebClient openSkyWebClient;
+
+    @Mock
+    private OpenSkyCreditAccountant creditAccountant;
+
+    @Mock
+    private RequestCoalescer requestCoalescer;
+
+    @Mock
+    private AircraftService aircraftService;
+
+    private OpenSkyService openSkyService;
+
+    @BeforeEach
+    void setUp() {
+        OpenSkyResponseCache responseCache = new OpenSkyResponseCache(cacheRepository, new StateVectorParser(),
+                new SimpleMeterRegistry());
+        responseCache.init();
+        openSkyService = new OpenSkyService(responseCache, sightingRepository, openSkyWebClient, creditAccountant,
+                requestCoalescer, aircraftService);
+    }
+
+    @Test
+    void testEnrich_ParsesStateAndMetadata_UpdatesEnrichedColumns() {
+        // Arrange
+        Sighting sighting = sighting("4951D0", null);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.of(cached(RESPONSE)));
+        when(aircraftService.getAircraftMetadata("4951d0")).thenReturn(Mono.just(AircraftMetadata.builder()
+                .registration("CS-TUA").manufacturer("Airbus").model("A320 214").operator("TAP Air Portugal").build()));
+        when(sightingRepository.completeEnrichment(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        openSkyService.enrich(sighting);
+
+        // Assert
+        verify(sightingRepository).completeEnrichment(eq(7L), eq("CS-TUA"), eq("Airbus A320 214"),
+                eq("TAP Air Portugal"), eq("TAP123"), any(LocalDateTime.class));
+        verify(sightingRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnrich_MatchesByCallsign_ModelAlreadyNamesManufacturer() {
+        // Arrange
+        Sighting sighting = sighting(null, "dlh4ab");
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.of(cached(RESPONSE)));
+        when(aircraftService.getAircraftMetadata("3c6444")).thenReturn(Mono.just(AircraftMetadata.builder()
+                .registration("D-AIAB").manufacturer("Airbus").model("Airbus A321").build()));
+
+        // Act
+        openSkyService.enrich(sighting);
+
+        // Assert
+        verify(sightingRepository).completeEnrichment(eq(7L), eq("D-AIAB"), eq("Airbus A321"),
+                isNull(), eq("DLH4AB"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testEnrich_AircraftNotInResponse_StillLooksUpMetadata() {
+        // Arrange
+        Sighting sighting = sighting("abcdef", null);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.of(cached("{\"time\":1,\"states\":null}")));
+        when(aircraftService.getAircraftMetadata("abcdef")).thenReturn(Mono.just(AircraftMetadata.builder()
+                .registration("G-EZAB").build()));
+        when(sightingRepository.completeEnrichment(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        openSkyService.enrich(sighting);
+
+        // Assert
+        verify(sightingRepository).completeEnrichment(eq(7L), eq("G-EZAB"), isNull(), isNull(), isNull(),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void testEnrich_NeitherStateNorMetadata_ThrowsForRetry() {
+        // Arrange
+        Sighting sighting = sighting("abcdef", null);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.of(cached("{\"time\":1,\"states\":null}")));
+        when(aircraftService.getAircraftMetadata("abcdef")).thenReturn(Mono.empty());
+
+        // Act & Assert - not completed, so the job is retried and eventually dead-lettered
+        assertThrows(OpenSkyService.EnrichmentUnavailableException.class, () -> openSkyService.enrich(sighting));
+        verify(sightingRepository, never()).completeEnrichment(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testEnrich_CreditBudgetExhaustedWithoutCache_ThrowsForRetry() {
+        // Arrange
+        Sighting sighting = sighting("4951d0", null);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.empty());
+        when(requestCoalescer.execute(anyString(), any()))
+                .thenReturn(Mono.error(new OpenSkyCreditAccountant.CreditBudgetExceededException(1)));
+
+        // Act & Assert
+        assertThrows(OpenSkyService.EnrichmentUnavailableException.class, () -> openSkyService.enrich(sighting));
+        verify(sightingRepository, never()).failEnrichment(any(), any());
+        verify(sightingRepository, never()).completeEnrichment(any(), any(), any(), any(), any(), any());
+        verify(sightingRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnrichBatch_OneCallForAllAircraft_DemultiplexesRows() {
+        // Arrange
+        Sighting tap = sighting("4951D0", null);
+        Sighting lufthansa = sighting("3c6444", null);
+        lufthansa.setId(8L);
+        lufthansa.setTimestamp(tap.getTimestamp().minusMinutes(1));
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.empty());
+        when(requestCoalescer.execute(anyString(), any())).thenReturn(Mono.just(RESPONSE));
+        when(aircraftService.getAircraftMetadata(anyString())).thenReturn(Mono.empty());
+        when(sightingRepository.completeEnrichment(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        Map<Long, RuntimeException> failures = openSkyService.enrichBatch(List.of(tap, lufthansa));
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        long time = lufthansa.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+        verify(requestCoalescer, times(1)).execute(
+                eq(RequestCoalescer.key("opensky", "/states/all?icao24=3c6444&icao24=4951d0&time=" + time)), any());
+        verify(sightingRepository).completeEnrichment(eq(7L), isNull(), isNull(), isNull(), eq("TAP123"),
+                any(LocalDateTime.class));
+        verify(sightingRepository).completeEnrichment(eq(8L), isNull(), isNull(), isNull(), eq("DLH4AB"),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void testEnrichBatch_LaterAircraftNotInResponse_EnrichedAtItsOwnTime() {
+        // Arrange - the second aircraft was seen a minute after the batch's snapshot
+        Sighting tap = sighting("4951d0", null);
+        Sighting newcomer = sighting("abcdef", null);
+        newcomer.setId(8L);
+        newcomer.setTimestamp(tap.getTimestamp().plusMinutes(1));
+        long ownTime = newcomer.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.empty());
+        when(requestCoalescer.execute(anyString(), any())).thenReturn(Mono.just(RESPONSE));
+        when(requestCoalescer.execute(eq(RequestCoalescer.key("opensky", "/states/all?icao24=abcdef&time=" + ownTime)), any()))
+                .thenReturn(Mono.just("{\"time\":" + ownTime + ",\"states\":["
+                        + "[\"abcdef\",\"EZY42   \",\"United Kingdom\"," + ownTime + "," + ownTime + ",-9.2,38.8,300,false,80,270.0]]}"));
+        when(aircraftService.getAircraftMetadata(anyString())).thenReturn(Mono.empty());
+        when(sightingRepository.completeEnrichment(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        Map<Long, RuntimeException> failures = openSkyService.enrichBatch(List.of(tap, newcomer));
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        verify(requestCoalescer, times(2)).execute(anyString(), any());
+        verify(sightingRepository).completeEnrichment(eq(7L), isNull(), isNull(), isNull(), eq("TAP123"),
+                any(LocalDateTime.class));
+        verify(sightingRepository).completeEnrichment(eq(8L), isNull(), isNull(), isNull(), eq("EZY42"),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void testEnrichBatch_OneUpdateFails_ReportedForThatSightingOnly() {
+        // Arrange
+        Sighting tap = sighting("4951d0", null);
+        Sighting lufthansa = sighting("3c6444", null);
+        lufthansa.setId(8L);
+        when(cacheRepository.findByQueryHash(anyString())).thenReturn(Optional.of(cached(RESPONSE)));
+        when(aircraftService.getAircraftMetadata(anyString())).thenReturn(Mono.empty());
+        RuntimeException error = new IllegalStateException("connection reset");
+        when(sightingRepository.completeEnrichment(eq(7L), any(), any(), any(), any(), any())).thenThrow(error);
+        when(sightingRepository.completeEnrichment(eq(8L), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        Map<Long, RuntimeException> failures = openSkyService.enrichBatch(List.of(tap, lufthansa));
+
+        // Assert
+        assertEquals(Map.of(7L, error), failures);
+        verify(requestCoalescer, never()).execute(anyString(), any());
+    }
+
+    private static Sighting sighting(String icao24, String callsign) {
+        return Sighting.builder()
+                .id(7L)
+                .ownerUserId("user_123")
+                .timestamp(LocalDateTime.of(2023, 11, 14, 22, 13))
+                .airportIataOrIcao("LIS")
+                .icao24(icao24)
+                .callsign(callsign)
+                .build();
+    }
+
+    private static OpenSkyCache cached(String response) {
+        return OpenSkyCache.builder()
+                .queryHash("hash")
+                .response(response)
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+    }
+}
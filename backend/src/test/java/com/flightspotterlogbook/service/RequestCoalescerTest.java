@@ -0,0 +1,105 @@
+package com.flightspotterlogbook.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestCoalescer.
+ * Tests sharing of in-flight calls, retirement after completion, error handling and counters.
+ */
+class RequestCoalescerTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneCall() {
+        // Act - 20 concurrent callers for the same key
+        List<String> results = Flux.range(0, 20)
+                .flatMap(i -> coalescer.execute("lookup /states/all?lamin=1", this::slowCall))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertNotNull(results);
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch("response-1"::equals));
+        assertEquals(1.0, meterRegistry.counter("opensky.coalescer.requests", "outcome", "executed").count());
+        assertEquals(19.0, meterRegistry.counter("opensky.coalescer.requests", "outcome", "coalesced").count());
+    }
+
+    @Test
+    void testExecute_DifferentKeysAreNotShared() {
+        // Act
+        Flux.merge(coalescer.execute("a", this::slowCall), coalescer.execute("b", this::slowCall))
+                .blockLast(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExecute_CompletedCallIsNotReused() {
+        // Act
+        String first = coalescer.execute("a", this::slowCall).block(Duration.ofSeconds(5));
+        String second = coalescer.execute("a", this::slowCall).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals("response-1", first);
+        assertEquals("response-2", second);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExecute_ErrorReachesAllCallersAndIsNotKept() {
+        // Arrange
+        Mono<String> failing = Mono.delay(Duration.ofMillis(50))
+                .then(Mono.error(new IllegalStateException("upstream down")));
+
+        // Act
+        List<String> outcomes = Flux.range(0, 5)
+                .flatMap(i -> coalescer.execute("a", () -> {
+                            calls.incrementAndGet();
+                            return failing;
+                        })
+                        .onErrorResume(e -> Mono.just(e.getMessage())))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        String retry = coalescer.execute("a", this::slowCall).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNotNull(outcomes);
+        assertTrue(outcomes.stream().allMatch("upstream down"::equals));
+        assertEquals("response-2", retry);
+    }
+
+    @Test
+    void testKey_IgnoresParameterOrder() {
+        assertEquals(RequestCoalescer.key("lookup", "/states/all?lamin=1&lomin=2"),
+                RequestCoalescer.key("lookup", "/states/all?lomin=2&lamin=1"));
+        assertNotEquals(RequestCoalescer.key("lookup", "/states/all?lamin=1"),
+                RequestCoalescer.key("opensky", "/states/all?lamin=1"));
+    }
+
+    private Mono<String> slowCall() {
+        return Mono.delay(Duration.ofMillis(100)).map(tick -> "response-" + calls.incrementAndGet());
+    }
+}
@@ -37,7 +37,7 @@ class SightingServiceTest {
     private SightingRepository sightingRepository;
 
     @Mock
-    private OpenSkyService openSkyService;
+    private EnrichmentJobQueue enrichmentJobQueue;
 
     @InjectMocks
     private SightingService sightingService;
@@ -84,8 +84,8 @@ class SightingServiceTest {
         assertEquals(testUserId, result.getOwnerUserId());
         assertEquals(EnrichmentStatus.ENRICHING, result.getEnrichmentStatus());
         
-        // Verify enrichment was triggered
-        verify(openSkyService, times(1)).enrichAsync(any(Sighting.class));
+        // Verify enrichment was queued
+        verify(enrichmentJobQueue, times(1)).enqueue(1L);
         verify(sightingRepository, times(1)).save(any(Sighting.class));
     }
 
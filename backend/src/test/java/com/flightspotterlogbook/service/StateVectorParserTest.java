@@ -0,0 +1,169 @@
+package com.flightspotterlogbook.service;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StateVectorParser.
+ * Tests streaming token parsing across arbitrary chunk boundaries, filtering and early stop.
+ */
+class StateVectorParserTest {
+
+    private static final String RESPONSE = "{\"time\":1700000000,\"meta\":{\"states\":[[1]]},\"states\":[" +
+            "[\"4951d0\",\"TAP123  \",\"Portugal\",1700000000,1700000001,-9.13,38.78,1066.8,false,120.5,271.0,-3.2,[1,2],1100.0,\"7000\",false,0]," +
+            "[\"3c6444\",null,\"Germany\",null,1700000002,null,null,null,true,0,null,null,null,null,null,false,0]," +
+            "[\"4b1816\",\"SWR4KN  \",\"Zürich Ösé\",1700000000,1700000003,8.55,47.46,3000,false,180,90.0]," +
+            "[\"short\",\"ROW\"]" +
+            "]}";
+
+    private final StateVectorParser parser = new StateVectorParser();
+
+    @Test
+    void testParse_String_ReadsAllColumns() {
+        StateColumns states = parser.parse(RESPONSE);
+
+        assertEquals(3, states.size());
+        assertEquals("4951d0", states.icao24Hex(0));
+        assertEquals(0x4951d0, states.icao24(0));
+        assertEquals("TAP123", states.callsign(0));
+        assertEquals(1700000000L, states.timePosition(0));
+        assertEquals(-9.13f, states.longitude(0));
+        assertEquals(38.78f, states.latitude(0));
+        assertEquals(1066.8f, states.altitude(0));
+        assertEquals(120.5f, states.velocity(0));
+        assertEquals(271.0f, states.track(0));
+        assertFalse(states.onGround(0));
+        assertEquals(38.78, StateColumns.toDouble(states.latitude(0)));
+
+        assertNull(states.callsign(1));
+        assertFalse(states.hasPosition(1));
+        assertEquals(0L, states.timePosition(1));
+        assertNull(StateColumns.toDouble(states.latitude(1)));
+        assertTrue(states.onGround(1));
+        assertEquals(3000f, states.altitude(2));
+    }
+
+    @Test
+    void testParse_StreamSplitAtEveryByte_MatchesWholeParse() {
+        // Arrange - one byte per buffer, including inside multi-byte UTF-8 characters
+        byte[] bytes = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (byte b : bytes) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{b}));
+        }
+
+        // Act
+        StateColumns streamed = parser.parse(Flux.fromIterable(buffers), StateColumns.RowFilter.ALL, Integer.MAX_VALUE)
+                .block();
+
+        // Assert
+        StateColumns whole = parser.parse(RESPONSE);
+        assertNotNull(streamed);
+        assertEquals(whole.size(), streamed.size());
+        for (int row = 0; row < whole.size(); row++) {
+            assertEquals(whole.icao24(row), streamed.icao24(row));
+            assertEquals(whole.callsign(row), streamed.callsign(row));
+            assertEquals(whole.originCountry(row), streamed.originCountry(row));
+            assertEquals(whole.latitude(row), streamed.latitude(row));
+            assertEquals(whole.timePosition(row), streamed.timePosition(row));
+        }
+        assertEquals("Zürich Ösé", streamed.originCountry(2));
+    }
+
+    @Test
+    void testParse_Stream_StopsReadingAtLimit() {
+        // Arrange - a large body split into many buffers
+        StringBuilder sb = new StringBuilder("{\"time\":1,\"states\":[");
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("[\"").append(String.format("%06x", i)).append("\",\"CS").append(i).append("\",\"X\",1,1,1.0,2.0,3.0,false,4.0,5.0]");
+        }
+        byte[] bytes = sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        int chunk = 4096;
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<DataBuffer> body = Flux.range(0, (bytes.length + chunk - 1) / chunk)
+                .<DataBuffer>map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(bytes, i * chunk, Math.min(bytes.length, (i + 1) * chunk))))
+                .doOnNext(b -> emitted.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true));
+
+        // Act - keep callsigns ending in 7, stop after 5
+        StateColumns states = parser.parse(body, (columns, row) -> columns.callsign(row).endsWith("7"), 5).block();
+
+        // Assert
+        assertNotNull(states);
+        List<String> callsigns = new ArrayList<>();
+        for (int row = 0; row < states.size(); row++) callsigns.add(states.callsign(row));
+        assertEquals(List.of("CS7", "CS17", "CS27", "CS37", "CS47"), callsigns);
+        assertTrue(cancelled.get());
+        assertTrue(emitted.get() < 3, "Only the first buffers should be read, read " + emitted.get());
+    }
+
+    @Test
+    void testParse_DictionaryCodesRepeatedValues() {
+        // Arrange - 1000 aircraft from two countries
+        StringBuilder sb = new StringBuilder("{\"time\":1,\"states\":[");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("[\"").append(String.format("%06x", i)).append("\",\"CS").append(i).append("\",\"")
+                    .append(i % 2 == 0 ? "Portugal" : "Spain").append("\",1,1,1.0,2.0,3.0,false,4.0,5.0]");
+        }
+
+        // Act
+        StateColumns states = parser.parse(sb.append("]}").toString());
+
+        // Assert - the same String instance is shared by every row of a country
+        assertEquals(1000, states.size());
+        assertSame(states.originCountry(0), states.originCountry(998));
+        assertTrue(states.estimatedBytes() < 1000 * 100L, "estimated " + states.estimatedBytes());
+    }
+
+    @Test
+    void testParse_NullOrMalformedStates_ReturnsEmpty() {
+        assertTrue(parser.parse("{\"time\":1,\"states\":null}").isEmpty());
+        assertTrue(parser.parse("{\"states\":[[\"a\",").isEmpty());
+        assertTrue(parser.parse("").isEmpty());
+    }
+
+    @Test
+    void testParseGzip_SpansManyChunks_MatchesStringParse() {
+        // Arrange - well over one 8 KB chunk once decompressed
+        StringBuilder sb = new StringBuilder("{\"time\":1,\"states\":[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("[\"").append(String.format("%06x", i)).append("\",\"CS").append(i).append("\",\"Zürich\"")
+                    .append(",1,1,1.0,2.0,3.0,false,4.0,5.0]");
+        }
+        String response = sb.append("]}").toString();
+
+        // Act
+        StateColumns expected = parser.parse(response);
+        StateColumns states = parser.parseGzip(OpenSkyCache.compress(response));
+
+        // Assert
+        assertEquals(2000, states.size());
+        assertEquals(expected.icao24Hex(1999), states.icao24Hex(1999));
+        assertEquals("CS1999", states.callsign(1999));
+        assertEquals("Zürich", states.originCountry(1234));
+    }
+
+    @Test
+    void testParseGzip_NotGzip_ReturnsEmpty() {
+        assertTrue(parser.parseGzip(RESPONSE.getBytes(StandardCharsets.UTF_8)).isEmpty());
+        assertTrue(parser.parseGzip(new byte[0]).isEmpty());
+        assertTrue(parser.parseGzip(null).isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package db.migration;
+
+import com.flightspotterlogbook.model.OpenSkyCache;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the V5 migration compressing cached OpenSky responses.
+ * Runs it against an in-memory H2 table shaped like the V1 {@code opensky_cache}.
+ */
+class CompressOpenSkyCacheResponsesMigrationTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:opensky_cache_migration;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE opensky_cache (id BIGSERIAL PRIMARY KEY, "
+                    + "query_hash VARCHAR(255) NOT NULL UNIQUE, response TEXT NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO opensky_cache (query_hash, response, expires_at) VALUES (?, ?, NOW())")) {
+            for (int i = 0; i < 7; i++) {
+                insert.setString(1, "hash" + i);
+                insert.setString(2, "{\"time\":" + i + ",\"states\":[[\"4951d0\",\"TAP" + i + "\"]]}");
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testMigrate_CompressesEveryRowAndDropsTextColumn() throws Exception {
+        // Arrange
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(connection);
+
+        // Act
+        new V5__compress_opensky_cache_responses().migrate(context);
+
+        // Assert
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT query_hash, response_gzip FROM opensky_cache ORDER BY id")) {
+            int i = 0;
+            while (rows.next()) {
+                assertEquals("hash" + i, rows.getString(1));
+                assertEquals("{\"time\":" + i + ",\"states\":[[\"4951d0\",\"TAP" + i + "\"]]}",
+                        OpenSkyCache.decompress(rows.getBytes(2)));
+                i++;
+            }
+            assertEquals(7, i);
+        }
+        try (Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeQuery("SELECT response FROM opensky_cache"));
+        }
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    void testMigrate_RunsOutsideTheMigrationTransaction() {
+        // Act & Assert - so each batch commits and the table is not locked for the whole conversion
+        assertFalse(new V5__compress_opensky_cache_responses().canExecuteInTransaction());
+    }
+
+    @Test
+    void testMigrate_AfterFailedRun_ConvertsRemainingRows() throws Exception {
+        // Arrange - a run that stopped after converting the first row
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE opensky_cache ADD COLUMN response_gzip BYTEA");
+            statement.execute("UPDATE opensky_cache SET response_gzip = X'00' WHERE query_hash = 'hash0'");
+        }
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(connection);
+
+        // Act
+        new V5__compress_opensky_cache_responses().migrate(context);
+
+        // Assert - the converted row is kept, the others are compressed
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT query_hash, response_gzip FROM opensky_cache ORDER BY id")) {
+            rows.next();
+            assertArrayEquals(new byte[]{0}, rows.getBytes(2));
+            rows.next();
+            assertEquals("{\"time\":1,\"states\":[[\"4951d0\",\"TAP1\"]]}", OpenSkyCache.decompress(rows.getBytes(2)));
+        }
+    }
+
+    @Test
+    void testCompressResponses_CommitEachBatch_SurvivesRollback() throws Exception {
+        // Arrange
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE opensky_cache ADD COLUMN response_gzip BYTEA");
+        }
+        connection.setAutoCommit(false);
+
+        // Act
+        V5__compress_opensky_cache_responses.compressResponses(connection, 3, true);
+        connection.rollback();
+        connection.setAutoCommit(true);
+
+        // Assert
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM opensky_cache WHERE response_gzip IS NULL")) {
+            count.next();
+            assertEquals(0, count.getInt(1));
+        }
+    }
+
+    @Test
+    void testCompressResponses_SmallBatches_ConvertsAllRows() throws Exception {
+        // Arrange
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE opensky_cache ADD COLUMN response_gzip BYTEA");
+        }
+
+        // Act
+        int converted = V5__compress_opensky_cache_responses.compressResponses(connection, 3, false);
+
+        // Assert
+        assertEquals(7, converted);
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM opensky_cache WHERE response_gzip IS NULL")) {
+            count.next();
+            assertEquals(0, count.getInt(1));
+        }
+    }
+}
@@ -167,7 +167,7 @@ export default function EditSightingPage() {
 
   const fetchAirports = useCallback(async (query: string) => {
     try {
-      const res = await fetch(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/lookup/airports?q=${encodeURIComponent(query)}`);
+      const res = await fetch(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/lookup/airports?q=${encodeURIComponent(query)}&fuzzy=true`);
       if (!res.ok) return [];
       const airports: Airport[] = await res.json();
       return airports.map(a => ({
@@ -66,7 +66,7 @@ export default function NewSightingPage() {
   // Fetch airports from backend
   const fetchAirports = useCallback(async (query: string) => {
     try {
-      const res = await fetch(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/lookup/airports?q=${encodeURIComponent(query)}`);
+      const res = await fetch(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/lookup/airports?q=${encodeURIComponent(query)}&fuzzy=true`);
       if (!res.ok) return [];
       const airports: Airport[] = await res.json();
       return airports.map(a => ({